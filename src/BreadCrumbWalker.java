@@ -55,28 +55,54 @@ public class BreadCrumbWalker {
      * @return the path of the bread crumb walk.
      */
     public ArrayList<Coordinate> walk(int Nsteps) {
+        return walk(Nsteps, null);
+    }
+
+    /**
+     * Performs a bread crumb walk of N steps, as walk(int), while telling the listener about
+     * each coordinate as soon as it is added to the path.
+     *
+     * @param Nsteps the number of steps to simulate in the bread crumb walk
+     * @param listener notified of every coordinate of the path, in order; may be null
+     * @return the path of the bread crumb walk.
+     */
+    public ArrayList<Coordinate> walk(int Nsteps, StepListener listener) {
         int N = Nsteps;
         path.clear(); // Reset the path for this new walk.
 
         // If there are positive steps, add the starting position to the path
         if (N > 0) {
-            path.add(new Coordinate(curPos.x, curPos.y));
+            addToPath(curPos, listener);
         }
         // Perform the forward walk
         for (int step = 0; step < N; ++step) {
             mc.nextState(); // Get the next state from the Markov chain
             curPos.accumulate(getStepDirection()); // Update the current position based on the state
-            path.add(new Coordinate(curPos.x, curPos.y)); // Add the new position to the path
+            addToPath(curPos, listener); // Add the new position to the path
         }
 
         // Perform the backward walk by adding the path in reverse order
         for (int step = N - 1; step >= 0; --step) {
-            path.add(new Coordinate(path.get(step).x, path.get(step).y));
+            addToPath(path.get(step), listener);
         }
 
         return path;
     }
 
+    /**
+     * Private helper method for walk().
+     * Adds a copy of pos to the path and notifies the listener, if any.
+     *
+     * @param pos the coordinate to add
+     * @param listener the listener to notify; may be null
+     */
+    private void addToPath(Coordinate pos, StepListener listener) {
+        path.add(new Coordinate(pos.x, pos.y));
+        if (listener != null) {
+            listener.onStep(pos.x, pos.y);
+        }
+    }
+
     /**
      * Given a bread crumb walker, stores its most recently walked path to a file.
      * If the walker's path contains 0 steps, then the resulting file will be empty.
@@ -58,6 +58,35 @@ public class Coordinate {
         return new Coordinate(this.x*scale, this.y*scale);
     }
 
+    /**
+     * Pack a pair of coordinates into one long, x in the high half and y in the low half,
+     * so lattice sites can be stored in primitive arrays.
+     * @param x: the first coordinate
+     * @param y: the second coordinate
+     * @return the packed coordinates.
+     */
+    public static long pack(int x, int y) {
+        return ((long) x << 32) | (y & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Get the first coordinate of a pair packed by pack().
+     * @param packed: the packed coordinates
+     * @return the first coordinate.
+     */
+    public static int unpackX(long packed) {
+        return (int) (packed >> 32);
+    }
+
+    /**
+     * Get the second coordinate of a pair packed by pack().
+     * @param packed: the packed coordinates
+     * @return the second coordinate.
+     */
+    public static int unpackY(long packed) {
+        return (int) packed;
+    }
+
     @Override
     public String toString() {
         return "(" + Integer.toString(x) + ", " + Integer.toString(y) + ")";
@@ -0,0 +1,160 @@
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A lock-free, bounded, single-producer/single-consumer queue of walk coordinates.
+ * One thread (e.g. a walker, through the StepListener interface) offers coordinates and
+ * another thread (e.g. the event dispatch thread) polls them. Each coordinate is packed
+ * into one long slot of a power-of-two sized array.
+ *
+ * The producer never waits: if the buffer is full the coordinate is dropped, and a BREAK
+ * marker is queued before the next coordinate which fits, so the consumer knows not to
+ * join the points on either side of the gap.
+ */
+public class CoordinateRingBuffer implements StepListener {
+
+    public static final int DEFAULT_CAPACITY = 1 << 20;
+    /* Marks where coordinates were dropped. No walk reaches x = Integer.MIN_VALUE. */
+    public static final long BREAK = Long.MIN_VALUE;
+
+    private final long[] slots;
+    private final int mask;
+    private final AtomicLong head; //next slot to write; written only by the producer
+    private final AtomicLong tail; //next slot to read; written only by the consumer
+    private volatile boolean closed;
+
+    //Producer-only state.
+    private long cachedTail;
+    private boolean pendingBreak;
+    private long numDropped;
+
+    /**
+     * Create a ring buffer with DEFAULT_CAPACITY slots.
+     */
+    public CoordinateRingBuffer() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Create a ring buffer.
+     * @param capacity: the minimum number of slots; rounded up to a power of two.
+     */
+    public CoordinateRingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.slots = new long[size];
+        this.mask = size - 1;
+        this.head = new AtomicLong(0);
+        this.tail = new AtomicLong(0);
+        this.closed = false;
+        this.cachedTail = 0;
+        this.pendingBreak = false;
+        this.numDropped = 0;
+    }
+
+    /**
+     * Producer side: queue a coordinate, or drop it if the buffer is full.
+     * @param x: the x coordinate.
+     * @param y: the y coordinate.
+     */
+    @Override
+    public void onStep(int x, int y) {
+        if (pendingBreak) {
+            if (!_offer(BREAK)) {
+                ++numDropped;
+                return;
+            }
+            pendingBreak = false;
+        }
+        if (!_offer(pack(x, y))) {
+            ++numDropped;
+            pendingBreak = true;
+        }
+    }
+
+    /**
+     * Producer side: signal that no more coordinates will be offered.
+     */
+    public void close() {
+        closed = true;
+    }
+
+    /**
+     * Producer side: get the number of coordinates dropped because the buffer was full.
+     * @return the number of dropped coordinates.
+     */
+    public long getNumDropped() {
+        return numDropped;
+    }
+
+    /**
+     * Consumer side: move up to dst.length queued values into dst.
+     * Values are packed coordinates or BREAK; see unpackX(), unpackY().
+     * @param dst: the array to fill, from index 0.
+     * @return the number of values moved.
+     */
+    public int poll(long[] dst) {
+        long t = tail.get();
+        long available = head.get() - t;
+        int n = (int) Math.min(available, dst.length);
+        for (int k = 0; k < n; ++k) {
+            dst[k] = slots[(int) ((t + k) & mask)];
+        }
+        tail.lazySet(t + n);
+        return n;
+    }
+
+    /**
+     * Consumer side: check whether the producer has finished and everything has been polled.
+     * @return true if and only if no more values will ever be polled.
+     */
+    public boolean isFinished() {
+        //Read closed before head so a value offered just before close() is not missed.
+        return closed && head.get() == tail.get();
+    }
+
+    /**
+     * Pack a coordinate into one long.
+     * @param x: the x coordinate.
+     * @param y: the y coordinate.
+     * @return the packed coordinate.
+     */
+    public static long pack(int x, int y) {
+        return Coordinate.pack(x, y);
+    }
+
+    /**
+     * Get the x coordinate of a packed coordinate.
+     * @param packed: a coordinate packed by pack().
+     * @return the x coordinate.
+     */
+    public static int unpackX(long packed) {
+        return Coordinate.unpackX(packed);
+    }
+
+    /**
+     * Get the y coordinate of a packed coordinate.
+     * @param packed: a coordinate packed by pack().
+     * @return the y coordinate.
+     */
+    public static int unpackY(long packed) {
+        return Coordinate.unpackY(packed);
+    }
+
+    /**
+     * A private helper method which queues one value if there is room.
+     * @param val: the value to queue.
+     * @return false if and only if the buffer was full.
+     */
+    private boolean _offer(long val) {
+        long h = head.get();
+        if (h - cachedTail == slots.length) {
+            cachedTail = tail.get();
+            if (h - cachedTail == slots.length) {
+                return false;
+            }
+        }
+        slots[(int) (h & mask)] = val;
+        head.lazySet(h + 1); //publishes the slot write to the consumer
+        return true;
+    }
+
+}
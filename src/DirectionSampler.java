@@ -0,0 +1,103 @@
+import java.util.SplittableRandom;
+
+/**
+ * A snapshot of a direction Markov chain for walkers which run many walks at once, such as
+ * FirstPassageSimulator. Each row of the transition matrix is stored as a flat cumulative
+ * distribution, and each state's step along the lattice is precomputed from its label,
+ * so sampling a step needs no matrix lookups or String comparisons.
+ *
+ * Unlike MarkovChain, a DirectionSampler keeps no current state or random number generator:
+ * callers pass their own, so one sampler can be shared by any number of threads.
+ */
+public class DirectionSampler {
+
+    public static final String SOUTH = "S";
+    public static final String EAST = "E";
+    public static final String NORTH = "N";
+
+    private int numStates;
+    private double[] cdf; //row-major cumulative transition probabilities
+    private int[] stepX;
+    private int[] stepY;
+    private int startState;
+
+    /**
+     * Construct a sampler from a Markov chain.
+     * The Markov chain should at most have the state labels "N", "E", "S", "W";
+     * which encode the cardinal directions to walk. Its transition matrix, labels and
+     * current state are used; its random numbers are not.
+     * @param chain the Markov chain encoding walk direction, as for RandomWalker
+     */
+    public DirectionSampler(MarkovChain chain) {
+        numStates = chain.getNumStates();
+        cdf = new double[numStates * numStates];
+        stepX = new int[numStates];
+        stepY = new int[numStates];
+        for (int i = 0; i < numStates; ++i) {
+            double total = 0;
+            for (int j = 0; j < numStates; ++j) {
+                total += chain.getTransitionProbability(i, j);
+                cdf[i*numStates + j] = total;
+            }
+            String state = chain.getStateString(i);
+            if (state.equals(NORTH)) {
+                stepY[i] = 1;
+            } else if (state.equals(EAST)) {
+                stepX[i] = 1;
+            } else if (state.equals(SOUTH)) {
+                stepY[i] = -1;
+            } else {
+                stepX[i] = -1; //assuming this is W - WEST
+            }
+        }
+        startState = chain.getState();
+    }
+
+    /**
+     * Sample the state after a transition.
+     * @param state: the current state.
+     * @param rng: the random number generator to draw from.
+     * @return the next state.
+     */
+    public int nextState(int state, SplittableRandom rng) {
+        double r = rng.nextDouble();
+        int row = state * numStates;
+        int next = 0;
+        //Rows sum to 1 within FloatMatrix.EPSILON; r beyond the last total takes state 0, as in MarkovChain.
+        while (next < numStates && r >= cdf[row + next]) {
+            ++next;
+        }
+        return next < numStates ? next : 0;
+    }
+
+    /**
+     * @param state: a state of the chain.
+     * @return the change in x of a step in the state's direction.
+     */
+    public int getStepX(int state) {
+        return stepX[state];
+    }
+
+    /**
+     * @param state: a state of the chain.
+     * @return the change in y of a step in the state's direction.
+     */
+    public int getStepY(int state) {
+        return stepY[state];
+    }
+
+    /**
+     * @return the state of the chain when the sampler was constructed, where walks start.
+     */
+    public int getStartState() {
+        return startState;
+    }
+
+    /**
+     * @return the number of states of the chain.
+     */
+    public int getNumStates() {
+        return numStates;
+    }
+
+}
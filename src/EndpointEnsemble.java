@@ -0,0 +1,214 @@
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs an ensemble of independent random walks, with the same Markov chain model as
+ * RandomWalker, and histograms where they end. Walks keep only their current position and
+ * heading, never their path.
+ *
+ * Each worker thread adds the endpoints of its walks to its own primitive grid, and the grids
+ * are summed once every walk is done, so memory is O(grid size * threads) however many walkers
+ * there are, and threads never contend for shared counters. Walkers are handed out in blocks,
+ * each with its own random number stream seeded from one master seed, so the histogram does
+ * not depend on the number of threads.
+ */
+public class EndpointEnsemble {
+
+    //Walkers are handed to threads in blocks of this many, each block with its own random numbers.
+    public static final int BLOCK_SIZE = 1 << 12;
+    //The default grid covers this many standard deviations of an unbiased walk's endpoint.
+    public static final double DEFAULT_SPREAD = 5.0;
+    //The default grid has at most this many cells either side of the origin, widening its cells instead.
+    public static final int MAX_DEFAULT_HALF_WIDTH = 512;
+
+    private DirectionSampler sampler;
+    private int nThreads;
+
+    /**
+     * Construct an ensemble using one thread per processor.
+     * @param chain the Markov chain encoding walk direction, as for RandomWalker
+     */
+    public EndpointEnsemble(MarkovChain chain) {
+        this(chain, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Construct an ensemble.
+     * The Markov chain should at most have the state labels "N", "E", "S", "W";
+     * which encode the cardinal directions to walk. Its transition matrix, labels and
+     * current state are used; its random numbers are not.
+     * @param chain the Markov chain encoding walk direction, as for RandomWalker
+     * @param nThreads the number of threads running walks
+     */
+    public EndpointEnsemble(MarkovChain chain, int nThreads) {
+        this.sampler = new DirectionSampler(chain);
+        this.nThreads = Math.max(1, nThreads);
+    }
+
+    /**
+     * Run numWalkers walks of nSteps steps from the origin and histogram their endpoints on a
+     * grid wide enough for DEFAULT_SPREAD standard deviations of an unbiased walk. Walks of up to
+     * MAX_DEFAULT_HALF_WIDTH steps get one cell per lattice site; longer walks get wider cells.
+     * Wider cells are always an even number of sites wide: after n steps a walk can only be at
+     * sites with x + y of the same parity as n, and an odd width would give alternate cells one
+     * more such site than their neighbours, drawing a checkerboard over the distribution.
+     * @param numWalkers the number of walks
+     * @param nSteps the number of steps of each walk
+     * @param seed the master random number generator seed
+     * @return the endpoint histogram.
+     */
+    public EndpointHistogram run(int numWalkers, int nSteps, long seed) {
+        int reach = (int) Math.max(1, Math.min(nSteps, Math.ceil(DEFAULT_SPREAD * Math.sqrt(nSteps))));
+        int binSize = (reach + MAX_DEFAULT_HALF_WIDTH - 1) / MAX_DEFAULT_HALF_WIDTH;
+        if (binSize > 1 && binSize % 2 != 0) {
+            ++binSize;
+        }
+        int halfWidth = (reach + binSize - 1) / binSize;
+        return run(numWalkers, nSteps, halfWidth, binSize, seed);
+    }
+
+    /**
+     * Run numWalkers walks of nSteps steps from the origin and histogram their endpoints.
+     * The grid has 2 * halfWidth + 1 cells a side, centered on the origin, each binSize lattice
+     * units wide; see EndpointHistogram. Endpoints beyond the grid are only counted.
+     * @param numWalkers the number of walks
+     * @param nSteps the number of steps of each walk
+     * @param halfWidth the number of cells either side of the origin's cell
+     * @param binSize the width of a cell in lattice units
+     * @param seed the master random number generator seed
+     * @return the endpoint histogram.
+     */
+    public EndpointHistogram run(int numWalkers, int nSteps, int halfWidth, int binSize, long seed) {
+        if (numWalkers < 0 || nSteps < 0) {
+            throw new IllegalArgumentException("The number of walkers and steps must not be negative.");
+        }
+        if (halfWidth < 0 || binSize < 1) {
+            throw new IllegalArgumentException("The grid half width must not be negative and the bin size must be positive.");
+        }
+        long side = 2L * halfWidth + 1;
+        if (side * side > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("The grid with half width " + halfWidth + " is too large.");
+        }
+
+        int numBlocks = (int) (((long) numWalkers + BLOCK_SIZE - 1) / BLOCK_SIZE);
+        long[] seeds = new SplittableRandom(seed).longs(numBlocks).toArray();
+        //Per block sums of the exact endpoints, added in block order so the totals do not depend on the threads.
+        double[] sumX = new double[numBlocks];
+        double[] sumY = new double[numBlocks];
+        double[] sumR2 = new double[numBlocks];
+
+        int nTasks = Math.max(1, Math.min(nThreads, numBlocks));
+        int[][] grids = new int[nTasks][];
+        long[] outside = new long[nTasks];
+        long[] counts = new long[(int) (side * side)];
+        AtomicInteger nextBlock = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(nTasks);
+        try {
+            ArrayList<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < nTasks; ++t) {
+                int task = t;
+                futures.add(pool.submit(() -> {
+                    int[] grid = new int[counts.length];
+                    grids[task] = grid;
+                    int block;
+                    while ((block = nextBlock.getAndIncrement()) < numBlocks) {
+                        outside[task] += _runBlock(block, numWalkers, nSteps, halfWidth, binSize,
+                                new SplittableRandom(seeds[block]), grid, sumX, sumY, sumR2);
+                    }
+                }));
+            }
+            _await(futures);
+
+            //Sum the thread grids, one stripe of cells per task.
+            futures.clear();
+            for (int t = 0; t < nTasks; ++t) {
+                int first = (int) ((long) counts.length * t / nTasks);
+                int last = (int) ((long) counts.length * (t+1) / nTasks);
+                futures.add(pool.submit(() -> {
+                    for (int[] grid : grids) {
+                        for (int i = first; i < last; ++i) {
+                            counts[i] += grid[i];
+                        }
+                    }
+                }));
+            }
+            _await(futures);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        long numOutside = 0;
+        for (long o : outside) {
+            numOutside += o;
+        }
+        double totalX = 0;
+        double totalY = 0;
+        double totalR2 = 0;
+        for (int b = 0; b < numBlocks; ++b) {
+            totalX += sumX[b];
+            totalY += sumY[b];
+            totalR2 += sumR2[b];
+        }
+        return new EndpointHistogram(counts, halfWidth, binSize, numWalkers, nSteps, numOutside,
+                totalX, totalY, totalR2);
+    }
+
+    /**
+     * Private helper method for run().
+     * Run the walkers of one block, adding their endpoints to grid.
+     * @return the number of endpoints beyond the grid.
+     */
+    private long _runBlock(int block, int numWalkers, int nSteps, int halfWidth, int binSize,
+                           SplittableRandom rng, int[] grid, double[] sumX, double[] sumY, double[] sumR2) {
+        int side = 2 * halfWidth + 1;
+        long first = (long) block * BLOCK_SIZE;
+        long last = Math.min(numWalkers, first + BLOCK_SIZE);
+        long numOutside = 0;
+        double bx = 0;
+        double by = 0;
+        double br2 = 0;
+        for (long w = first; w < last; ++w) {
+            int x = 0;
+            int y = 0;
+            int state = sampler.getStartState();
+            for (int step = 0; step < nSteps; ++step) {
+                state = sampler.nextState(state, rng);
+                x += sampler.getStepX(state);
+                y += sampler.getStepY(state);
+            }
+            bx += x;
+            by += y;
+            br2 += (double) x * x + (double) y * y;
+            int cx = EndpointHistogram.cellOf(x, binSize) + halfWidth;
+            int cy = EndpointHistogram.cellOf(y, binSize) + halfWidth;
+            if (cx < 0 || cx >= side || cy < 0 || cy >= side) {
+                ++numOutside;
+            } else {
+                ++grid[cy*side + cx];
+            }
+        }
+        sumX[block] = bx;
+        sumY[block] = by;
+        sumR2[block] = br2;
+        return numOutside;
+    }
+
+    /**
+     * A private helper method waiting for tasks, rethrowing their failures.
+     */
+    private static void _await(ArrayList<Future<?>> futures) {
+        try {
+            for (Future<?> f : futures) {
+                f.get();
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            throw new RuntimeException("Running the walk ensemble failed.", e);
+        }
+    }
+
+}
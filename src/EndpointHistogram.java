@@ -0,0 +1,208 @@
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * The endpoints of an EndpointEnsemble run, counted on a square grid of cells centered on
+ * the origin. The grid has 2 * halfWidth + 1 cells a side, and each cell is binSize lattice
+ * units wide: cell c covers the coordinates c * binSize - binSize / 2 to
+ * c * binSize - binSize / 2 + binSize - 1, so with a bin size of 1 cells are lattice sites.
+ * Cells are numbered from -halfWidth to halfWidth in both directions.
+ *
+ * Endpoints beyond the grid are counted but not placed. The mean endpoint and mean squared
+ * displacement are computed from the exact endpoints, not from the cells.
+ */
+public class EndpointHistogram {
+
+    private long[] counts; //row-major, row cy + halfWidth and column cx + halfWidth
+    private int halfWidth;
+    private int binSize;
+    private int numWalkers;
+    private int numSteps;
+    private long numOutside;
+    private double sumX;
+    private double sumY;
+    private double sumR2;
+
+    /**
+     * Construct a histogram.
+     * @param counts: the count of each cell, row-major with rows along y.
+     * @param halfWidth: the number of cells either side of the origin's cell.
+     * @param binSize: the width of a cell in lattice units.
+     * @param numWalkers: the number of walks.
+     * @param numSteps: the number of steps of each walk.
+     * @param numOutside: the number of endpoints beyond the grid.
+     * @param sumX: the sum of the endpoints' x coordinates.
+     * @param sumY: the sum of the endpoints' y coordinates.
+     * @param sumR2: the sum of the endpoints' squared distances from the origin.
+     */
+    EndpointHistogram(long[] counts, int halfWidth, int binSize, int numWalkers, int numSteps, long numOutside,
+                      double sumX, double sumY, double sumR2) {
+        this.counts = counts;
+        this.halfWidth = halfWidth;
+        this.binSize = binSize;
+        this.numWalkers = numWalkers;
+        this.numSteps = numSteps;
+        this.numOutside = numOutside;
+        this.sumX = sumX;
+        this.sumY = sumY;
+        this.sumR2 = sumR2;
+    }
+
+    /**
+     * Get the cell containing a coordinate, along one axis.
+     * @param coord: the x or y coordinate.
+     * @param binSize: the width of a cell in lattice units.
+     * @return the cell number along that axis.
+     */
+    public static int cellOf(int coord, int binSize) {
+        return Math.floorDiv(coord + binSize / 2, binSize);
+    }
+
+    /**
+     * @return the number of cells either side of the origin's cell.
+     */
+    public int getHalfWidth() {
+        return halfWidth;
+    }
+
+    /**
+     * @return the width of a cell in lattice units.
+     */
+    public int getBinSize() {
+        return binSize;
+    }
+
+    /**
+     * @return the number of walks run.
+     */
+    public int getNumWalkers() {
+        return numWalkers;
+    }
+
+    /**
+     * @return the number of steps of each walk.
+     */
+    public int getNumSteps() {
+        return numSteps;
+    }
+
+    /**
+     * @return the number of walks which ended beyond the grid.
+     */
+    public long getNumOutside() {
+        return numOutside;
+    }
+
+    /**
+     * Get the number of walks which ended in a cell.
+     * @param cx: the cell number along x.
+     * @param cy: the cell number along y.
+     * @return the count, or 0 if the cell is beyond the grid.
+     */
+    public long getCount(int cx, int cy) {
+        if (Math.abs(cx) > halfWidth || Math.abs(cy) > halfWidth) {
+            return 0;
+        }
+        int side = 2 * halfWidth + 1;
+        return counts[(cy + halfWidth) * side + cx + halfWidth];
+    }
+
+    /**
+     * Get the number of walks which ended in the cell containing the lattice site (x, y).
+     * @param x: the x coordinate of the site.
+     * @param y: the y coordinate of the site.
+     * @return the count, or 0 if the site is beyond the grid.
+     */
+    public long getCountAt(int x, int y) {
+        return getCount(cellOf(x, binSize), cellOf(y, binSize));
+    }
+
+    /**
+     * Get the fraction of walks which ended in a cell.
+     * @param cx: the cell number along x.
+     * @param cy: the cell number along y.
+     * @return the fraction, or 0 if there were no walks.
+     */
+    public double getProbability(int cx, int cy) {
+        return numWalkers == 0 ? 0 : (double) getCount(cx, cy) / numWalkers;
+    }
+
+    /**
+     * @return the mean x coordinate of the endpoints, or NaN if there were no walks.
+     */
+    public double getMeanX() {
+        return sumX / numWalkers;
+    }
+
+    /**
+     * @return the mean y coordinate of the endpoints, or NaN if there were no walks.
+     */
+    public double getMeanY() {
+        return sumY / numWalkers;
+    }
+
+    /**
+     * @return the mean squared distance of the endpoints from the origin, or NaN if there were no walks.
+     */
+    public double getMeanSquaredDisplacement() {
+        return sumR2 / numWalkers;
+    }
+
+    /**
+     * Get the fraction of walks ending in each cell as a matrix laid out like a map:
+     * row 0 is the northernmost row of cells (cy = halfWidth) and column 0 the westernmost.
+     * @return the matrix of probabilities, 2 * halfWidth + 1 cells a side.
+     */
+    public FloatMatrix toFloatMatrix() {
+        int side = 2 * halfWidth + 1;
+        FloatMatrix M = new FloatMatrix(side, side);
+        float[] row = new float[side];
+        for (int r = 0; r < side; ++r) {
+            int cy = halfWidth - r;
+            for (int cx = -halfWidth; cx <= halfWidth; ++cx) {
+                row[cx + halfWidth] = (float) getProbability(cx, cy);
+            }
+            M.setRow(r, row);
+        }
+        return M;
+    }
+
+    /**
+     * Store the matrix of toFloatMatrix() to a file, as comma-separated values with one row
+     * per line, which FloatMatrix.fromFile() can read back.
+     * @param fname the name of the file in which to write the distribution
+     * @throws IOException if the file could not be open or created writing
+     */
+    public void saveToFile(String fname) throws IOException {
+        FloatMatrix M = toFloatMatrix();
+        float[] row = new float[M.columns()];
+        try (PrintWriter writer = new PrintWriter(new BufferedWriter(new FileWriter(fname)))) {
+            for (int r = 0; r < M.rows(); ++r) {
+                M.getRow(r, row);
+                for (int c = 0; c < row.length; ++c) {
+                    if (c > 0) {
+                        writer.print(", ");
+                    }
+                    writer.print(row[c]);
+                }
+                writer.println();
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        int side = 2 * halfWidth + 1;
+        StringBuilder sb = new StringBuilder();
+        sb.append("Walkers:                   ").append(numWalkers).append(" of ").append(numSteps).append(" steps\n");
+        sb.append("Grid:                      ").append(side).append(" x ").append(side).append(" cells of ")
+                .append(binSize).append(" x ").append(binSize).append(" sites\n");
+        sb.append("Endpoints beyond grid:     ").append(numOutside).append('\n');
+        sb.append(String.format("Mean endpoint:             (%.3f, %.3f)%n", getMeanX(), getMeanY()));
+        sb.append(String.format("Mean squared displacement: %.3f", getMeanSquaredDisplacement()));
+        return sb.toString();
+    }
+
+}
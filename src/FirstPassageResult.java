@@ -0,0 +1,235 @@
+/**
+ * The hitting times found by a FirstPassageSimulator run: the empirical distribution of the
+ * number of steps taken to first hit the target, with confidence intervals.
+ * Trials which reached the step limit without hitting the target are censored: they count
+ * towards the number of trials, but their hitting times are only known to exceed the limit.
+ *
+ * Intervals take a z-score, e.g. Z_95 for 95% confidence. Probabilities use Wilson score
+ * intervals, the mean uses the normal approximation, and quantiles use order statistics.
+ */
+public class FirstPassageResult {
+
+    //The z-score of a two sided 95% confidence interval.
+    public static final double Z_95 = 1.959963984540054;
+    //Returned by quantiles which lie beyond the step limit.
+    public static final long CENSORED = -1;
+
+    private long[] hits; //sorted hitting times of the trials which hit the target
+    private int numTrials;
+    private long maxSteps;
+
+    /**
+     * Construct a result.
+     * @param hits: the hitting times of the trials which hit the target, sorted ascending.
+     * @param numTrials: the total number of trials, including censored ones.
+     * @param maxSteps: the step limit of the trials.
+     */
+    FirstPassageResult(long[] hits, int numTrials, long maxSteps) {
+        this.hits = hits;
+        this.numTrials = numTrials;
+        this.maxSteps = maxSteps;
+    }
+
+    /**
+     * @return the number of trials run.
+     */
+    public int getNumTrials() {
+        return numTrials;
+    }
+
+    /**
+     * @return the number of trials which hit the target within the step limit.
+     */
+    public int getNumHits() {
+        return hits.length;
+    }
+
+    /**
+     * @return the number of trials which reached the step limit without hitting the target.
+     */
+    public int getNumCensored() {
+        return numTrials - hits.length;
+    }
+
+    /**
+     * @return the step limit of the trials.
+     */
+    public long getMaxSteps() {
+        return maxSteps;
+    }
+
+    /**
+     * @return the hitting times of the trials which hit the target, sorted ascending.
+     */
+    public long[] getHittingTimes() {
+        return hits.clone();
+    }
+
+    /**
+     * Get the fraction of trials which hit the target within t steps: the empirical cumulative
+     * distribution function of the hitting time.
+     * @param t: the number of steps.
+     * @return the fraction of trials, or 0 if there were none.
+     */
+    public double getCumulativeProbability(long t) {
+        return numTrials == 0 ? 0 : (double) _countAtMost(t) / numTrials;
+    }
+
+    /**
+     * Get a confidence interval for the probability of hitting the target within t steps.
+     * @param t: the number of steps.
+     * @param z: the z-score of the interval.
+     * @return the lower and upper bounds.
+     */
+    public double[] getCumulativeProbabilityInterval(long t, double z) {
+        return _wilsonInterval(_countAtMost(t), numTrials, z);
+    }
+
+    /**
+     * @return the fraction of trials which hit the target within the step limit.
+     */
+    public double getHitProbability() {
+        return getCumulativeProbability(maxSteps);
+    }
+
+    /**
+     * @param z: the z-score of the interval.
+     * @return the lower and upper bounds of a confidence interval for getHitProbability().
+     */
+    public double[] getHitProbabilityInterval(double z) {
+        return getCumulativeProbabilityInterval(maxSteps, z);
+    }
+
+    /**
+     * Get the mean hitting time of the trials which hit the target. If some trials were censored
+     * this is the mean conditioned on hitting within the step limit, which underestimates the
+     * unconditional mean.
+     * @return the mean, or NaN if no trial hit the target.
+     */
+    public double getMeanHittingTime() {
+        if (hits.length == 0) {
+            return Double.NaN;
+        }
+        double mean = 0;
+        for (int i = 0; i < hits.length; ++i) {
+            mean += (hits[i] - mean) / (i + 1);
+        }
+        return mean;
+    }
+
+    /**
+     * Get a confidence interval for getMeanHittingTime(), from the normal approximation.
+     * @param z: the z-score of the interval.
+     * @return the lower and upper bounds, NaN if fewer than two trials hit the target.
+     */
+    public double[] getMeanHittingTimeInterval(double z) {
+        if (hits.length < 2) {
+            return new double[] {Double.NaN, Double.NaN};
+        }
+        //Welford's running variance.
+        double mean = 0;
+        double m2 = 0;
+        for (int i = 0; i < hits.length; ++i) {
+            double delta = hits[i] - mean;
+            mean += delta / (i + 1);
+            m2 += delta * (hits[i] - mean);
+        }
+        double halfWidth = z * Math.sqrt(m2 / (hits.length - 1) / hits.length);
+        return new double[] {mean - halfWidth, mean + halfWidth};
+    }
+
+    /**
+     * Get the p-quantile of the hitting time over all trials: the smallest number of steps
+     * within which at least a fraction p of the trials hit the target.
+     * @param p: the fraction, between 0 and 1.
+     * @return the quantile, or CENSORED if it lies beyond the step limit.
+     */
+    public long getQuantile(double p) {
+        if (numTrials == 0) {
+            return CENSORED;
+        }
+        long rank = (long) Math.ceil(p * numTrials); //1-based rank among all trials
+        return _timeAtRank(Math.max(1, rank));
+    }
+
+    /**
+     * Get a distribution free confidence interval for the p-quantile, from the ranks of
+     * order statistics given by the normal approximation to the binomial distribution.
+     * @param p: the fraction, between 0 and 1.
+     * @param z: the z-score of the interval.
+     * @return the lower and upper bounds; either may be CENSORED.
+     */
+    public long[] getQuantileInterval(double p, double z) {
+        if (numTrials == 0) {
+            return new long[] {CENSORED, CENSORED};
+        }
+        double spread = z * Math.sqrt(numTrials * p * (1 - p));
+        long lo = (long) Math.floor(numTrials * p - spread);
+        long hi = (long) Math.ceil(numTrials * p + spread) + 1;
+        lo = Math.max(1, Math.min(numTrials, lo));
+        hi = Math.max(1, Math.min(numTrials, hi));
+        return new long[] {_timeAtRank(lo), _timeAtRank(hi)};
+    }
+
+    @Override
+    public String toString() {
+        double[] hitCi = getHitProbabilityInterval(Z_95);
+        double[] meanCi = getMeanHittingTimeInterval(Z_95);
+        long[] medianCi = getQuantileInterval(0.5, Z_95);
+        StringBuilder sb = new StringBuilder();
+        sb.append("Trials:                    ").append(numTrials).append(" (")
+                .append(getNumCensored()).append(" censored at ").append(maxSteps).append(" steps)\n");
+        sb.append(String.format("Hit probability:           %.4f  95%% CI [%.4f, %.4f]%n", getHitProbability(), hitCi[0], hitCi[1]));
+        sb.append(String.format("Mean hitting time:         %.3f  95%% CI [%.3f, %.3f]%n", getMeanHittingTime(), meanCi[0], meanCi[1]));
+        sb.append("Median hitting time:       ").append(_format(getQuantile(0.5)))
+                .append("  95% CI [").append(_format(medianCi[0])).append(", ").append(_format(medianCi[1])).append("]\n");
+        sb.append("90th percentile:           ").append(_format(getQuantile(0.9)));
+        return sb.toString();
+    }
+
+    private String _format(long time) {
+        return time == CENSORED ? "> " + maxSteps : Long.toString(time);
+    }
+
+    /**
+     * A private helper method counting the trials which hit the target within t steps.
+     */
+    private int _countAtMost(long t) {
+        //Binary search for the first hitting time greater than t.
+        int lo = 0;
+        int hi = hits.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (hits[mid] <= t) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * A private helper method giving the hitting time of the trial with a 1-based rank among all trials,
+     * where censored trials rank last.
+     */
+    private long _timeAtRank(long rank) {
+        return rank <= hits.length ? hits[(int) rank - 1] : CENSORED;
+    }
+
+    /**
+     * A private helper method computing the Wilson score interval for a binomial proportion.
+     */
+    private static double[] _wilsonInterval(long successes, long trials, double z) {
+        if (trials == 0) {
+            return new double[] {0, 1};
+        }
+        double p = (double) successes / trials;
+        double z2 = z * z;
+        double denom = 1 + z2 / trials;
+        double center = (p + z2 / (2.0 * trials)) / denom;
+        double halfWidth = z * Math.sqrt(p * (1 - p) / trials + z2 / (4.0 * trials * trials)) / denom;
+        return new double[] {Math.max(0, center - halfWidth), Math.min(1, center + halfWidth)};
+    }
+
+}
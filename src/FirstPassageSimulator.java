@@ -0,0 +1,117 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * A Monte Carlo engine for first-passage questions, such as "how many steps until the walker
+ * first leaves radius R?" or "how many steps until it reaches site (a, b)?".
+ * Each trial walks from the origin with the same Markov chain model as RandomWalker until
+ * the WalkTarget is hit or a step limit is reached. Only the current position and heading are
+ * kept, never the path, so trials of any length take constant memory.
+ *
+ * Trials run in parallel on a pool of worker threads. Every trial has its own random number
+ * stream, seeded from one master seed, so results do not depend on the number of threads.
+ */
+public class FirstPassageSimulator {
+
+    //Positions are ints, as WalkTarget takes them, so longer trials could wrap around the lattice.
+    public static final long MAX_STEPS = Integer.MAX_VALUE;
+
+    private DirectionSampler sampler;
+    private int nThreads;
+
+    /**
+     * Construct a simulator using one thread per processor.
+     * @param chain the Markov chain encoding walk direction, as for RandomWalker
+     */
+    public FirstPassageSimulator(MarkovChain chain) {
+        this(chain, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Construct a simulator.
+     * The Markov chain should at most have the state labels "N", "E", "S", "W";
+     * which encode the cardinal directions to walk. Its transition matrix, labels and
+     * current state are used; its random numbers are not.
+     * @param chain the Markov chain encoding walk direction, as for RandomWalker
+     * @param nThreads the number of threads running trials
+     */
+    public FirstPassageSimulator(MarkovChain chain, int nThreads) {
+        this.sampler = new DirectionSampler(chain);
+        this.nThreads = Math.max(1, nThreads);
+    }
+
+    /**
+     * Run independent trials, each walking from the origin until target is hit or maxSteps
+     * steps have been taken. A trial which starts on the target hits it after 0 steps.
+     * @param target the condition which ends a trial
+     * @param numTrials the number of trials to run
+     * @param maxSteps the step limit, at most MAX_STEPS; trials reaching it without hitting the target are censored
+     * @param seed the master random number generator seed
+     * @return the hitting times of the trials.
+     */
+    public FirstPassageResult run(WalkTarget target, int numTrials, long maxSteps, long seed) {
+        if (numTrials < 0 || maxSteps < 0) {
+            throw new IllegalArgumentException("The number of trials and the step limit must not be negative.");
+        }
+        if (maxSteps > MAX_STEPS) {
+            throw new IllegalArgumentException("The step limit must be at most " + MAX_STEPS + ".");
+        }
+        long[] seeds = new SplittableRandom(seed).longs(numTrials).toArray();
+        long[] times = new long[numTrials];
+
+        int nTasks = Math.max(1, Math.min(nThreads, numTrials));
+        ExecutorService pool = Executors.newFixedThreadPool(nTasks);
+        try {
+            ArrayList<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < nTasks; ++t) {
+                int first = (int) ((long) numTrials * t / nTasks);
+                int last = (int) ((long) numTrials * (t+1) / nTasks);
+                futures.add(pool.submit(() -> {
+                    for (int i = first; i < last; ++i) {
+                        times[i] = _trial(target, maxSteps, new SplittableRandom(seeds[i]));
+                    }
+                }));
+            }
+            for (Future<?> f : futures) {
+                f.get();
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            throw new RuntimeException("Running first-passage trials failed.", e);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        //Censored trials are marked -1; keep only the hitting times, sorted.
+        long[] hits = Arrays.stream(times).filter(t -> t >= 0).sorted().toArray();
+        return new FirstPassageResult(hits, numTrials, maxSteps);
+    }
+
+    /**
+     * Private helper method for run().
+     * Walk until the target is hit.
+     * @return the number of steps taken, or -1 if the target was not hit within maxSteps.
+     */
+    private long _trial(WalkTarget target, long maxSteps, SplittableRandom rng) {
+        int x = 0;
+        int y = 0;
+        int state = sampler.getStartState();
+        if (target.isHit(x, y)) {
+            return 0;
+        }
+        for (long step = 1; step <= maxSteps; ++step) {
+            state = sampler.nextState(state, rng);
+            x += sampler.getStepX(state);
+            y += sampler.getStepY(state);
+            if (target.isHit(x, y)) {
+                return step;
+            }
+        }
+        return -1;
+    }
+
+}
@@ -1,20 +1,45 @@
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
-import java.io.FileReader;
-import java.util.ArrayList;
-import java.util.Scanner;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
 import java.lang.Math;
 
 /**
  * The FloatMatrix class represents a matrix of floating point numbers.
+ * A matrix loaded by mapBinaryFile() is read-only: its entries stay in the memory-mapped file
+ * rather than on the heap, and any attempt to change them throws UnsupportedOperationException.
  */
 public class FloatMatrix {
 
     /* A small number for floating point comparison.*/
     public static final double EPSILON = 0.00001;
     public static final int DEFAULT_SIZE = 10;
+    private static final int READ_BUFFER_SIZE = 1 << 16;
+    /* A typical length of one formatted entry, such as "0.25, ", used to presize string builders. */
+    private static final int ESTIMATED_ENTRY_LENGTH = 6;
+    /* Binary matrix files start with "FMAT" followed by rows, columns and dtype, all little-endian ints. */
+    public static final int BINARY_MAGIC = 0x54414d46;
+    public static final int BINARY_DTYPE_FLOAT32 = 0;
+    public static final int BINARY_HEADER_SIZE = 16;
+    /* Number of bytes of a binary file mapped into memory at once; a multiple of Float.BYTES. */
+    private static final int MAP_CHUNK_SIZE = 1 << 30;
+    private static final int MAP_CHUNK_FLOATS = MAP_CHUNK_SIZE / Float.BYTES;
+    /* The largest integer such that it and all smaller integers are exact floats. */
+    private static final long MAX_EXACT_MANTISSA = 1L << 24;
+    /* Powers of ten which are exact floats. */
+    private static final float[] POWERS_OF_TEN = {1e0f, 1e1f, 1e2f, 1e3f, 1e4f, 1e5f, 1e6f, 1e7f, 1e8f, 1e9f, 1e10f};
     private int nCols;
     private int nRows;
-    private float[] entries;
+    private float[] entries;     //row-major entries, or null if the matrix is mapped
+    private FloatBuffer[] mapped; //for a mapped matrix, chunk k holds entries k*MAP_CHUNK_FLOATS onwards
 
     /**
      * Create a zero matrix of DEFAULT_SIZE.
@@ -42,7 +67,8 @@ public class FloatMatrix {
     }
 
     /**
-     * Create a new FloatMatrix which is a copy of an existing FloatMatrix
+     * Create a new FloatMatrix which is a copy of an existing FloatMatrix.
+     * The copy is always held on the heap and can be changed, even if other is mapped.
      * @param other: the FloatMatrix to copy from.
      */
     public FloatMatrix(FloatMatrix other) {
@@ -51,11 +77,7 @@ public class FloatMatrix {
             this.zero();
         } else {
             _init(other.rows(), other.columns());
-            for (int i = 0; i < other.rows(); ++i) {
-                for (int j = 0; j < other.columns(); ++j) {
-                    this.set(i, j, other.get(i,j));
-                }
-            }
+            other._readEntries(0, this.entries, this.entries.length);
         }
     }
 
@@ -81,14 +103,19 @@ public class FloatMatrix {
         int rows = (int) Math.ceil((double) numVals/columns); //round up the division
 
         _init(rows, columns);
-        for (int i = 0; i < rows; ++i) {
-            for (int j = 0; j < columns; ++j) {
-                if (i*columns + j >= numVals) {
-                    break;
-                }
-                this.set(i, j, vals[i*columns + j]);
-            }
-        }
+        System.arraycopy(vals, 0, this.entries, 0, Math.min(numVals, this.entries.length));
+    }
+
+    /**
+     * A private constructor for a read-only matrix whose entries are held in mapped chunks.
+     * @param rows: number of rows.
+     * @param cols: number of columns.
+     * @param chunks: the mapped entries in row-major order, MAP_CHUNK_FLOATS to a chunk.
+     */
+    private FloatMatrix(int rows, int cols, FloatBuffer[] chunks) {
+        this.nRows = rows;
+        this.nCols = cols;
+        this.mapped = chunks;
     }
 
     /**
@@ -122,13 +149,16 @@ public class FloatMatrix {
      * Set this matrix to have 0 in all entries.
      */
     public void zero() {
-        int M = this.rows();
-        int N = this.columns();
-        for (int i = 0; i < M; ++i) {
-            for (int j = 0; j < N; ++j) {
-                this.set(i, j, 0.0f);
-            }
-        }
+        this.fill(0.0f);
+    }
+
+    /**
+     * Set this matrix to have val in all entries.
+     * @param val: the value to assign to every entry.
+     */
+    public void fill(float val) {
+        _validateWritable();
+        Arrays.fill(this.entries, val);
     }
 
     /**
@@ -146,7 +176,11 @@ public class FloatMatrix {
      */
     public float get(int i, int j) throws IndexOutOfBoundsException {
         _validateIndices(i, j);
-        return this.entries[i * this.columns() + j];
+        int idx = i * this.columns() + j;
+        if (this.mapped != null) {
+            return this.mapped[idx / MAP_CHUNK_FLOATS].get(idx % MAP_CHUNK_FLOATS);
+        }
+        return this.entries[idx];
     }
 
     /**
@@ -164,15 +198,92 @@ public class FloatMatrix {
      */
     public void set(int i, int j, float val) throws IndexOutOfBoundsException {
         _validateIndices(i, j);
+        _validateWritable();
         this.entries[i * this.columns() + j] = val;
     }
 
+    /**
+     * Copy row i of this matrix into dst, which must have room for columns() values.
+     * @param i: the 0-indexed row number.
+     * @param dst: the array to copy the row into, starting at index 0.
+     * @throws IndexOutOfBoundsException if the row index is invalid.
+     * @throws IllegalArgumentException if dst is null or shorter than a row.
+     */
+    public void getRow(int i, float[] dst) throws IndexOutOfBoundsException, IllegalArgumentException {
+        _validateRow(i);
+        if (dst == null || dst.length < this.nCols) {
+            throw new IllegalArgumentException("Destination array is shorter than a row.");
+        }
+        _readEntries(i * this.nCols, dst, this.nCols);
+    }
+
+    /**
+     * Overwrite row i of this matrix with the first columns() values of src.
+     * @param i: the 0-indexed row number.
+     * @param src: the array of new row values, starting at index 0.
+     * @throws IndexOutOfBoundsException if the row index is invalid.
+     * @throws IllegalArgumentException if src is null or shorter than a row.
+     */
+    public void setRow(int i, float[] src) throws IndexOutOfBoundsException, IllegalArgumentException {
+        _validateRow(i);
+        if (src == null || src.length < this.nCols) {
+            throw new IllegalArgumentException("Source array is shorter than a row.");
+        }
+        _validateWritable();
+        System.arraycopy(src, 0, this.entries, i * this.nCols, this.nCols);
+    }
+
+    /**
+     * Overwrite every entry of this matrix with the row-major values in vals.
+     * @param vals: the new entries; must contain exactly rows()*columns() values.
+     * @throws IllegalArgumentException if vals is null or has the wrong length.
+     */
+    public void copyFrom(float[] vals) throws IllegalArgumentException {
+        int numVals = this.nRows * this.nCols;
+        if (vals == null || vals.length != numVals) {
+            throw new IllegalArgumentException("Expected exactly " + numVals + " values.");
+        }
+        _validateWritable();
+        System.arraycopy(vals, 0, this.entries, 0, vals.length);
+    }
+
+    /**
+     * Get a view of the entries of this matrix in row-major order;
+     * entry (i,j) is at index i*columns() + j.
+     * The view shares storage with this matrix, so changes to either are visible in the other.
+     * It performs no checks beyond the bounds of the whole matrix, which makes it
+     * suitable for tight loops over many entries.
+     * The view of a mapped matrix is read-only, and is only available if the matrix
+     * fits in a single mapped chunk of MAP_CHUNK_SIZE bytes.
+     * @return a FloatBuffer backed by the entries of this matrix.
+     * @throws UnsupportedOperationException if this matrix is mapped in more than one chunk.
+     */
+    public FloatBuffer asFloatBuffer() throws UnsupportedOperationException {
+        if (this.mapped == null) {
+            return FloatBuffer.wrap(this.entries);
+        }
+        if (this.mapped.length > 1) {
+            throw new UnsupportedOperationException("This mapped matrix is too large for a single FloatBuffer.");
+        }
+        return this.mapped.length == 0 ? FloatBuffer.allocate(0).asReadOnlyBuffer() : this.mapped[0].duplicate();
+    }
+
+    /**
+     * Determine whether this matrix is read-only, as a matrix loaded by mapBinaryFile() is.
+     * The entries of a read-only matrix can never change, so it may be shared rather than copied.
+     * @return true if the entries of this matrix cannot be changed.
+     */
+    public boolean isReadOnly() {
+        return this.mapped != null;
+    }
+
     /**
      * Right-multiply this FloatMatrix by the FloatMatrix other.
      * That is, this * other.
      *
      * If the matrix product is not defined (if the number of columns in this matrix
      * does not equal the number of rows in other), an ArithmeticException is thrown.
+     * The entries of a mapped operand are read onto the heap for the product.
      * @param other: the right-hand matrix (i.e. the multiplicand)
      * @return the product of this FloatMatrix by other.
      * @throws ArithmeticException if the matrix product is undefined.
@@ -189,14 +300,20 @@ public class FloatMatrix {
         int i, j;  //indices in product matrix
         int k;     //index for dot product
         int N = this.columns(); // dot product length
+        float[] a = this._heapEntries();
+        float[] b = other._heapEntries();
+        float[] c = product.entries;
 
+        //Loop over k before j so that rows of other are read sequentially.
+        //Each entry still accumulates its terms in increasing k.
         for (i = 0; i < prodRows; ++i) {
-            for (j = 0; j < prodCols; ++j) {
-                float entry = product.get(i, j);
-                for (k = 0; k < N; ++k) {
-                    entry += this.get(i,k) * other.get(k, j);
+            int cRow = i * prodCols;
+            for (k = 0; k < N; ++k) {
+                float aik = a[i * N + k];
+                int bRow = k * prodCols;
+                for (j = 0; j < prodCols; ++j) {
+                    c[cRow + j] += aik * b[bRow + j];
                 }
-                product.set(i, j, entry);
             }
         }
         return product;
@@ -212,29 +329,140 @@ public class FloatMatrix {
      * @throws IndexOutOfBoundsException if either i or j is invalid for this matrix.
      */
     private void _validateIndices(int i, int j) throws IndexOutOfBoundsException {
-        if (i < 0 || i >= this.rows()) {
+        _validateRow(i);
+        if (j < 0 || j >= this.columns()) {
             throw new IndexOutOfBoundsException();
         }
-        if (j < 0 || j >= this.columns()) {
+    }
+
+    /**
+     * A simple private helper method that checks this matrix can be changed.
+     * @throws UnsupportedOperationException if this matrix is read-only.
+     */
+    private void _validateWritable() throws UnsupportedOperationException {
+        if (this.mapped != null) {
+            throw new UnsupportedOperationException("This matrix is mapped from a file and is read-only.");
+        }
+    }
+
+    /**
+     * A private helper method which copies n entries, starting at row-major index from,
+     * into the start of dst, from the heap or from the mapped chunks.
+     */
+    private void _readEntries(int from, float[] dst, int n) {
+        if (this.mapped == null) {
+            System.arraycopy(this.entries, from, dst, 0, n);
+            return;
+        }
+        int copied = 0;
+        while (copied < n) {
+            //A run of entries may straddle two chunks.
+            int idx = from + copied;
+            FloatBuffer chunk = this.mapped[idx / MAP_CHUNK_FLOATS].duplicate();
+            chunk.position(idx % MAP_CHUNK_FLOATS);
+            int m = Math.min(n - copied, chunk.remaining());
+            chunk.get(dst, copied, m);
+            copied += m;
+        }
+    }
+
+    /**
+     * A private helper method which returns the row-major entries of this matrix as an array:
+     * the entries themselves, or a heap copy of them if this matrix is mapped.
+     */
+    private float[] _heapEntries() {
+        if (this.mapped == null) {
+            return this.entries;
+        }
+        float[] copy = new float[this.nRows * this.nCols];
+        _readEntries(0, copy, copy.length);
+        return copy;
+    }
+
+    /**
+     * A simple private helper method that checks for a valid row index.
+     * @param i: the 0-indexed row number
+     * @throws IndexOutOfBoundsException if i is invalid for this matrix.
+     */
+    private void _validateRow(int i) throws IndexOutOfBoundsException {
+        if (i < 0 || i >= this.rows()) {
             throw new IndexOutOfBoundsException();
         }
     }
 
     /**
-     * A private helper method for converting a row of the matrix to a string.
-     * The row at index i is converted to a string and returned.
+     * A private helper method for writing a row of the matrix.
+     * The row at index i is appended to out. If the row has more than 2*edgeItems+1
+     * columns and edgeItems is positive, only the first and last edgeItems entries
+     * are written, separated by "...".
+     * @param out: the Appendable to write to.
      * @param i: the 0-indexed row number.
-     * @return the String representation of row i
+     * @param edgeItems: the number of entries to keep at each end of a long row, or 0 to keep all.
+     * @throws IOException if out cannot be written to.
      */
-    private String _rowToString(int i) {
-        String ret = "[";
-        for (int j = 0; j < this.columns()-1; ++j) {
-            ret += Float.toString(this.get(i, j));
-            ret += ", ";
+    private void _writeRow(Appendable out, int i, int edgeItems) throws IOException {
+        int N = this.columns();
+        boolean elide = (edgeItems > 0 && N > 2*edgeItems + 1);
+        out.append('[');
+        for (int j = 0; j < N-1; ++j) {
+            if (elide && j == edgeItems) {
+                out.append("..., ");
+                j = N - edgeItems - 1;
+                continue;
+            }
+            out.append(Float.toString(this.get(i, j)));
+            out.append(", ");
         }
-        ret += Float.toString(this.get(i, this.columns()-1));
-        ret += "]";
-        return ret;
+        out.append(Float.toString(this.get(i, N-1)));
+        out.append(']');
+    }
+
+    /**
+     * A private helper method for writing this matrix, using rowEnd between every row.
+     * If the matrix has more than 2*edgeItems+1 rows and edgeItems is positive, only the
+     * first and last edgeItems rows are written, separated by a "..." row.
+     * @param out: the Appendable to write to.
+     * @param rowEnd: the String to write between rows.
+     * @param edgeItems: the number of rows and columns to keep at each end, or 0 to keep all.
+     * @throws IOException if out cannot be written to.
+     */
+    private void _write(Appendable out, String rowEnd, int edgeItems) throws IOException {
+        int M = this.rows();
+        boolean elide = (edgeItems > 0 && M > 2*edgeItems + 1);
+        out.append('[');
+        int i = 0;
+        for (; i < M-1; ++i) {
+            if (elide && i == edgeItems) {
+                out.append("...");
+                out.append(rowEnd);
+                i = M - edgeItems - 1;
+                continue;
+            }
+            this._writeRow(out, i, edgeItems);
+            out.append(rowEnd);
+        }
+        this._writeRow(out, i, edgeItems);
+        out.append(']');
+    }
+
+    /**
+     * A private helper method which converts this matrix to a String through a single StringBuilder.
+     * @param rowEnd: the String to use between rows.
+     * @param edgeItems: the number of rows and columns to keep at each end, or 0 to keep all.
+     * @return the String representation of this matrix.
+     */
+    private String _toString(String rowEnd, int edgeItems) {
+        int shownRows = (edgeItems > 0) ? Math.min(this.rows(), 2*edgeItems + 1) : this.rows();
+        int shownCols = (edgeItems > 0) ? Math.min(this.columns(), 2*edgeItems + 1) : this.columns();
+        StringBuilder sb = new StringBuilder((int) Math.min(Integer.MAX_VALUE - 8,
+                (long) shownRows * (shownCols * ESTIMATED_ENTRY_LENGTH + rowEnd.length()) + 2));
+        try {
+            this._write(sb, rowEnd, edgeItems);
+        } catch (IOException e) {
+            //A StringBuilder never throws IOException.
+            throw new RuntimeException(e);
+        }
+        return sb.toString();
     }
 
     /**
@@ -244,15 +472,7 @@ public class FloatMatrix {
      * @return the String representation of this matrix.
      */
     public String toString(String rowEnd) {
-        String ret = "[";
-        int i = 0;
-        for (; i < this.rows()-1; ++i) {
-            ret += this._rowToString(i);
-            ret += rowEnd;
-        }
-        ret += this._rowToString(i);
-        ret += "]";
-        return ret;
+        return this._toString(rowEnd, 0);
     }
 
     @Override
@@ -269,44 +489,323 @@ public class FloatMatrix {
         return this.toString(",\n");
     }
 
+    /**
+     * Convert this matrix to a "pretty formatted" string which shows only the first and last
+     * edgeItems rows and columns, replacing the rest with "...".
+     * Matrices with at most 2*edgeItems+1 rows and columns are shown in full, exactly as by prettyString().
+     * @param edgeItems: the number of rows and columns to show at each end; must be positive.
+     * @return: a summarized "pretty formatted" string representation of this matrix.
+     */
+    public String summaryString(int edgeItems) {
+        if (edgeItems < 1) {
+            throw new IllegalArgumentException("edgeItems must be positive.");
+        }
+        return this._toString(",\n", edgeItems);
+    }
+
+    /**
+     * Write this matrix to out in the same format as toString(rowEnd),
+     * without first building the whole String in memory.
+     * @param out: the Appendable (e.g. a Writer or System.out) to write to.
+     * @param rowEnd: the String to use to end each row.
+     * @throws IOException if out cannot be written to.
+     */
+    public void writeTo(Appendable out, String rowEnd) throws IOException {
+        this._write(out, rowEnd, 0);
+    }
+
+    /**
+     * Write this matrix to out in the same format as toString().
+     * @param out: the Appendable (e.g. a Writer or System.out) to write to.
+     * @throws IOException if out cannot be written to.
+     */
+    public void writeTo(Appendable out) throws IOException {
+        this.writeTo(out, ", ");
+    }
+
     /**
      * Read a file and parse it to construct a FloatMatrix.
      * The file should contain a comma-separated list of floating point numbers.
      * Each line of the file is one row of values for the matrix.
      * Each line of the file must list the same number of floats.
      * The file should contain nothing else.
+     * The file is scanned once, directly from its bytes, without creating
+     * intermediate Strings or boxed values for plain decimal entries.
      * @param fname: the file name (path) of the file to open.
      * @return the constructed matrix.
      * @throws FileNotFoundException if the file at path fname cannot be opened
      * @throws RuntimeException if the file cannot be parsed correctly
      */
     public static FloatMatrix fromFile(String fname) throws FileNotFoundException, RuntimeException {
-        Scanner rd = new Scanner(new FileReader(fname));
+        FileChannel channel = new FileInputStream(fname).getChannel();
+        ByteBuffer buf = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
 
-        ArrayList<Float> matVals = new ArrayList<Float>();
+        float[] matVals = new float[READ_BUFFER_SIZE / 4];
+        int numVals = 0;
         int nCols = 0;
-        while (rd.hasNextLine()) {
-            String line = rd.nextLine();
-            String[] vals = line.split(",");
-            if (nCols == 0) {
-                nCols = vals.length;
-            } else if (nCols != vals.length) {
-                throw new RuntimeException("Malformed file for FloatMatrix.fromFile. Are all rows the same length?");
+
+        byte[] token = new byte[32];  //bytes of the value currently being scanned
+        int tokenLen = 0;
+        int lineLen = 0;              //raw bytes seen on the current line
+        int lineVals = 0;             //values stored for the current line
+        int emptyTokens = 0;          //empty values not yet followed by a non-empty one
+        RuntimeException parseError = null;
+        boolean lastWasCR = false;
+
+        try {
+            boolean eof = false;
+            while (!eof) {
+                buf.clear();
+                eof = channel.read(buf) < 0;
+                buf.flip();
+                int n = eof ? 1 : buf.remaining();
+                for (int k = 0; k < n; ++k) {
+                    //A virtual line terminator is appended at end of file.
+                    byte b = eof ? (byte) '\n' : buf.get();
+                    if (b == '\n' && lastWasCR) {
+                        lastWasCR = false;
+                        continue;
+                    }
+                    lastWasCR = (b == '\r');
+
+                    if (b == ',' || b == '\n' || b == '\r') {
+                        boolean endOfLine = (b != ',');
+                        if (endOfLine && lineLen == 0) {
+                            //No trailing empty line at end of file; any other empty line is an empty value.
+                            if (eof) {
+                                break;
+                            }
+                            if (parseError == null) {
+                                parseError = new NumberFormatException("empty String");
+                            }
+                            lineVals = 1;
+                        } else if (tokenLen == 0) {
+                            //Like String.split, trailing empty values on a line are dropped.
+                            ++emptyTokens;
+                        } else {
+                            if (emptyTokens > 0 && parseError == null) {
+                                parseError = new NumberFormatException("empty String");
+                            }
+                            lineVals += emptyTokens;
+                            emptyTokens = 0;
+                            if (numVals == matVals.length) {
+                                matVals = Arrays.copyOf(matVals, 2 * numVals);
+                            }
+                            try {
+                                matVals[numVals++] = _parseFloat(token, tokenLen);
+                            } catch (NumberFormatException nfe) {
+                                if (parseError == null) {
+                                    parseError = nfe;
+                                }
+                            }
+                            ++lineVals;
+                            tokenLen = 0;
+                        }
+
+                        if (endOfLine) {
+                            if (nCols == 0) {
+                                nCols = lineVals;
+                            } else if (nCols != lineVals) {
+                                throw new RuntimeException("Malformed file for FloatMatrix.fromFile. Are all rows the same length?");
+                            }
+                            if (parseError != null) {
+                                throw parseError;
+                            }
+                            lineLen = 0;
+                            lineVals = 0;
+                            emptyTokens = 0;
+                        } else {
+                            ++lineLen;
+                        }
+                    } else {
+                        if (tokenLen == token.length) {
+                            token = Arrays.copyOf(token, 2 * tokenLen);
+                        }
+                        token[tokenLen++] = b;
+                        ++lineLen;
+                    }
+                }
             }
+        } catch (IOException ioe) {
+            throw new RuntimeException("Could not read file for FloatMatrix.fromFile.", ioe);
+        } finally {
+            try {
+                channel.close();
+            } catch (IOException ioe) {
+                //nothing more can be done, the matrix has already been read.
+            }
+        }
+
+        return new FloatMatrix(Arrays.copyOf(matVals, numVals), nCols);
+    }
 
-            for (int i = 0; i < vals.length; ++i) {
-                matVals.add(Float.valueOf(vals[i].strip()));
+    /**
+     * A private helper method for fromFile() which parses one value of a matrix file.
+     * Surrounding whitespace is ignored. Plain decimals such as "0.25" or "-3" which
+     * can be exactly rounded with a single float division are handled directly;
+     * anything else is delegated to Float.parseFloat so results always match it.
+     * @param token: the bytes of the value.
+     * @param len: the number of bytes in token that make up the value.
+     * @return the parsed value.
+     * @throws NumberFormatException if the value is not a valid float.
+     */
+    private static float _parseFloat(byte[] token, int len) throws NumberFormatException {
+        int start = 0;
+        int end = len;
+        while (start < end && (token[start] & 0xff) <= ' ') {
+            ++start;
+        }
+        while (end > start && (token[end-1] & 0xff) <= ' ') {
+            --end;
+        }
+
+        int i = start;
+        boolean negative = false;
+        if (i < end && (token[i] == '-' || token[i] == '+')) {
+            negative = (token[i] == '-');
+            ++i;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int fracDigits = 0;
+        boolean seenPoint = false;
+        for (; i < end; ++i) {
+            byte b = token[i];
+            if (b >= '0' && b <= '9') {
+                mantissa = mantissa*10 + (b - '0');
+                ++digits;
+                if (seenPoint) {
+                    ++fracDigits;
+                }
+            } else if (b == '.' && !seenPoint) {
+                seenPoint = true;
+            } else {
+                break;
             }
         }
 
-        float[] floatVals = new float[matVals.size()];
-        for (int i = 0; i < matVals.size(); ++i) {
-            floatVals[i] = matVals.get(i);
+        //Both operands must be exact floats for the division to be correctly rounded.
+        if (i == end && digits > 0 && digits <= 18 && mantissa <= MAX_EXACT_MANTISSA
+                && fracDigits < POWERS_OF_TEN.length) {
+            float val = (float) mantissa / POWERS_OF_TEN[fracDigits];
+            return negative ? -val : val;
         }
+        return Float.parseFloat(new String(token, start, end - start, StandardCharsets.UTF_8));
+    }
 
-        return new FloatMatrix(floatVals, nCols);
+    /**
+     * Write this matrix to a file in the binary matrix format.
+     * The file begins with a BINARY_HEADER_SIZE byte header: BINARY_MAGIC, the number of rows,
+     * the number of columns and the dtype (BINARY_DTYPE_FLOAT32), each a little-endian int.
+     * The entries follow in row-major order as little-endian floats.
+     * An existing file at fname is overwritten.
+     * @param fname: the file name (path) of the file to write.
+     * @throws IOException if the file could not be opened or written.
+     */
+    public void toBinaryFile(String fname) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(fname), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buf = ByteBuffer.allocateDirect(READ_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            buf.putInt(BINARY_MAGIC);
+            buf.putInt(this.rows());
+            buf.putInt(this.columns());
+            buf.putInt(BINARY_DTYPE_FLOAT32);
+
+            //A mapped matrix is written through a heap buffer of the same size as buf.
+            float[] src = (this.mapped == null) ? this.entries : new float[READ_BUFFER_SIZE / Float.BYTES];
+            int numVals = this.nRows * this.nCols;
+            int written = 0;
+            while (written < numVals || buf.position() > 0) {
+                int n = Math.min(buf.remaining() / Float.BYTES, numVals - written);
+                if (this.mapped == null) {
+                    buf.asFloatBuffer().put(src, written, n);
+                } else {
+                    _readEntries(written, src, n);
+                    buf.asFloatBuffer().put(src, 0, n);
+                }
+                buf.position(buf.position() + n * Float.BYTES);
+                written += n;
+
+                buf.flip();
+                while (buf.hasRemaining()) {
+                    channel.write(buf);
+                }
+                buf.clear();
+            }
+        }
     }
 
-}
+    /**
+     * Map a file written by toBinaryFile() into memory as a read-only FloatMatrix.
+     * The entries are never copied onto the heap: every read goes straight to the mapped file,
+     * so loading costs the same however large the matrix is, only the pages actually read are
+     * loaded, and those pages are shared with any other process mapping the same file.
+     * The mapping stays valid after the file is closed, until the matrix is garbage collected.
+     * Files larger than MAP_CHUNK_SIZE bytes are mapped in several chunks.
+     * @param fname: the file name (path) of the file to open.
+     * @return the mapped, read-only matrix.
+     * @throws FileNotFoundException if the file at path fname cannot be opened
+     * @throws IOException if the file cannot be mapped
+     * @throws RuntimeException if the file is not a valid binary matrix file
+     */
+    public static FloatMatrix mapBinaryFile(String fname) throws IOException, RuntimeException {
+        try (RandomAccessFile file = new RandomAccessFile(fname, "r");
+             FileChannel channel = file.getChannel()) {
+            int[] dims = _readBinaryHeader(channel, "FloatMatrix.mapBinaryFile");
+            long numVals = (long) dims[0] * dims[1];
+            FloatBuffer[] chunks = new FloatBuffer[(int) ((numVals + MAP_CHUNK_FLOATS - 1) / MAP_CHUNK_FLOATS)];
+            long offset = BINARY_HEADER_SIZE;
+            for (int k = 0; k < chunks.length; ++k) {
+                long n = Math.min(MAP_CHUNK_FLOATS, numVals - (long) k * MAP_CHUNK_FLOATS);
+                chunks[k] = channel.map(FileChannel.MapMode.READ_ONLY, offset, n * Float.BYTES)
+                        .order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer();
+                offset += n * Float.BYTES;
+            }
+            return new FloatMatrix(dims[0], dims[1], chunks);
+        }
+    }
 
+    /**
+     * Load a FloatMatrix from a file written by toBinaryFile() onto the heap.
+     * The file is mapped as by mapBinaryFile() and its entries are bulk-copied out of the
+     * mapping, so no parsing takes place, and the matrix can then be changed.
+     * @param fname: the file name (path) of the file to open.
+     * @return the constructed matrix.
+     * @throws FileNotFoundException if the file at path fname cannot be opened
+     * @throws IOException if the file cannot be read
+     * @throws RuntimeException if the file is not a valid binary matrix file
+     */
+    public static FloatMatrix fromBinaryFile(String fname) throws IOException, RuntimeException {
+        return new FloatMatrix(mapBinaryFile(fname));
+    }
 
+    /**
+     * A private helper method which reads and checks the header of a binary matrix file.
+     * @param channel: the open file.
+     * @param caller: the name of the reading method, for error messages.
+     * @return the number of rows and the number of columns.
+     * @throws IOException if the file cannot be read
+     * @throws RuntimeException if the file is not a valid binary matrix file
+     */
+    private static int[] _readBinaryHeader(FileChannel channel, String caller) throws IOException, RuntimeException {
+        long size = channel.size();
+        if (size < BINARY_HEADER_SIZE) {
+            throw new RuntimeException("Malformed file for " + caller + ". The header is incomplete.");
+        }
+        ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, BINARY_HEADER_SIZE)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        int magic = header.getInt();
+        int rows = header.getInt();
+        int cols = header.getInt();
+        int dtype = header.getInt();
+        if (magic != BINARY_MAGIC || dtype != BINARY_DTYPE_FLOAT32 || rows < 0 || cols < 0) {
+            throw new RuntimeException("Malformed file for " + caller + ". Is this a binary FloatMatrix file?");
+        }
+        long numVals = (long) rows * cols;
+        if (numVals > Integer.MAX_VALUE || size != BINARY_HEADER_SIZE + numVals * Float.BYTES) {
+            throw new RuntimeException("Malformed file for " + caller + ". File size does not match its dimensions.");
+        }
+        return new int[] {rows, cols};
+    }
+
+}
@@ -0,0 +1,225 @@
+import java.util.Random;
+
+/**
+ * A Markov chain over the four headings "N", "E", "S", "W" in which the next heading depends
+ * on the last k headings rather than only the last one.
+ * The last k headings, the context, are encoded as a base-4 integer: heading h is the digit
+ * 0 to 3 in the order N, E, S, W, the most recent heading is the lowest digit and the oldest
+ * the highest. After a transition to heading h, the context becomes (context * 4 + h) mod 4^k.
+ *
+ * The transition table has one row per context and one column per heading. It is stored as
+ * a flat array of per-row cumulative probabilities in floats, so a chain of order 8, with
+ * 65,536 contexts, takes 1 MB, and sampling a heading is one random number, one table row
+ * and three comparisons.
+ */
+public class HigherOrderMarkovChain {
+
+    public static final int NUM_HEADINGS = 4;
+    //A chain of this order has 4^MAX_ORDER contexts: its cdf takes 256 MB of floats, and its
+    //4^MAX_ORDER x 4 input table as much again unless that table is mapped from a binary file.
+    public static final int MAX_ORDER = 12;
+    private static final String[] HEADINGS = {"N", "E", "S", "W"};
+
+    private int order;
+    private int numContexts;
+    private float[] cdf; //cdf[context * 4 + h] is the probability of a heading at most h
+    private Random rand;
+    private int context;
+
+    /**
+     * Create a chain of order k from its transition table and a random number generator seed.
+     * Row c of the table holds the probabilities of the next heading, N, E, S, W, after
+     * context c; see isValidTransitionTable().
+     * @param order: k, the number of past headings the next heading depends on.
+     * @param table: the transition table, 4^k rows by 4 columns.
+     * @param seed: the random number generator seed
+     * @throws IllegalArgumentException if the order or table is not valid.
+     */
+    public HigherOrderMarkovChain(int order, FloatMatrix table, long seed) {
+        if (order < 0 || order > MAX_ORDER) {
+            throw new IllegalArgumentException("The order must be between 0 and " + MAX_ORDER + ".");
+        }
+        if (!isValidTransitionTable(table, order)) {
+            throw new IllegalArgumentException("The table must have 4^" + order + " rows of 4 probabilities summing to 1.");
+        }
+        this.order = order;
+        this.numContexts = 1 << (2 * order);
+        this.cdf = new float[numContexts * NUM_HEADINGS];
+        float[] row = new float[NUM_HEADINGS];
+        for (int c = 0; c < numContexts; ++c) {
+            table.getRow(c, row);
+            double total = 0;
+            for (int h = 0; h < NUM_HEADINGS; ++h) {
+                total += row[h];
+            }
+            //Normalize exactly, so the last heading's cumulative probability is exactly 1.
+            double sum = 0;
+            for (int h = 0; h < NUM_HEADINGS; ++h) {
+                sum += row[h];
+                cdf[c * NUM_HEADINGS + h] = (float) (sum / total);
+            }
+        }
+        this.context = 0;
+        this.rand = new Random(seed);
+    }
+
+    /**
+     * Create a chain of order k from its transition table.
+     * @param order: k, the number of past headings the next heading depends on.
+     * @param table: the transition table, 4^k rows by 4 columns.
+     */
+    public HigherOrderMarkovChain(int order, FloatMatrix table) {
+        this(order, table, 0);
+    }
+
+    /**
+     * Build the transition table of order k which behaves exactly as a first-order chain over
+     * the headings N, E, S, W: every context ending in heading h gets row h of the matrix.
+     * @param order: k, the order of the table.
+     * @param matrix: a 4 x 4 transition matrix.
+     * @return the table, 4^k rows by 4 columns.
+     */
+    public static FloatMatrix tableFromFirstOrder(int order, FloatMatrix matrix) {
+        if (order < 1 || order > MAX_ORDER || matrix.rows() != NUM_HEADINGS || matrix.columns() != NUM_HEADINGS) {
+            throw new IllegalArgumentException("A 4 x 4 matrix and an order between 1 and " + MAX_ORDER + " are required.");
+        }
+        int n = 1 << (2 * order);
+        FloatMatrix table = new FloatMatrix(n, NUM_HEADINGS);
+        float[] row = new float[NUM_HEADINGS];
+        for (int c = 0; c < n; ++c) {
+            matrix.getRow(c & (NUM_HEADINGS - 1), row);
+            table.setRow(c, row);
+        }
+        return table;
+    }
+
+    /**
+     * Encode a sequence of headings as a context.
+     * @param headings: the headings, 0 to 3 in the order N, E, S, W, oldest first.
+     * @return the context index of the last k headings, for k the number of headings given.
+     */
+    public static int contextOf(int... headings) {
+        int c = 0;
+        for (int h : headings) {
+            if (h < 0 || h >= NUM_HEADINGS) {
+                throw new IllegalArgumentException("Headings must be between 0 and 3.");
+            }
+            c = c * NUM_HEADINGS + h;
+        }
+        return c;
+    }
+
+    /**
+     * Get the order of this chain.
+     * @return k, the number of past headings the next heading depends on.
+     */
+    public int getOrder() {
+        return order;
+    }
+
+    /**
+     * Get the number of contexts, 4^k, which is the number of rows of the transition table.
+     * @return the number of contexts.
+     */
+    public int getNumContexts() {
+        return numContexts;
+    }
+
+    /**
+     * Get the current context, encoding the last k headings.
+     * @return the context index.
+     */
+    public int getContext() {
+        return context;
+    }
+
+    /**
+     * Set the current context, regardless of the transition table.
+     * If context is negative or at least getNumContexts(), return false and do not change it.
+     * @param context: the context index to set.
+     * @return true if and only if setting the context was successful.
+     */
+    public boolean setContext(int context) {
+        if (context < 0 || context >= numContexts) {
+            return false;
+        }
+        this.context = context;
+        return true;
+    }
+
+    /**
+     * Get the most recent heading, the lowest digit of the context.
+     * For a chain of order 0, which has no memory, this is always 0.
+     * @return the heading, 0 to 3 in the order N, E, S, W.
+     */
+    public int getHeading() {
+        return order == 0 ? 0 : context & (NUM_HEADINGS - 1);
+    }
+
+    /**
+     * Get the label of the most recent heading, "N", "E", "S" or "W".
+     * @return the label.
+     */
+    public String getStateString() {
+        return HEADINGS[getHeading()];
+    }
+
+    /**
+     * Get the probability of the next heading after a context.
+     * @param context: the context index.
+     * @param heading: the next heading, 0 to 3 in the order N, E, S, W.
+     * @return the probability, from the normalized transition table.
+     */
+    public float getTransitionProbability(int context, int heading) {
+        int i = context * NUM_HEADINGS + heading;
+        return heading == 0 ? cdf[i] : cdf[i] - cdf[i - 1];
+    }
+
+    /**
+     * Transition to the next heading, based on the transition table row of the current context.
+     * This updates the current context and returns the new heading.
+     * @return the new heading, 0 to 3 in the order N, E, S, W.
+     */
+    public int nextState() {
+        double r = rand.nextDouble();
+        int row = context * NUM_HEADINGS;
+        //The cumulative probabilities are sorted, so the heading is the number of them at most r.
+        //Headings with zero probability share their predecessor's total and are never chosen.
+        int h = (r >= cdf[row] ? 1 : 0) + (r >= cdf[row + 1] ? 1 : 0) + (r >= cdf[row + 2] ? 1 : 0);
+        context = (context * NUM_HEADINGS + h) & (numContexts - 1);
+        return h;
+    }
+
+    /**
+     * Determines if a particular FloatMatrix is a valid transition table for a chain of order k.
+     * If the matrix has 4^k rows and 4 columns, no negative entries, and every row sums to 1
+     * within FloatMatrix.EPSILON, return true. Otherwise, return false.
+     * @param M: the matrix to test if it is valid
+     * @param order: k, the order of the chain.
+     * @return true if and only if the matrix M is a valid transition table.
+     */
+    public static boolean isValidTransitionTable(FloatMatrix M, int order) {
+        if (M == null || order < 0 || order > MAX_ORDER) {
+            return false;
+        }
+        if (M.rows() != 1 << (2 * order) || M.columns() != NUM_HEADINGS) {
+            return false;
+        }
+        float[] row = new float[NUM_HEADINGS];
+        for (int c = 0; c < M.rows(); ++c) {
+            M.getRow(c, row);
+            double sum = 0.0;
+            for (int h = 0; h < NUM_HEADINGS; ++h) {
+                if (row[h] < 0) {
+                    return false;
+                }
+                sum += row[h];
+            }
+            if (Math.abs(sum - 1.0) > FloatMatrix.EPSILON) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
@@ -0,0 +1,111 @@
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+
+/**
+ * A class encoding a walker which moves randomly along an integer lattice, like a RandomWalker,
+ * but whose next heading depends on its last k headings, as given by a HigherOrderMarkovChain.
+ */
+public class HigherOrderWalker {
+
+    public static final int START_X = 0;
+    public static final int START_Y = 0;
+    public static final int STEP_SIZE = 1; //each step along the lattice moves this many units
+    //The step of each heading, in the order N, E, S, W.
+    private static final int[] STEP_X = {0, STEP_SIZE, 0, -STEP_SIZE};
+    private static final int[] STEP_Y = {STEP_SIZE, 0, -STEP_SIZE, 0};
+
+    private HigherOrderMarkovChain mc;
+    private ArrayList<Coordinate> path;
+
+    /**
+     * Construct a HigherOrderWalker from a higher-order Markov chain.
+     * @param chain the chain encoding walk direction
+     */
+    public HigherOrderWalker(HigherOrderMarkovChain chain) {
+        mc = chain;
+        path = new ArrayList<>();
+    }
+
+    /**
+     * Perform a random walk of Nsteps and return the resulting path,
+     * encoded as in RandomWalker.walk().
+     *
+     * If Nsteps is 0 or negative, the resulting path is empty.
+     *
+     * Note that each call to walk resets the path of this walker to start again from
+     * the default starting point and clears the history of the previous path.
+     * The chain's context carries on from the previous walk.
+     *
+     * @param Nsteps: the number of steps to simulate in the random walk
+     * @return the path of the walk.
+     */
+    public ArrayList<Coordinate> walk(int Nsteps) {
+        return walk(Nsteps, null);
+    }
+
+    /**
+     * Perform a random walk of Nsteps, as walk(int), while telling listener about
+     * each coordinate as soon as it is added to the path.
+     *
+     * @param Nsteps: the number of steps to simulate in the random walk
+     * @param listener: notified of every coordinate of the path, in order; may be null.
+     * @return the path of the walk.
+     */
+    public ArrayList<Coordinate> walk(int Nsteps, StepListener listener) {
+        path.clear(); //reset the path for this new walk.
+        if (Nsteps <= 0) {
+            return path;
+        }
+        path.ensureCapacity(Nsteps + 1);
+
+        int x = START_X;
+        int y = START_Y;
+        addToPath(x, y, listener);
+        for (int step = 0; step < Nsteps; ++step) {
+            int heading = mc.nextState();
+            x += STEP_X[heading];
+            y += STEP_Y[heading];
+            addToPath(x, y, listener);
+        }
+        return path;
+    }
+
+    /**
+     * Private helper method for walk().
+     * Add (x, y) to the path and notify the listener, if any.
+     */
+    private void addToPath(int x, int y, StepListener listener) {
+        path.add(new Coordinate(x, y));
+        if (listener != null) {
+            listener.onStep(x, y);
+        }
+    }
+
+    /**
+     * Given a walker, store its most recently walked path to a file,
+     * in the same formats as RandomWalker.saveWalkToFile().
+     * @param fname the name of the file in which to write the path
+     * @throws IOException if the file could not be open or created writing
+     */
+    public void saveWalkToFile(String fname) throws IOException {
+        PrintWriter writer = new PrintWriter(fname);
+
+        if (fname.endsWith(".dat")) {
+            // Output as integer stream
+            for (Coordinate coOrd : path) {
+                writer.print(coOrd.x + " " + coOrd.y + " ");
+            }
+        } else if (fname.endsWith(".txt")) {
+            // Output as coordinates
+            for (Coordinate coOrd : path) {
+                writer.println(String.format("(%d, %d)", coOrd.x, coOrd.y));
+            }
+        } else {
+            throw new IllegalArgumentException("Unsupported file format. Please use .dat or .txt extension.");
+        }
+
+        writer.close();
+    }
+
+}
@@ -0,0 +1,310 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Computes the exact probability of a RandomWalker being at each lattice site, with each
+ * heading, after n steps, by propagating the distribution one step at a time:
+ * p'(x, y, j) = sum over i of p(x - dx(j), y - dy(j), i) * T(i, j), where T is the direction
+ * chain's transition matrix and (dx(j), dy(j)) the step of heading j. This is the exact
+ * answer an EndpointEnsemble estimates by sampling.
+ *
+ * The distribution is held in two flat primitive arrays, one read and one written by each
+ * step, then swapped. The grid starts small and grows by half as the walk's reach grows, up to an
+ * optional maximum radius; probability stepping beyond it is dropped, leaving the distribution
+ * of walks which have stayed within that radius. Each step only touches the sites reachable
+ * so far, and its rows are updated in parallel: every output row depends only on the previous
+ * distribution, so threads never write to the same row.
+ */
+public class LatticePropagator {
+
+    public static final int INITIAL_RADIUS = 16;
+    //Steps with fewer rows than this are updated on the calling thread.
+    public static final int PARALLEL_MIN_ROWS = 64;
+
+    private int numStates;
+    private double[] transition; //row-major copy of the transition matrix
+    private int[] stepX;
+    private int[] stepY;
+    private int maxRadius;
+    private int nThreads;
+
+    private int radius; //the grid covers -radius..radius in x and y
+    private int side;
+    private double[] cur;
+    private double[] next;
+    private int numSteps;
+
+    /**
+     * Construct a propagator with no maximum radius, using one thread per processor.
+     * @param chain the Markov chain encoding walk direction, as for RandomWalker
+     */
+    public LatticePropagator(MarkovChain chain) {
+        this(chain, Integer.MAX_VALUE, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Construct a propagator for walks starting at the origin, heading in the chain's
+     * current state. The Markov chain should at most have the state labels "N", "E", "S", "W";
+     * which encode the cardinal directions to walk.
+     * After n steps the grid has radius at most min(max(INITIAL_RADIUS, 3n/2), maxRadius), so memory
+     * is at most numStates * (2 * radius + 1)^2 doubles, twice over.
+     * @param chain the Markov chain encoding walk direction, as for RandomWalker
+     * @param maxRadius the grid never grows past this many sites either side of the origin
+     * @param nThreads the number of threads updating rows
+     */
+    public LatticePropagator(MarkovChain chain, int maxRadius, int nThreads) {
+        if (maxRadius < 0) {
+            throw new IllegalArgumentException("The maximum radius must not be negative.");
+        }
+        DirectionSampler sampler = new DirectionSampler(chain);
+        numStates = chain.getNumStates();
+        transition = new double[numStates * numStates];
+        stepX = new int[numStates];
+        stepY = new int[numStates];
+        for (int i = 0; i < numStates; ++i) {
+            for (int j = 0; j < numStates; ++j) {
+                transition[i*numStates + j] = chain.getTransitionProbability(i, j);
+            }
+            stepX[i] = sampler.getStepX(i);
+            stepY[i] = sampler.getStepY(i);
+        }
+        this.maxRadius = maxRadius;
+        this.nThreads = Math.max(1, nThreads);
+
+        _allocate(Math.min(INITIAL_RADIUS, maxRadius));
+        cur[_index(sampler.getStartState(), 0, 0)] = 1.0;
+        numSteps = 0;
+    }
+
+    /**
+     * Advance the distribution by one step.
+     */
+    public void step() {
+        advance(1);
+    }
+
+    /**
+     * Advance the distribution by nSteps steps.
+     * @param nSteps: the number of steps; 0 or negative does nothing.
+     */
+    public void advance(int nSteps) {
+        if (nSteps <= 0) {
+            return;
+        }
+        ExecutorService pool = nThreads > 1 ? Executors.newFixedThreadPool(nThreads) : null;
+        try {
+            for (int s = 0; s < nSteps; ++s) {
+                _step(pool);
+            }
+        } finally {
+            if (pool != null) {
+                pool.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * @return the number of steps taken so far.
+     */
+    public int getNumSteps() {
+        return numSteps;
+    }
+
+    /**
+     * @return the radius of the grid, which covers -radius to radius in x and y.
+     */
+    public int getRadius() {
+        return radius;
+    }
+
+    /**
+     * Get the probability of being at a site after getNumSteps() steps, with any heading.
+     * @param x: the x coordinate of the site.
+     * @param y: the y coordinate of the site.
+     * @return the probability.
+     */
+    public double getProbability(int x, int y) {
+        double p = 0;
+        for (int s = 0; s < numStates; ++s) {
+            p += getProbability(x, y, s);
+        }
+        return p;
+    }
+
+    /**
+     * Get the probability of being at a site after getNumSteps() steps, having last stepped
+     * in the direction of a state.
+     * @param x: the x coordinate of the site.
+     * @param y: the y coordinate of the site.
+     * @param state: the state of the direction chain.
+     * @return the probability.
+     */
+    public double getProbability(int x, int y, int state) {
+        if (Math.abs(x) > radius || Math.abs(y) > radius || state < 0 || state >= numStates) {
+            return 0;
+        }
+        return cur[_index(state, x, y)];
+    }
+
+    /**
+     * Get the total probability on the grid. This is 1 unless probability has been dropped
+     * beyond the maximum radius, up to rounding of the transition matrix's float entries.
+     * @return the total probability.
+     */
+    public double getTotalProbability() {
+        double total = 0;
+        for (double p : cur) {
+            total += p;
+        }
+        return total;
+    }
+
+    /**
+     * @return the expected squared distance from the origin, over the probability on the grid.
+     */
+    public double getMeanSquaredDisplacement() {
+        double total = 0;
+        double r2 = 0;
+        for (int s = 0; s < numStates; ++s) {
+            for (int y = -radius; y <= radius; ++y) {
+                int row = _index(s, -radius, y);
+                for (int x = -radius; x <= radius; ++x) {
+                    double p = cur[row + x + radius];
+                    total += p;
+                    r2 += p * ((double) x * x + (double) y * y);
+                }
+            }
+        }
+        return r2 / total;
+    }
+
+    /**
+     * Get the probability of each site, with any heading, as a matrix laid out like
+     * EndpointHistogram.toFloatMatrix() with a bin size of 1: row 0 is y = halfWidth and
+     * column 0 is x = -halfWidth.
+     * @param halfWidth: the number of sites either side of the origin.
+     * @return the matrix of probabilities, 2 * halfWidth + 1 sites a side.
+     */
+    public FloatMatrix toFloatMatrix(int halfWidth) {
+        int n = 2 * halfWidth + 1;
+        FloatMatrix M = new FloatMatrix(n, n);
+        float[] row = new float[n];
+        for (int r = 0; r < n; ++r) {
+            for (int x = -halfWidth; x <= halfWidth; ++x) {
+                row[x + halfWidth] = (float) getProbability(x, halfWidth - r);
+            }
+            M.setRow(r, row);
+        }
+        return M;
+    }
+
+    /**
+     * Private helper method for advance().
+     * Grow the grid if the walk can now reach its edge, then compute the next distribution
+     * row by row and swap the buffers.
+     */
+    private void _step(ExecutorService pool) {
+        if (numSteps + 1 > radius && radius < maxRadius) {
+            //Grow by half, not double, so the grid never exceeds the documented bound by much.
+            _grow((int) Math.min(maxRadius, Math.max(numSteps + 1L, radius + radius / 2L)));
+        }
+        int reachFrom = Math.min(numSteps, radius);
+        int reachTo = Math.min(numSteps + 1, radius);
+        int rows = 2 * reachTo + 1;
+
+        if (pool == null || rows < PARALLEL_MIN_ROWS) {
+            _updateRows(-reachTo, reachTo, reachFrom, reachTo);
+        } else {
+            ArrayList<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < nThreads; ++t) {
+                int first = -reachTo + (int) ((long) rows * t / nThreads);
+                int last = -reachTo + (int) ((long) rows * (t+1) / nThreads) - 1;
+                futures.add(pool.submit(() -> _updateRows(first, last, reachFrom, reachTo)));
+            }
+            try {
+                for (Future<?> f : futures) {
+                    f.get();
+                }
+            } catch (InterruptedException | ExecutionException e) {
+                throw new RuntimeException("Propagating the lattice distribution failed.", e);
+            }
+        }
+
+        double[] t = cur;
+        cur = next;
+        next = t;
+        ++numSteps;
+    }
+
+    /**
+     * Private helper method for _step().
+     * Write rows firstY to lastY of the next distribution, for x from -reachTo to reachTo,
+     * from the current distribution, which is zero beyond reachFrom.
+     */
+    private void _updateRows(int firstY, int lastY, int reachFrom, int reachTo) {
+        for (int j = 0; j < numStates; ++j) {
+            int dx = stepX[j];
+            int dy = stepY[j];
+            for (int y = firstY; y <= lastY; ++y) {
+                int out = _index(j, 0, y);
+                Arrays.fill(next, out - reachTo, out + reachTo + 1, 0.0);
+                int srcY = y - dy;
+                if (Math.abs(srcY) > reachFrom) {
+                    continue;
+                }
+                //Only x with |x - dx| <= reachFrom have a source on the grid.
+                int xLo = Math.max(-reachTo, -reachFrom + dx);
+                int xHi = Math.min(reachTo, reachFrom + dx);
+                for (int i = 0; i < numStates; ++i) {
+                    double t = transition[i*numStates + j];
+                    if (t == 0) {
+                        continue;
+                    }
+                    int in = _index(i, -dx, srcY);
+                    for (int x = xLo; x <= xHi; ++x) {
+                        next[out + x] += t * cur[in + x];
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * A private helper method giving the array index of (state, x, y).
+     */
+    private int _index(int state, int x, int y) {
+        return (state * side + y + radius) * side + x + radius;
+    }
+
+    private void _allocate(int newRadius) {
+        long newSide = 2L * newRadius + 1;
+        if (numStates * newSide * newSide > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("The lattice grid cannot grow to radius " + newRadius + ".");
+        }
+        radius = newRadius;
+        side = (int) newSide;
+        cur = new double[numStates * side * side];
+        next = new double[cur.length];
+    }
+
+    /**
+     * A private helper method which enlarges the grid, keeping the distribution centered.
+     */
+    private void _grow(int newRadius) {
+        double[] old = cur;
+        int oldRadius = radius;
+        int oldSide = side;
+        _allocate(newRadius);
+        for (int s = 0; s < numStates; ++s) {
+            for (int y = -oldRadius; y <= oldRadius; ++y) {
+                int from = (s * oldSide + y + oldRadius) * oldSide;
+                System.arraycopy(old, from, cur, _index(s, -oldRadius, y), oldSide);
+            }
+        }
+    }
+
+}
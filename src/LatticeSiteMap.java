@@ -0,0 +1,187 @@
+import java.util.Arrays;
+
+/**
+ * A map from lattice sites to int values, such as the position of each site along a path.
+ * Like LatticeSiteSet, sites are stored as longs packed by Coordinate.pack() in an open
+ * addressing hash table with linear probing, with the values in a parallel int array, so no
+ * objects are created per entry. Removal shifts later entries back into the freed slot
+ * instead of leaving markers behind, so lookups stay fast however many entries come and go.
+ *
+ * The site (Integer.MIN_VALUE, 0) marks empty slots and cannot be stored.
+ */
+public class LatticeSiteMap {
+
+    public static final int DEFAULT_CAPACITY = 1 << 10;
+    //Returned by get() and remove() for sites which are not in the map.
+    public static final int NOT_FOUND = -1;
+    private static final int MAX_TABLE_SIZE = 1 << 30;
+    private static final long EMPTY = Coordinate.pack(Integer.MIN_VALUE, 0);
+
+    private long[] keys;
+    private int[] values;
+    private int shift; //64 - log2(keys.length); the hash is the top bits of a multiplicative mix
+    private int size;
+    private int resizeAt;
+
+    /**
+     * Construct an empty map with room for DEFAULT_CAPACITY sites before it grows.
+     */
+    public LatticeSiteMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Construct an empty map.
+     * @param expectedSize: the number of sites the map should hold before it grows.
+     */
+    public LatticeSiteMap(int expectedSize) {
+        //Keep the table at most three quarters full.
+        long needed = Math.max(16, (long) expectedSize * 4 / 3 + 1);
+        int tableSize = (int) Math.min(MAX_TABLE_SIZE, Long.highestOneBit(needed - 1) << 1);
+        _allocate(tableSize);
+        this.size = 0;
+    }
+
+    /**
+     * Associate a value with a site, packed by Coordinate.pack(), replacing any previous value.
+     * @param site: the packed site.
+     * @param value: the value to store.
+     * @return the previous value of the site, or NOT_FOUND if it was not in the map.
+     */
+    public int put(long site, int value) {
+        if (site == EMPTY) {
+            throw new IllegalArgumentException("The site (" + Integer.MIN_VALUE + ", 0) cannot be stored in a LatticeSiteMap.");
+        }
+        int mask = keys.length - 1;
+        int i = _slot(site);
+        while (keys[i] != EMPTY) {
+            if (keys[i] == site) {
+                int old = values[i];
+                values[i] = value;
+                return old;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = site;
+        values[i] = value;
+        if (++size > resizeAt) {
+            _grow();
+        }
+        return NOT_FOUND;
+    }
+
+    /**
+     * Get the value of a site, packed by Coordinate.pack().
+     * @param site: the packed site.
+     * @return the value of the site, or NOT_FOUND if it is not in the map.
+     */
+    public int get(long site) {
+        if (site == EMPTY) {
+            return NOT_FOUND;
+        }
+        int mask = keys.length - 1;
+        int i = _slot(site);
+        while (keys[i] != EMPTY) {
+            if (keys[i] == site) {
+                return values[i];
+            }
+            i = (i + 1) & mask;
+        }
+        return NOT_FOUND;
+    }
+
+    /**
+     * Remove a site, packed by Coordinate.pack(), from the map.
+     * @param site: the packed site.
+     * @return the value the site had, or NOT_FOUND if it was not in the map.
+     */
+    public int remove(long site) {
+        if (site == EMPTY) {
+            return NOT_FOUND;
+        }
+        int mask = keys.length - 1;
+        int i = _slot(site);
+        while (keys[i] != site) {
+            if (keys[i] == EMPTY) {
+                return NOT_FOUND;
+            }
+            i = (i + 1) & mask;
+        }
+        int old = values[i];
+
+        //Move back any later entry of the probe run which may no longer be reachable past slot i.
+        int j = i;
+        while (true) {
+            j = (j + 1) & mask;
+            if (keys[j] == EMPTY) {
+                break;
+            }
+            int home = _slot(keys[j]);
+            //The entry at j can fill the hole at i unless its home lies cyclically within (i, j].
+            boolean homeBetween = i <= j ? (i < home && home <= j) : (i < home || home <= j);
+            if (!homeBetween) {
+                keys[i] = keys[j];
+                values[i] = values[j];
+                i = j;
+            }
+        }
+        keys[i] = EMPTY;
+        --size;
+        return old;
+    }
+
+    /**
+     * Get the number of sites in the map.
+     * @return the number of sites.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Remove every site, keeping the table's current capacity.
+     */
+    public void clear() {
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+    }
+
+    /**
+     * A private helper method giving the home slot of a site.
+     */
+    private int _slot(long site) {
+        return (int) ((site * 0x9E3779B97F4A7C15L) >>> shift);
+    }
+
+    private void _allocate(int tableSize) {
+        keys = new long[tableSize];
+        values = new int[tableSize];
+        Arrays.fill(keys, EMPTY);
+        shift = 64 - Integer.numberOfTrailingZeros(tableSize);
+        resizeAt = tableSize / 4 * 3;
+    }
+
+    /**
+     * A private helper method which doubles the table and re-inserts every entry.
+     */
+    private void _grow() {
+        if (keys.length == MAX_TABLE_SIZE) {
+            throw new IllegalStateException("LatticeSiteMap cannot hold more than " + resizeAt + " sites.");
+        }
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        _allocate(oldKeys.length * 2);
+        int mask = keys.length - 1;
+        for (int k = 0; k < oldKeys.length; ++k) {
+            if (oldKeys[k] != EMPTY) {
+                int i = _slot(oldKeys[k]);
+                while (keys[i] != EMPTY) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = oldKeys[k];
+                values[i] = oldValues[k];
+            }
+        }
+    }
+
+}
@@ -0,0 +1,167 @@
+import java.util.Arrays;
+
+/**
+ * A set of lattice sites, for finding which sites a walk has visited.
+ * Sites are stored as longs packed by Coordinate.pack() in an open addressing hash table
+ * with linear probing, so no objects are created per site: each site takes 8 to 16 bytes,
+ * and 10^8 sites fit in about a gigabyte.
+ *
+ * The site (Integer.MIN_VALUE, 0) marks empty slots and cannot be stored.
+ */
+public class LatticeSiteSet {
+
+    public static final int DEFAULT_CAPACITY = 1 << 10;
+    private static final int MAX_TABLE_SIZE = 1 << 30;
+    private static final long EMPTY = Coordinate.pack(Integer.MIN_VALUE, 0);
+
+    private long[] table;
+    private int shift; //64 - log2(table.length); the hash is the top bits of a multiplicative mix
+    private int size;
+    private int resizeAt;
+
+    /**
+     * Construct an empty set with room for DEFAULT_CAPACITY sites before it grows.
+     */
+    public LatticeSiteSet() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Construct an empty set.
+     * @param expectedSize: the number of sites the set should hold before it grows.
+     */
+    public LatticeSiteSet(int expectedSize) {
+        //Keep the table at most three quarters full.
+        long needed = Math.max(16, (long) expectedSize * 4 / 3 + 1);
+        int tableSize = (int) Math.min(MAX_TABLE_SIZE, Long.highestOneBit(needed - 1) << 1);
+        _allocate(tableSize);
+        this.size = 0;
+    }
+
+    /**
+     * Construct a copy of another set.
+     * @param other: the set to copy.
+     */
+    public LatticeSiteSet(LatticeSiteSet other) {
+        this.table = other.table.clone();
+        this.shift = other.shift;
+        this.size = other.size;
+        this.resizeAt = other.resizeAt;
+    }
+
+    /**
+     * Add a site to the set.
+     * @param x: the x coordinate of the site.
+     * @param y: the y coordinate of the site.
+     * @return true if the site was not already in the set.
+     */
+    public boolean add(int x, int y) {
+        return add(Coordinate.pack(x, y));
+    }
+
+    /**
+     * Add a site, packed by Coordinate.pack(), to the set.
+     * @param site: the packed site.
+     * @return true if the site was not already in the set.
+     */
+    public boolean add(long site) {
+        if (site == EMPTY) {
+            throw new IllegalArgumentException("The site (" + Integer.MIN_VALUE + ", 0) cannot be stored in a LatticeSiteSet.");
+        }
+        int mask = table.length - 1;
+        int i = _slot(site);
+        while (table[i] != EMPTY) {
+            if (table[i] == site) {
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+        table[i] = site;
+        if (++size > resizeAt) {
+            _grow();
+        }
+        return true;
+    }
+
+    /**
+     * Check whether a site is in the set.
+     * @param x: the x coordinate of the site.
+     * @param y: the y coordinate of the site.
+     * @return true if and only if the site is in the set.
+     */
+    public boolean contains(int x, int y) {
+        return contains(Coordinate.pack(x, y));
+    }
+
+    /**
+     * Check whether a site, packed by Coordinate.pack(), is in the set.
+     * @param site: the packed site.
+     * @return true if and only if the site is in the set.
+     */
+    public boolean contains(long site) {
+        if (site == EMPTY) {
+            return false;
+        }
+        int mask = table.length - 1;
+        int i = _slot(site);
+        while (table[i] != EMPTY) {
+            if (table[i] == site) {
+                return true;
+            }
+            i = (i + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * Get the number of sites in the set.
+     * @return the number of sites.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Remove every site, keeping the table's current capacity.
+     */
+    public void clear() {
+        Arrays.fill(table, EMPTY);
+        size = 0;
+    }
+
+    /**
+     * A private helper method giving the home slot of a site.
+     */
+    private int _slot(long site) {
+        return (int) ((site * 0x9E3779B97F4A7C15L) >>> shift);
+    }
+
+    private void _allocate(int tableSize) {
+        table = new long[tableSize];
+        Arrays.fill(table, EMPTY);
+        shift = 64 - Integer.numberOfTrailingZeros(tableSize);
+        resizeAt = tableSize / 4 * 3;
+    }
+
+    /**
+     * A private helper method which doubles the table and re-inserts every site.
+     */
+    private void _grow() {
+        if (table.length == MAX_TABLE_SIZE) {
+            throw new IllegalStateException("LatticeSiteSet cannot hold more than " + resizeAt + " sites.");
+        }
+        long[] old = table;
+        _allocate(old.length * 2);
+        int mask = table.length - 1;
+        for (long site : old) {
+            if (site != EMPTY) {
+                int i = _slot(site);
+                while (table[i] != EMPTY) {
+                    i = (i + 1) & mask;
+                }
+                table[i] = site;
+            }
+        }
+    }
+
+}
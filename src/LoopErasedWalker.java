@@ -0,0 +1,143 @@
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * A class encoding a loop-erased random walk along an integer lattice.
+ * The walker steps exactly as a RandomWalker with the same Markov chain would, but whenever
+ * it steps onto a site already on its path, the loop it just closed is erased: the path is cut
+ * back to the earlier visit of that site. The result is a self-avoiding path from the start to
+ * the random walk's final position.
+ *
+ * A LatticeSiteMap from each site on the path to its position along the path finds the start of
+ * a loop in O(1), and each site is removed from the map at most once after being added, so a
+ * walk of N steps takes O(N) time in total however many loops are erased.
+ */
+public class LoopErasedWalker {
+
+    public static final int START_X = 0;
+    public static final int START_Y = 0;
+    public static final int STEP_SIZE = 1; //each step along the lattice moves this many units
+
+    private MarkovChain mc;
+    private int[] stepX;
+    private int[] stepY;
+    private ArrayList<Coordinate> path;
+    private long numErased;
+
+    /**
+     * Construct a LoopErasedWalker from a Markov chain.
+     * The Markov chain should at most have the state labels "N", "E", "S", "W";
+     * which encode the cardinal directions to walk.
+     * @param chain the Markov chain encoding walk direction
+     */
+    public LoopErasedWalker(MarkovChain chain) {
+        mc = chain;
+        DirectionSampler sampler = new DirectionSampler(chain);
+        int numStates = chain.getNumStates();
+        stepX = new int[numStates];
+        stepY = new int[numStates];
+        for (int i = 0; i < numStates; ++i) {
+            stepX[i] = STEP_SIZE * sampler.getStepX(i);
+            stepY[i] = STEP_SIZE * sampler.getStepY(i);
+        }
+        path = new ArrayList<>();
+        numErased = 0;
+    }
+
+    /**
+     * Perform a random walk of Nsteps, erasing loops as they are closed, and return the
+     * loop-erased path. The path is encoded as in RandomWalker.walk(), but may have fewer
+     * than Nsteps steps since erased steps are gone from it.
+     *
+     * If Nsteps is 0 or negative, the resulting path is empty.
+     *
+     * Note that each call to walk resets the path of this walker to start again from
+     * the default starting point and clears the history of the previous path.
+     * @param Nsteps: the number of random walk steps to simulate
+     * @return the loop-erased path of the walk.
+     */
+    public ArrayList<Coordinate> walk(int Nsteps) {
+        path.clear();
+        numErased = 0;
+        if (Nsteps <= 0) {
+            return path;
+        }
+
+        long[] sites = new long[Math.min(Nsteps, 1 << 16) + 1];
+        int length = 0;
+        LatticeSiteMap positions = new LatticeSiteMap();
+        int x = START_X;
+        int y = START_Y;
+        sites[length] = Coordinate.pack(x, y);
+        positions.put(sites[length], length);
+        ++length;
+
+        for (int step = 0; step < Nsteps; ++step) {
+            int state = mc.nextState();
+            x += stepX[state];
+            y += stepY[state];
+            long site = Coordinate.pack(x, y);
+            int earlier = positions.get(site);
+            if (earlier != LatticeSiteMap.NOT_FOUND) {
+                //Erase the loop: everything after the earlier visit.
+                for (int i = earlier + 1; i < length; ++i) {
+                    positions.remove(sites[i]);
+                }
+                numErased += length - earlier; //the loop's points and the repeated visit closing it
+                length = earlier + 1;
+            } else {
+                if (length == sites.length) {
+                    sites = Arrays.copyOf(sites, (int) Math.min((long) Nsteps + 1, 2L * sites.length));
+                }
+                sites[length] = site;
+                positions.put(site, length);
+                ++length;
+            }
+        }
+
+        path.ensureCapacity(length);
+        for (int i = 0; i < length; ++i) {
+            path.add(new Coordinate(Coordinate.unpackX(sites[i]), Coordinate.unpackY(sites[i])));
+        }
+        return path;
+    }
+
+    /**
+     * Get the number of random walk points erased from the path during the most recent walk,
+     * counting the repeated visit which closes each loop. The loop-erased path of an Nsteps walk
+     * has Nsteps + 1 - getNumErased() points.
+     * @return the number of erased points.
+     */
+    public long getNumErased() {
+        return numErased;
+    }
+
+    /**
+     * Given a loop-erased walker, store its most recently walked path to a file,
+     * in the same formats as RandomWalker.saveWalkToFile().
+     * @param fname the name of the file in which to write the path
+     * @throws IOException if the file could not be open or created writing
+     */
+    public void saveWalkToFile(String fname) throws IOException {
+        PrintWriter writer = new PrintWriter(fname);
+
+        if (fname.endsWith(".dat")) {
+            // Output as integer stream
+            for (Coordinate coOrd : path) {
+                writer.print(coOrd.x + " " + coOrd.y + " ");
+            }
+        } else if (fname.endsWith(".txt")) {
+            // Output as coordinates
+            for (Coordinate coOrd : path) {
+                writer.println(String.format("(%d, %d)", coOrd.x, coOrd.y));
+            }
+        } else {
+            throw new IllegalArgumentException("Unsupported file format. Please use .dat or .txt extension.");
+        }
+
+        writer.close();
+    }
+
+}
@@ -1,5 +1,8 @@
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Random;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
 
 
 /**
@@ -24,7 +27,8 @@ public class MarkovChain {
     public MarkovChain(FloatMatrix matrix, long seed) {
         assert (isValidTransitionMatrix(matrix));
 
-        this.transitionMat = new FloatMatrix(matrix);
+        //A read-only (mapped) matrix cannot change under the chain, so it need not be copied.
+        this.transitionMat = matrix.isReadOnly() ? matrix : new FloatMatrix(matrix);
         curState = 0;
         numStates = this.transitionMat.rows();
         stateLabels = null;
@@ -89,6 +93,31 @@ public class MarkovChain {
         }
     }
 
+    /**
+     * Get the label of any state of the Markov chain.
+     * If no state labels were provided, return the string representation
+     * of the state's number.
+     * @param state: the state number.
+     * @return the string label for the state.
+     */
+    public String getStateString(int state) {
+        if (stateLabels == null) {
+            return Integer.toString(state);
+        } else {
+            return stateLabels[state];
+        }
+    }
+
+    /**
+     * Get the probability of transitioning from one state to another.
+     * @param from: the current state.
+     * @param to: the next state.
+     * @return the entry (from, to) of the transition matrix.
+     */
+    public float getTransitionProbability(int from, int to) {
+        return transitionMat.get(from, to);
+    }
+
     /**
      * Get the number of states for this Markov chain.
      * It is equal to the number of columns/rows in its transition matrix.
@@ -149,6 +178,181 @@ public class MarkovChain {
     }
 
 
+    /**
+     * Compute the exact expected number of transitions to first reach any of the target states,
+     * from each state of the chain, choosing the solver by the number of states.
+     * See getExpectedHittingTimes(int[], int).
+     * @param targets: the target states.
+     * @return the expected hitting time from each state.
+     */
+    public double[] getExpectedHittingTimes(int[] targets) {
+        return getExpectedHittingTimes(targets, TransientSolver.AUTO);
+    }
+
+    /**
+     * Compute the exact expected number of transitions to first reach any of the target states,
+     * from each state of the chain, by solving (I - Q) h = 1 where Q is the transition matrix
+     * restricted to the non-target states. Target states have hitting time 0. States which
+     * might never reach a target, because they can reach a closed set of states without one,
+     * have an infinite hitting time.
+     * @param targets: the target states.
+     * @param method: the solver; TransientSolver.AUTO, LU, GAUSS_SEIDEL or JACOBI.
+     * @return the expected hitting time from each state, or Double.POSITIVE_INFINITY.
+     */
+    public double[] getExpectedHittingTimes(int[] targets, int method) {
+        boolean[] isTarget = _markStates(targets);
+        //A state's hitting time is finite if and only if it cannot reach a state which cannot reach a target.
+        boolean[] canHit = _canReach(isTarget, null);
+        boolean[] cannotHit = new boolean[numStates];
+        for (int i = 0; i < numStates; ++i) {
+            cannotHit[i] = !canHit[i];
+        }
+        boolean[] mayMiss = _canReach(cannotHit, isTarget);
+
+        double[] times = new double[numStates];
+        int[] states = _collect(i -> !isTarget[i] && !mayMiss[i]);
+        for (int i = 0; i < numStates; ++i) {
+            if (mayMiss[i]) {
+                times[i] = Double.POSITIVE_INFINITY;
+            }
+        }
+        if (states.length > 0) {
+            double[] ones = new double[states.length];
+            Arrays.fill(ones, 1.0);
+            double[] h = new TransientSolver(transitionMat, states, method).solve(ones);
+            for (int k = 0; k < states.length; ++k) {
+                times[states[k]] = h[k];
+            }
+        }
+        return times;
+    }
+
+    /**
+     * Compute the exact probabilities of first reaching each of the absorbing states,
+     * from each state of the chain, choosing the solver by the number of states.
+     * See getAbsorptionProbabilities(int[], int).
+     * @param absorbing: the absorbing states.
+     * @return the absorption probabilities, indexed by [state][index into absorbing].
+     */
+    public double[][] getAbsorptionProbabilities(int[] absorbing) {
+        return getAbsorptionProbabilities(absorbing, TransientSolver.AUTO);
+    }
+
+    /**
+     * Compute the exact probabilities of first reaching each of the absorbing states,
+     * from each state of the chain, by solving (I - Q) B = R where Q is the transition matrix
+     * restricted to the other states and R holds their transitions into the absorbing states.
+     * The chain is treated as stopping on reaching an absorbing state, whatever its transitions.
+     * Probabilities from one state sum to less than 1 if it might never be absorbed.
+     * @param absorbing: the absorbing states.
+     * @param method: the solver; TransientSolver.AUTO, LU, GAUSS_SEIDEL or JACOBI.
+     * @return the absorption probabilities, indexed by [state][index into absorbing].
+     */
+    public double[][] getAbsorptionProbabilities(int[] absorbing, int method) {
+        boolean[] isAbsorbing = _markStates(absorbing);
+        boolean[] canAbsorb = _canReach(isAbsorbing, null);
+
+        double[][] probs = new double[numStates][absorbing.length];
+        for (int a = 0; a < absorbing.length; ++a) {
+            probs[absorbing[a]][a] = 1.0;
+        }
+        int[] states = _collect(i -> !isAbsorbing[i] && canAbsorb[i]);
+        if (states.length > 0) {
+            TransientSolver solver = new TransientSolver(transitionMat, states, method);
+            double[] r = new double[states.length];
+            for (int a = 0; a < absorbing.length; ++a) {
+                for (int k = 0; k < states.length; ++k) {
+                    r[k] = transitionMat.get(states[k], absorbing[a]);
+                }
+                double[] b = solver.solve(r);
+                for (int k = 0; k < states.length; ++k) {
+                    probs[states[k]][a] = b[k];
+                }
+            }
+        }
+        return probs;
+    }
+
+    /**
+     * Private helper method for the hitting time methods.
+     * Validate a list of states and mark them.
+     */
+    private boolean[] _markStates(int[] states) {
+        if (states == null || states.length == 0) {
+            throw new IllegalArgumentException("At least one state is required.");
+        }
+        boolean[] marked = new boolean[numStates];
+        for (int s : states) {
+            if (s < 0 || s >= numStates) {
+                throw new IllegalArgumentException("State " + s + " is not in range 0 to " + (numStates - 1) + ".");
+            }
+            marked[s] = true;
+        }
+        return marked;
+    }
+
+    /**
+     * Private helper method for the hitting time methods.
+     * Find the states which can reach a goal state by transitions with non-zero probability,
+     * without passing through a blocked state. Goal states reach themselves.
+     * @param blocked: states the search does not pass through, or null.
+     */
+    private boolean[] _canReach(boolean[] goal, boolean[] blocked) {
+        //Search backwards from the goal states along reversed transitions.
+        int[] predStart = new int[numStates + 1];
+        float[] row = new float[numStates];
+        for (int i = 0; i < numStates; ++i) {
+            transitionMat.getRow(i, row);
+            for (int j = 0; j < numStates; ++j) {
+                if (row[j] > 0) {
+                    ++predStart[j + 1];
+                }
+            }
+        }
+        for (int j = 0; j < numStates; ++j) {
+            predStart[j + 1] += predStart[j];
+        }
+        int[] preds = new int[predStart[numStates]];
+        int[] fill = Arrays.copyOf(predStart, numStates);
+        for (int i = 0; i < numStates; ++i) {
+            transitionMat.getRow(i, row);
+            for (int j = 0; j < numStates; ++j) {
+                if (row[j] > 0) {
+                    preds[fill[j]++] = i;
+                }
+            }
+        }
+
+        boolean[] reached = new boolean[numStates];
+        int[] stack = new int[numStates];
+        int top = 0;
+        for (int i = 0; i < numStates; ++i) {
+            if (goal[i]) {
+                reached[i] = true;
+                stack[top++] = i;
+            }
+        }
+        while (top > 0) {
+            int j = stack[--top];
+            for (int e = predStart[j]; e < predStart[j + 1]; ++e) {
+                int i = preds[e];
+                if (!reached[i] && (blocked == null || !blocked[i])) {
+                    reached[i] = true;
+                    stack[top++] = i;
+                }
+            }
+        }
+        return reached;
+    }
+
+    /**
+     * Private helper method for the hitting time methods.
+     * List the states matching a condition, in increasing order.
+     */
+    private int[] _collect(IntPredicate condition) {
+        return IntStream.range(0, numStates).filter(condition).toArray();
+    }
+
     /**
      * Determines if a particular FloatMatrix is a valid transition matrix
      * for a MarkovChain object.
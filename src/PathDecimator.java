@@ -0,0 +1,156 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * A level-of-detail filter which reduces a walk path to the points needed to draw it on screen.
+ * Lattice sites are grouped into square pixels of sitesPerPixel x sitesPerPixel sites, and then:
+ * consecutive points in the same pixel are collapsed into one,
+ * straight runs of steps are merged into a single segment,
+ * and a step between two pixels which has already been drawn is not drawn again.
+ * The number of segments in the result is therefore bounded by the number of pixel edges
+ * the walk covers, O(pixels), no matter how many steps the walk has.
+ *
+ * Where skipping an already drawn step breaks the path, the result contains a null entry;
+ * no segment should be drawn between the points on either side of a null.
+ *
+ * For each point of the result, getStepIndices() gives the index in the original path at which
+ * the walk reached it, so segments can still be colored and timed by step.
+ */
+public class PathDecimator {
+
+    private int sitesPerPixel;
+    private int[] stepIndices;
+
+    /**
+     * Construct a PathDecimator.
+     * @param sitesPerPixel: the side length, in lattice sites, of one pixel; at least 1.
+     */
+    public PathDecimator(int sitesPerPixel) {
+        this.sitesPerPixel = Math.max(1, sitesPerPixel);
+        this.stepIndices = new int[0];
+    }
+
+    /**
+     * Compute the smallest number of sites per pixel so that a path with the given extents
+     * (the largest absolute coordinate, see WalkCanvas) fits in maxPixels pixels across
+     * when drawn centered on the origin.
+     * @param extents: the largest absolute x or y coordinate of the path.
+     * @param maxPixels: the number of pixels available across the display.
+     * @return the number of sites per pixel, at least 1.
+     */
+    public static int sitesPerPixelFor(int extents, int maxPixels) {
+        long needed = 2L * extents + 1;
+        if (maxPixels < 1 || needed <= maxPixels) {
+            return 1;
+        }
+        return (int) ((needed + maxPixels - 1) / maxPixels);
+    }
+
+    /**
+     * Reduce a path to the points needed to draw it.
+     * The returned coordinates are in pixel units: lattice coordinates divided (rounding down)
+     * by sitesPerPixel.
+     * @param path: the walk path to decimate.
+     * @return the decimated path, with null entries where the path is broken.
+     */
+    public ArrayList<Coordinate> decimate(List<Coordinate> path) {
+        ArrayList<Coordinate> ret = new ArrayList<>();
+        stepIndices = new int[16];
+        if (path.isEmpty()) {
+            stepIndices = new int[0];
+            return ret;
+        }
+
+        int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE;
+        for (Coordinate coord : path) {
+            int px = Math.floorDiv(coord.x, sitesPerPixel);
+            int py = Math.floorDiv(coord.y, sitesPerPixel);
+            minX = Math.min(minX, px);
+            maxX = Math.max(maxX, px);
+            minY = Math.min(minY, py);
+            maxY = Math.max(maxY, py);
+        }
+        long width = (long) maxX - minX + 1;
+        //Two bits per pixel: the edge to its east neighbour and the edge to its north neighbour.
+        BitSet drawn = new BitSet((int) Math.min(Integer.MAX_VALUE, 2 * width * ((long) maxY - minY + 1)));
+
+        int curX = Math.floorDiv(path.get(0).x, sitesPerPixel);
+        int curY = Math.floorDiv(path.get(0).y, sitesPerPixel);
+        _add(ret, new Coordinate(curX, curY), 0);
+        int curStep = 0; //the path index at which the walk reached (curX, curY)
+        boolean penDown = true; //the last point in ret is the current position
+        int lastDx = 0, lastDy = 0; //direction of the last segment in ret, if the pen is down
+
+        for (int i = 1; i < path.size(); ++i) {
+            int x = Math.floorDiv(path.get(i).x, sitesPerPixel);
+            int y = Math.floorDiv(path.get(i).y, sitesPerPixel);
+            int dx = x - curX;
+            int dy = y - curY;
+            if (dx == 0 && dy == 0) {
+                curStep = i;
+                continue;
+            }
+
+            if (Math.abs(dx) + Math.abs(dy) == 1) {
+                //Edges are stored at their west or south end.
+                long cell = ((long) Math.min(y, curY) - minY) * width + (Math.min(x, curX) - minX);
+                int edge = (int) (2 * cell + (dx != 0 ? 0 : 1));
+                if (drawn.get(edge)) {
+                    curX = x;
+                    curY = y;
+                    curStep = i;
+                    penDown = false;
+                    continue;
+                }
+                drawn.set(edge);
+            }
+
+            if (!penDown) {
+                _add(ret, null, curStep);
+                _add(ret, new Coordinate(curX, curY), curStep);
+                _add(ret, new Coordinate(x, y), i);
+                penDown = true;
+            } else if (dx == lastDx && dy == lastDy && ret.size() > 1) {
+                //Extend the straight run instead of adding a segment.
+                Coordinate last = ret.get(ret.size() - 1);
+                last.x = x;
+                last.y = y;
+                stepIndices[ret.size() - 1] = i;
+            } else {
+                _add(ret, new Coordinate(x, y), i);
+            }
+            lastDx = dx;
+            lastDy = dy;
+            curX = x;
+            curY = y;
+            curStep = i;
+        }
+        stepIndices = Arrays.copyOf(stepIndices, ret.size());
+        return ret;
+    }
+
+    /**
+     * Get the path index at which the walk reached each point of the last decimated path.
+     * The indices never decrease; a null entry has the index of the point after it.
+     * @return the indices, one per point of the last result of decimate().
+     */
+    public int[] getStepIndices() {
+        return stepIndices.clone();
+    }
+
+    /**
+     * Private helper method for decimate().
+     * Append a point and the path index it was reached at.
+     */
+    private void _add(ArrayList<Coordinate> ret, Coordinate pt, int step) {
+        if (ret.size() == stepIndices.length) {
+            stepIndices = Arrays.copyOf(stepIndices, 2 * stepIndices.length);
+        }
+        stepIndices[ret.size()] = step;
+        ret.add(pt);
+    }
+
+}
@@ -48,22 +48,47 @@ public class RandomWalker {
      * @return the path of the walk.
      */
     public ArrayList<Coordinate> walk(int Nsteps) {
+        return walk(Nsteps, null);
+    }
+
+    /**
+     * Perform a random walk of Nsteps, as walk(int), while telling listener about
+     * each coordinate as soon as it is added to the path.
+     *
+     * @param Nsteps: the number of steps to simulate in the random walk
+     * @param listener: notified of every coordinate of the path, in order; may be null.
+     * @return the path of the walk.
+     */
+    public ArrayList<Coordinate> walk(int Nsteps, StepListener listener) {
         int N = Nsteps;
         Coordinate curPos = new Coordinate(START_X, START_Y);
         path.clear(); //reset the path for this new walk.
 
         if (N > 0) {
-            path.add(new Coordinate(curPos.x, curPos.y));
+            addToPath(curPos, listener);
         }
         for (int step = 0; step < N; ++step) {
             mc.nextState();
             curPos.accumulate(getStepDirection());
-            path.add(new Coordinate(curPos.x, curPos.y));
+            addToPath(curPos, listener);
         }
 
         return path;
     }
 
+    /**
+     * Private helper method for walk().
+     * Add a copy of pos to the path and notify the listener, if any.
+     * @param pos: the coordinate to add.
+     * @param listener: the listener to notify; may be null.
+     */
+    private void addToPath(Coordinate pos, StepListener listener) {
+        path.add(new Coordinate(pos.x, pos.y));
+        if (listener != null) {
+            listener.onStep(pos.x, pos.y);
+        }
+    }
+
     /**
      * Given a random walker, store its most recently walked path to a file.
      * If the walker's path contains 0 steps, then the resulting file will be empty.
@@ -0,0 +1,187 @@
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A spatial index over the segments of a walk path, for drawing only the part of a
+ * long walk that is in view.
+ * The lattice area covered by the path is split into a uniform grid of square cells.
+ * Each cell records, as runs of consecutive segment indices, the segments which touch it.
+ * Walks tend to stay in one cell for many steps, so a run usually covers many segments and
+ * the index is much smaller than the path. Runs are stored in primitive int arrays.
+ *
+ * Segment i joins path points i-1 and i, as in WalkCanvas.
+ */
+public class SegmentGridIndex {
+
+    public static final int DEFAULT_CELLS_PER_SIDE = 256;
+
+    private int minX;
+    private int minY;
+    private int cellSize;
+    private int nCellsX;
+    private int nCellsY;
+    private int numSegments;
+    //For each cell, pairs (first, last) of segment index runs, and the number of ints used.
+    private int[][] cellRuns;
+    private int[] cellLens;
+
+    /**
+     * Build an index with DEFAULT_CELLS_PER_SIDE cells along the longer side of the path's bounding box.
+     * @param path: the walk path to index.
+     */
+    public SegmentGridIndex(List<Coordinate> path) {
+        this(path, DEFAULT_CELLS_PER_SIDE);
+    }
+
+    /**
+     * Build an index over the segments of a path.
+     * @param path: the walk path to index.
+     * @param cellsPerSide: the number of grid cells along the longer side of the path's bounding box.
+     */
+    public SegmentGridIndex(List<Coordinate> path, int cellsPerSide) {
+        int maxX = 0, maxY = 0;
+        minX = 0;
+        minY = 0;
+        if (!path.isEmpty()) {
+            minX = maxX = path.get(0).x;
+            minY = maxY = path.get(0).y;
+        }
+        for (Coordinate coord : path) {
+            minX = Math.min(minX, coord.x);
+            maxX = Math.max(maxX, coord.x);
+            minY = Math.min(minY, coord.y);
+            maxY = Math.max(maxY, coord.y);
+        }
+        long span = Math.max((long) maxX - minX, (long) maxY - minY) + 1;
+        int cells = Math.max(1, cellsPerSide);
+        cellSize = (int) Math.max(1, (span + cells - 1) / cells);
+        nCellsX = (int) (((long) maxX - minX) / cellSize + 1);
+        nCellsY = (int) (((long) maxY - minY) / cellSize + 1);
+        cellRuns = new int[nCellsX * nCellsY][];
+        cellLens = new int[nCellsX * nCellsY];
+        numSegments = Math.max(0, path.size() - 1);
+
+        for (int i = 1; i < path.size(); ++i) {
+            Coordinate a = path.get(i-1);
+            Coordinate b = path.get(i);
+            int cx0 = _cellX(Math.min(a.x, b.x));
+            int cx1 = _cellX(Math.max(a.x, b.x));
+            int cy0 = _cellY(Math.min(a.y, b.y));
+            int cy1 = _cellY(Math.max(a.y, b.y));
+            for (int cy = cy0; cy <= cy1; ++cy) {
+                for (int cx = cx0; cx <= cx1; ++cx) {
+                    _addToCell(cy * nCellsX + cx, i);
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the number of segments in the indexed path.
+     * @return the number of segments.
+     */
+    public int getNumSegments() {
+        return numSegments;
+    }
+
+    /**
+     * Find the segments which may intersect a rectangle of the lattice.
+     * The result lists runs of segment indices as pairs (first, last), inclusive,
+     * sorted and non-overlapping, so drawing them in order draws later segments over earlier ones.
+     * @param x0: the smallest x coordinate of the rectangle.
+     * @param y0: the smallest y coordinate of the rectangle.
+     * @param x1: the largest x coordinate of the rectangle.
+     * @param y1: the largest y coordinate of the rectangle.
+     * @return the runs of segment indices, flattened into pairs.
+     */
+    public int[] query(long x0, long y0, long x1, long y1) {
+        int cx0 = _cellX(x0);
+        int cx1 = _cellX(x1);
+        int cy0 = _cellY(y0);
+        int cy1 = _cellY(y1);
+        if (x1 < x0 || y1 < y0 || cx1 < 0 || cy1 < 0 || cx0 >= nCellsX || cy0 >= nCellsY) {
+            return new int[0];
+        }
+        cx0 = Math.max(0, cx0);
+        cy0 = Math.max(0, cy0);
+        cx1 = Math.min(nCellsX - 1, cx1);
+        cy1 = Math.min(nCellsY - 1, cy1);
+
+        int total = 0;
+        for (int cy = cy0; cy <= cy1; ++cy) {
+            for (int cx = cx0; cx <= cx1; ++cx) {
+                total += cellLens[cy * nCellsX + cx];
+            }
+        }
+        //Pack each run into a long, first in the high half, so one primitive sort orders them.
+        long[] runs = new long[total / 2];
+        int n = 0;
+        for (int cy = cy0; cy <= cy1; ++cy) {
+            for (int cx = cx0; cx <= cx1; ++cx) {
+                int cell = cy * nCellsX + cx;
+                for (int k = 0; k < cellLens[cell]; k += 2) {
+                    runs[n++] = ((long) cellRuns[cell][k] << 32) | cellRuns[cell][k+1];
+                }
+            }
+        }
+        Arrays.sort(runs);
+
+        int[] ret = new int[2 * runs.length];
+        int len = 0;
+        for (long run : runs) {
+            int first = (int) (run >>> 32);
+            int last = (int) run;
+            if (len > 0 && first <= ret[len-1] + 1) {
+                ret[len-1] = Math.max(ret[len-1], last);
+            } else {
+                ret[len++] = first;
+                ret[len++] = last;
+            }
+        }
+        return Arrays.copyOf(ret, len);
+    }
+
+    /**
+     * Count the segments in the runs returned by query().
+     * @param runs: the runs of segment indices, as returned by query().
+     * @return the number of segments covered by the runs.
+     */
+    public static long countSegments(int[] runs) {
+        long count = 0;
+        for (int k = 0; k < runs.length; k += 2) {
+            count += runs[k+1] - runs[k] + 1;
+        }
+        return count;
+    }
+
+    //Cell column of x, clamped to [-1, nCellsX] so far away coordinates cannot overflow.
+    private int _cellX(long x) {
+        return (int) Math.max(-1, Math.min(nCellsX, Math.floorDiv(x - minX, (long) cellSize)));
+    }
+
+    //Cell row of y, clamped to [-1, nCellsY] so far away coordinates cannot overflow.
+    private int _cellY(long y) {
+        return (int) Math.max(-1, Math.min(nCellsY, Math.floorDiv(y - minY, (long) cellSize)));
+    }
+
+    //Add segment i to a cell, extending the cell's last run when i directly follows it.
+    private void _addToCell(int cell, int i) {
+        int len = cellLens[cell];
+        int[] runs = cellRuns[cell];
+        if (len > 0 && runs[len-1] == i - 1) {
+            runs[len-1] = i;
+            return;
+        }
+        if (runs == null) {
+            runs = new int[4];
+            cellRuns[cell] = runs;
+        } else if (len == runs.length) {
+            runs = Arrays.copyOf(runs, 2 * len);
+            cellRuns[cell] = runs;
+        }
+        runs[len] = i;
+        runs[len+1] = i;
+        cellLens[cell] = len + 2;
+    }
+
+}
@@ -0,0 +1,432 @@
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * A class encoding a walker which moves randomly along an integer lattice, as a RandomWalker
+ * does, but never visits the same site twice.
+ * Directions come from the same Markov chain model as RandomWalker: the chain's states are
+ * labelled "N", "E", "S", "W", and the chain's current state is the heading before the first step.
+ *
+ * Sampling such walks by rejecting every walk which crosses itself fails exponentially often
+ * as walks get longer. Instead, a population of chains is grown one step at a time with
+ * Rosenbluth sampling: each chain only steps to free sites, and its weight is multiplied by the
+ * probability the unconstrained walk would have given to the free sites. After every step the
+ * population is pruned and enriched (PERM): chains with much more than their share of the
+ * total weight are cloned, sharing their weight between the copies, and chains with much less
+ * are randomly removed, the survivors taking on the removed weight. Weights are rescaled after
+ * every step so they cannot underflow. Chains are grown on a pool of worker threads.
+ *
+ * Each chain keeps its sites, and LatticeSiteSets of them, in a tree of runs shared with the
+ * chains it was cloned from or into, so cloning a chain costs nothing up front. Runs grow as
+ * needed; memory grows with the number of distinct sites held by the population, at most the
+ * population size times the number of steps.
+ */
+public class SelfAvoidingWalker {
+
+    public static final int START_X = 0;
+    public static final int START_Y = 0;
+    public static final int STEP_SIZE = 1; //each step along the lattice moves this many units
+    public static final int DEFAULT_POPULATION = 1000;
+    //Chains whose weight is this many times their share of the total are cloned; this fraction of it, pruned.
+    private static final double ENRICH_RATIO = 2.0;
+    private static final double PRUNE_RATIO = 0.5;
+    private static final int MAX_COPIES = 4;
+    //Enrichment pauses while the population is this many times its initial size.
+    private static final int MAX_POPULATION_FACTOR = 4;
+    //Runs of sites start this small and double as they fill.
+    private static final int INITIAL_RUN_CAPACITY = 16;
+
+    private int numStates;
+    private float[] probs; //row-major transition matrix
+    private int[] stepX;
+    private int[] stepY;
+    private int startState;
+    private int populationSize;
+    private int nThreads;
+    private SplittableRandom rng;
+    private ArrayList<Coordinate> path;
+    private double[] logSurvival;
+
+    /**
+     * A run of consecutive sites of a walk, in order, with the set of them.
+     * Runs form a tree: a run continues the walk of its parent, and once frozen it is never
+     * changed again, so clones of a chain share every run up to the point they were cloned.
+     */
+    private static class Run {
+        long[] sites;
+        int count;
+        LatticeSiteSet occupied;
+        Run parent;
+
+        Run(Run parent) {
+            this.sites = new long[INITIAL_RUN_CAPACITY];
+            this.count = 0;
+            this.occupied = new LatticeSiteSet(INITIAL_RUN_CAPACITY);
+            this.parent = parent;
+        }
+
+        void add(long site) {
+            if (count == sites.length) {
+                sites = Arrays.copyOf(sites, 2 * count);
+            }
+            sites[count++] = site;
+            occupied.add(site);
+        }
+    }
+
+    /**
+     * A walk in the population: the last run of its sites, which it alone may extend,
+     * its current site, its length, its heading and its weight.
+     */
+    private static class Chain {
+        Run top;
+        long head;
+        int length;
+        int state;
+        double weight;
+        SplittableRandom rng;
+
+        Chain(int state, SplittableRandom rng) {
+            this.top = new Run(null);
+            this.head = Coordinate.pack(START_X, START_Y);
+            this.top.add(head);
+            this.length = 1;
+            this.state = state;
+            this.weight = 1.0;
+            this.rng = rng;
+        }
+
+        /**
+         * Clone a chain. Its sites so far are frozen and shared by both chains.
+         */
+        Chain(Chain other, SplittableRandom rng) {
+            if (other.top.count > 0) {
+                other.freeze();
+            }
+            this.top = new Run(other.top.parent);
+            this.head = other.head;
+            this.length = other.length;
+            this.state = other.state;
+            this.weight = other.weight;
+            this.rng = rng;
+        }
+
+        /**
+         * Freeze the last run, so it can be shared with clones, and start a new one.
+         * A frozen run at least half the size of its parent is first merged into a copy of it,
+         * so each run is less than half its parent and a walk of n sites has at most log2(n) runs.
+         */
+        void freeze() {
+            Run frozen = top;
+            while (frozen.parent != null && 2 * frozen.count >= frozen.parent.count) {
+                Run p = frozen.parent;
+                Run merged = new Run(p.parent);
+                merged.sites = Arrays.copyOf(p.sites, p.count + frozen.count);
+                System.arraycopy(frozen.sites, 0, merged.sites, p.count, frozen.count);
+                merged.count = p.count + frozen.count;
+                merged.occupied = new LatticeSiteSet(p.occupied);
+                for (int i = 0; i < frozen.count; ++i) {
+                    merged.occupied.add(frozen.sites[i]);
+                }
+                frozen = merged;
+            }
+            top = new Run(frozen);
+        }
+
+        boolean contains(int x, int y) {
+            for (Run r = top; r != null; r = r.parent) {
+                if (r.occupied.contains(x, y)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void add(long site) {
+            top.add(site);
+            head = site;
+            ++length;
+        }
+    }
+
+    /**
+     * Construct a SelfAvoidingWalker with DEFAULT_POPULATION chains, one thread per processor, and seed 0.
+     * @param chain the Markov chain encoding walk direction
+     */
+    public SelfAvoidingWalker(MarkovChain chain) {
+        this(chain, DEFAULT_POPULATION, Runtime.getRuntime().availableProcessors(), 0);
+    }
+
+    /**
+     * Construct a SelfAvoidingWalker.
+     * The Markov chain should at most have the state labels "N", "E", "S", "W";
+     * which encode the cardinal directions to walk. Only its transition matrix,
+     * labels and current state are used; its random numbers are not.
+     * @param chain the Markov chain encoding walk direction
+     * @param populationSize the number of chains grown together
+     * @param nThreads the number of threads growing chains
+     * @param seed the random number generator seed; results do not depend on nThreads
+     */
+    public SelfAvoidingWalker(MarkovChain chain, int populationSize, int nThreads, long seed) {
+        numStates = chain.getNumStates();
+        if (numStates > Integer.SIZE) {
+            throw new IllegalArgumentException("SelfAvoidingWalker supports at most " + Integer.SIZE + " Markov chain states.");
+        }
+        DirectionSampler sampler = new DirectionSampler(chain);
+        probs = new float[numStates * numStates];
+        stepX = new int[numStates];
+        stepY = new int[numStates];
+        for (int i = 0; i < numStates; ++i) {
+            for (int j = 0; j < numStates; ++j) {
+                probs[i*numStates + j] = chain.getTransitionProbability(i, j);
+            }
+            stepX[i] = STEP_SIZE * sampler.getStepX(i);
+            stepY[i] = STEP_SIZE * sampler.getStepY(i);
+        }
+        this.startState = sampler.getStartState();
+        this.populationSize = Math.max(1, populationSize);
+        this.nThreads = Math.max(1, nThreads);
+        this.rng = new SplittableRandom(seed);
+        this.path = new ArrayList<>();
+        this.logSurvival = new double[0];
+    }
+
+    /**
+     * Perform a self-avoiding walk of Nsteps and return the resulting path.
+     * The path is encoded as in RandomWalker.walk(). It is drawn from the grown population
+     * with probability proportional to weight, so it follows the distribution of the Markov
+     * chain's walks conditioned on never revisiting a site.
+     *
+     * If Nsteps is 0 or negative, the resulting path is empty.
+     *
+     * @param Nsteps: the number of steps to simulate
+     * @return the path of the walk.
+     * @throws RuntimeException if every chain became trapped before Nsteps steps.
+     */
+    public ArrayList<Coordinate> walk(int Nsteps) {
+        path.clear();
+        if (Nsteps <= 0) {
+            logSurvival = new double[0];
+            return path;
+        }
+
+        logSurvival = new double[Nsteps + 1];
+        ArrayList<Chain> population = new ArrayList<>(populationSize);
+        for (int i = 0; i < populationSize; ++i) {
+            population.add(new Chain(startState, rng.split()));
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(nThreads);
+        try {
+            for (int step = 1; step <= Nsteps; ++step) {
+                _growAll(population, pool);
+                double total = 0;
+                for (Chain c : population) {
+                    total += c.weight;
+                }
+                if (total == 0) {
+                    throw new RuntimeException("Every self-avoiding walk was trapped after " + (step - 1) + " steps.");
+                }
+                //Rescale so the weights average 1 over the initial population size.
+                double factor = total / populationSize;
+                logSurvival[step] = logSurvival[step - 1] + Math.log(factor);
+                for (Chain c : population) {
+                    c.weight /= factor;
+                }
+                total = populationSize;
+                if (step < Nsteps) {
+                    population = _pruneAndEnrich(population, total);
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        Chain chosen = _choose(population);
+        ArrayList<Run> runs = new ArrayList<>();
+        for (Run r = chosen.top; r != null; r = r.parent) {
+            runs.add(r);
+        }
+        path.ensureCapacity(chosen.length);
+        for (int k = runs.size() - 1; k >= 0; --k) {
+            Run r = runs.get(k);
+            for (int i = 0; i < r.count; ++i) {
+                path.add(new Coordinate(Coordinate.unpackX(r.sites[i]), Coordinate.unpackY(r.sites[i])));
+            }
+        }
+        return path;
+    }
+
+    /**
+     * Get the natural logarithm of the estimated probability that the unconstrained Markov walk
+     * stays self-avoiding, for every number of steps up to the last walk's. Logarithms are returned
+     * because the probabilities themselves underflow for long walks. For a uniform transition
+     * matrix, n log(4) plus entry n estimates the log of the number of n step self-avoiding walks.
+     * @return the estimates, indexed by number of steps; empty before the first walk.
+     */
+    public double[] getLogSurvivalProbabilities() {
+        return Arrays.copyOf(logSurvival, logSurvival.length);
+    }
+
+    /**
+     * Given a self-avoiding walker, store its most recently walked path to a file,
+     * in the same formats as RandomWalker.saveWalkToFile().
+     * @param fname the name of the file in which to write the path
+     * @throws IOException if the file could not be open or created writing
+     */
+    public void saveWalkToFile(String fname) throws IOException {
+        PrintWriter writer = new PrintWriter(fname);
+
+        if (fname.endsWith(".dat")) {
+            // Output as integer stream
+            for (Coordinate coOrd : path) {
+                writer.print(coOrd.x + " " + coOrd.y + " ");
+            }
+        } else if (fname.endsWith(".txt")) {
+            // Output as coordinates
+            for (Coordinate coOrd : path) {
+                writer.println(String.format("(%d, %d)", coOrd.x, coOrd.y));
+            }
+        } else {
+            throw new IllegalArgumentException("Unsupported file format. Please use .dat or .txt extension.");
+        }
+
+        writer.close();
+    }
+
+    /**
+     * Private helper method for walk().
+     * Grow every chain by one step, splitting the population into one range per thread.
+     */
+    private void _growAll(ArrayList<Chain> population, ExecutorService pool) {
+        int n = population.size();
+        int nTasks = Math.min(nThreads, n);
+        ArrayList<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < nTasks; ++t) {
+            int first = (int) ((long) n * t / nTasks);
+            int last = (int) ((long) n * (t+1) / nTasks);
+            futures.add(pool.submit(() -> {
+                for (int i = first; i < last; ++i) {
+                    _grow(population.get(i));
+                }
+            }));
+        }
+        try {
+            for (Future<?> f : futures) {
+                f.get();
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            throw new RuntimeException("Growing self-avoiding walks failed.", e);
+        }
+    }
+
+    /**
+     * Private helper method for walk().
+     * Take one Rosenbluth step: choose among the free neighbouring sites in proportion to their
+     * transition probabilities, and multiply the weight by the total probability of the free sites.
+     * A chain with no free site gets weight 0.
+     */
+    private void _grow(Chain c) {
+        int x = Coordinate.unpackX(c.head);
+        int y = Coordinate.unpackY(c.head);
+        int row = c.state * numStates;
+        int free = 0; //bit d is set when the step in direction d is allowed
+        double total = 0;
+        for (int d = 0; d < numStates; ++d) {
+            float p = probs[row + d];
+            if (p > 0 && !c.contains(x + stepX[d], y + stepY[d])) {
+                free |= 1 << d;
+                total += p;
+            }
+        }
+        if (free == 0) {
+            c.weight = 0;
+            return;
+        }
+
+        double r = c.rng.nextDouble() * total;
+        int next = 31 - Integer.numberOfLeadingZeros(free); //the last free direction, if rounding skips past the others
+        double cum = 0;
+        for (int d = 0; d < numStates; ++d) {
+            if ((free & (1 << d)) != 0) {
+                cum += probs[row + d];
+                if (r < cum) {
+                    next = d;
+                    break;
+                }
+            }
+        }
+
+        c.add(Coordinate.pack(x + stepX[next], y + stepY[next]));
+        c.state = next;
+        c.weight *= total;
+    }
+
+    /**
+     * Private helper method for walk().
+     * Remove trapped chains, clone heavy chains and randomly prune light ones,
+     * keeping the expected total weight the same. Weights are compared with the weight each
+     * chain would have if the total were shared by populationSize chains, so a population
+     * which trapped chains have shrunk is enriched back towards its initial size.
+     * @return the new population.
+     */
+    private ArrayList<Chain> _pruneAndEnrich(ArrayList<Chain> population, double total) {
+        double target = total / populationSize;
+        boolean mayEnrich = population.size() < MAX_POPULATION_FACTOR * populationSize;
+
+        ArrayList<Chain> next = new ArrayList<>(population.size());
+        for (Chain c : population) {
+            if (c.weight == 0) {
+                continue;
+            }
+            if (mayEnrich && c.weight > ENRICH_RATIO * target) {
+                int copies = (int) Math.min(MAX_COPIES, Math.floor(c.weight / target));
+                c.weight /= copies;
+                next.add(c);
+                for (int k = 1; k < copies; ++k) {
+                    next.add(new Chain(c, rng.split()));
+                }
+            } else if (c.weight < PRUNE_RATIO * target) {
+                double kept = PRUNE_RATIO * target;
+                if (rng.nextDouble() * kept < c.weight) {
+                    c.weight = kept;
+                    next.add(c);
+                }
+            } else {
+                next.add(c);
+            }
+        }
+        return next;
+    }
+
+    /**
+     * Private helper method for walk().
+     * Choose a chain with probability proportional to its weight.
+     */
+    private Chain _choose(ArrayList<Chain> population) {
+        double total = 0;
+        for (Chain c : population) {
+            total += c.weight;
+        }
+        double r = rng.nextDouble() * total;
+        Chain chosen = null;
+        for (Chain c : population) {
+            if (c.weight > 0) {
+                chosen = c;
+                r -= c.weight;
+                if (r < 0) {
+                    break;
+                }
+            }
+        }
+        return chosen;
+    }
+
+}
@@ -0,0 +1,169 @@
+import java.util.List;
+
+/**
+ * Counts which lattice sites a walk visits: the number of distinct sites, how often the walk
+ * comes back to a site it has already visited or to its starting site, and how much of the
+ * lattice around the start it has covered.
+ * Like WalkStatistics it can be fed inline, as a StepListener passed to a walker's walk(),
+ * or from a stored path with addAll(). Visited sites are kept in a LatticeSiteSet, so memory
+ * grows with the number of distinct sites rather than the number of steps.
+ */
+public class SiteCoverage implements StepListener {
+
+    private LatticeSiteSet visited;
+    private long numPoints;
+    private int startX;
+    private int startY;
+    private int minX;
+    private int maxX;
+    private int minY;
+    private int maxY;
+    private long numRevisits;
+    private long numReturns;
+    private long firstReturnStep;
+
+    /**
+     * Construct an empty counter.
+     */
+    public SiteCoverage() {
+        this.visited = new LatticeSiteSet();
+        clear();
+    }
+
+    /**
+     * Forget every point added so far.
+     */
+    public void clear() {
+        visited.clear();
+        numPoints = 0;
+        startX = startY = 0;
+        minX = maxX = minY = maxY = 0;
+        numRevisits = 0;
+        numReturns = 0;
+        firstReturnStep = -1;
+    }
+
+    /**
+     * Add the next point of the walk.
+     * @param x: the x coordinate of the point.
+     * @param y: the y coordinate of the point.
+     */
+    @Override
+    public void onStep(int x, int y) {
+        if (numPoints == 0) {
+            startX = minX = maxX = x;
+            startY = minY = maxY = y;
+        } else {
+            minX = Math.min(minX, x);
+            maxX = Math.max(maxX, x);
+            minY = Math.min(minY, y);
+            maxY = Math.max(maxY, y);
+        }
+        if (!visited.add(x, y)) {
+            ++numRevisits;
+            if (x == startX && y == startY) {
+                ++numReturns;
+                if (firstReturnStep < 0) {
+                    firstReturnStep = numPoints;
+                }
+            }
+        }
+        ++numPoints;
+    }
+
+    /**
+     * Add every point of a stored path, in order.
+     * @param path: the points to add.
+     */
+    public void addAll(List<Coordinate> path) {
+        for (Coordinate coord : path) {
+            onStep(coord.x, coord.y);
+        }
+    }
+
+    /**
+     * @return the number of points added; one more than the number of steps.
+     */
+    public long getNumPoints() {
+        return numPoints;
+    }
+
+    /**
+     * @return the number of distinct sites visited.
+     */
+    public int getNumDistinctSites() {
+        return visited.size();
+    }
+
+    /**
+     * @return the number of steps which ended on a site that had already been visited.
+     */
+    public long getNumRevisits() {
+        return numRevisits;
+    }
+
+    /**
+     * @return the number of steps which ended back on the starting site.
+     */
+    public long getNumReturns() {
+        return numReturns;
+    }
+
+    /**
+     * @return the number of steps taken before first returning to the starting site, or -1 if it never returned.
+     */
+    public long getFirstReturnStep() {
+        return firstReturnStep;
+    }
+
+    /**
+     * Get the fraction of the sites in the walk's bounding box which were visited.
+     * @return the covered fraction, between 0 and 1.
+     */
+    public double getBoundingBoxCoverage() {
+        if (numPoints == 0) {
+            return 0;
+        }
+        double area = ((double) maxX - minX + 1) * ((double) maxY - minY + 1);
+        return visited.size() / area;
+    }
+
+    /**
+     * Get the size of the largest square around the starting site which was completely covered:
+     * the largest r such that every site within r steps of the start along both axes was visited.
+     * @return the cover radius, or -1 if no points were added.
+     */
+    public int getCoverRadius() {
+        if (numPoints == 0) {
+            return -1;
+        }
+        //Check the ring of sites at distance r, for r = 1, 2, ..., until one is missing.
+        int r = 0;
+        while (true) {
+            int next = r + 1;
+            for (int k = -next; k <= next; ++k) {
+                if (!visited.contains(startX + k, startY + next) || !visited.contains(startX + k, startY - next)
+                        || !visited.contains(startX + next, startY + k) || !visited.contains(startX - next, startY + k)) {
+                    return r;
+                }
+            }
+            r = next;
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Distinct sites visited:    ").append(getNumDistinctSites()).append('\n');
+        sb.append("Revisits:                  ").append(numRevisits).append('\n');
+        sb.append("Returns to start:          ").append(numReturns);
+        if (firstReturnStep >= 0) {
+            sb.append(" (first after ").append(firstReturnStep).append(" steps)");
+        }
+        sb.append('\n');
+        sb.append(String.format("Bounding box coverage:     %.3f%n", getBoundingBoxCoverage()));
+        sb.append("Cover radius:              ").append(getCoverRadius());
+        return sb.toString();
+    }
+
+}
@@ -39,17 +39,29 @@ public class SpiralWalker {
      * @return the path of the walk
      */
     public ArrayList<Coordinate> walk(int Nsteps) {
+        return walk(Nsteps, null);
+    }
+
+    /**
+     * Performs a clockwise spiral walk, as walk(int), while telling the listener about
+     * each coordinate as soon as it is added to the path.
+     *
+     * @param Nsteps the number of steps to simulate in the spiral walk
+     * @param listener notified of every coordinate of the path, in order; may be null
+     * @return the path of the walk
+     */
+    public ArrayList<Coordinate> walk(int Nsteps, StepListener listener) {
         int N = Nsteps;
         curPos = new Coordinate(START_X, START_Y);
         path.clear(); // Reset the path for this new walk.
 
         if (N > 0) {
-            addToPath();
+            addToPath(listener);
         }
 
         for (int step = 0; step < N; ++step) {
             spiralStep();
-            addToPath();
+            addToPath(listener);
         }
 
         return path;
@@ -58,11 +70,16 @@ public class SpiralWalker {
     /**
      * Adds the current position to the path.
      * This method creates a new Coordinate object using the current x and y coordinates
-     * of the SpiralWalker's position and adds it to the path list.
+     * of the SpiralWalker's position and adds it to the path list, then notifies the listener, if any.
      * It is a private helper method used internally to update the walker's path during the walk.
+     *
+     * @param listener the listener to notify; may be null
      */
-    private void addToPath() {
+    private void addToPath(StepListener listener) {
         path.add(new Coordinate(curPos.x, curPos.y));
+        if (listener != null) {
+            listener.onStep(curPos.x, curPos.y);
+        }
     }
 
     /**
@@ -0,0 +1,33 @@
+/**
+ * A listener which is told about every coordinate of a walk as the walker produces it,
+ * so the walk can be displayed or analysed while it is still being simulated.
+ */
+public interface StepListener {
+
+    /**
+     * Called once for each coordinate added to a walker's path, in path order.
+     * @param x: the x coordinate of the new point.
+     * @param y: the y coordinate of the new point.
+     */
+    void onStep(int x, int y);
+
+    /**
+     * Combine two listeners into one which tells both about every coordinate, first then second.
+     * @param first: a listener; may be null.
+     * @param second: another listener; may be null.
+     * @return a listener notifying both, or whichever one is not null, or null if both are.
+     */
+    static StepListener both(StepListener first, StepListener second) {
+        if (first == null) {
+            return second;
+        }
+        if (second == null) {
+            return first;
+        }
+        return (x, y) -> {
+            first.onStep(x, y);
+            second.onStep(x, y);
+        };
+    }
+
+}
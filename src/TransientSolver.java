@@ -0,0 +1,229 @@
+import java.util.Arrays;
+
+/**
+ * Solves the linear systems (I - Q) x = b behind exact hitting times and absorption
+ * probabilities of a Markov chain, where Q is the transition matrix restricted to the
+ * transient states: those which have not yet stopped. See MarkovChain.getExpectedHittingTimes()
+ * and MarkovChain.getAbsorptionProbabilities().
+ *
+ * Dense chains are solved directly by LU decomposition with partial pivoting, done in place
+ * in one flat array and reused for every right hand side. Large chains, whose rows are mostly
+ * zeros, are solved iteratively by Gauss-Seidel or Jacobi sweeps over the non-zero entries
+ * only, which converge because every transient state eventually stops.
+ */
+public class TransientSolver {
+
+    public static final int AUTO = 0;
+    public static final int LU = 1;
+    public static final int GAUSS_SEIDEL = 2;
+    public static final int JACOBI = 3;
+    //AUTO solves systems up to this many transient states by LU, and larger ones by Gauss-Seidel.
+    public static final int DENSE_LIMIT = 1024;
+    public static final double TOLERANCE = 1e-12;
+    public static final int MAX_ITERATIONS = 1000000;
+
+    private int n;
+    private int method;
+    //LU: the factors of I - Q, row-major, with the unit diagonal of L left implicit.
+    private double[] lu;
+    private int[] pivots;
+    //Iterative: Q without its diagonal in compressed sparse rows, and 1 - Q(i, i).
+    private int[] rowStart;
+    private int[] cols;
+    private double[] vals;
+    private double[] diag;
+
+    /**
+     * Set up the system for the transient states of a transition matrix.
+     * @param P: the transition matrix of the whole chain.
+     * @param states: the states of P in the system, in the order of the solution vectors.
+     * @param method: AUTO, LU, GAUSS_SEIDEL or JACOBI.
+     * @throws ArithmeticException if LU finds I - Q singular.
+     */
+    public TransientSolver(FloatMatrix P, int[] states, int method) {
+        n = states.length;
+        if (method == AUTO) {
+            method = n <= DENSE_LIMIT ? LU : GAUSS_SEIDEL;
+        }
+        if (method != LU && method != GAUSS_SEIDEL && method != JACOBI) {
+            throw new IllegalArgumentException("Unknown solver method " + method + ".");
+        }
+        this.method = method;
+
+        int[] index = new int[P.rows()]; //state to position in the system, or -1
+        Arrays.fill(index, -1);
+        for (int k = 0; k < n; ++k) {
+            index[states[k]] = k;
+        }
+        float[] row = new float[P.columns()];
+
+        if (method == LU) {
+            lu = new double[n * n];
+            for (int k = 0; k < n; ++k) {
+                P.getRow(states[k], row);
+                for (int j = 0; j < n; ++j) {
+                    lu[k*n + j] = -row[states[j]];
+                }
+                lu[k*n + k] += 1.0;
+            }
+            _factor();
+        } else {
+            rowStart = new int[n + 1];
+            diag = new double[n];
+            int[] c = new int[Math.max(16, 4 * n)];
+            double[] v = new double[c.length];
+            int nnz = 0;
+            for (int k = 0; k < n; ++k) {
+                rowStart[k] = nnz;
+                P.getRow(states[k], row);
+                diag[k] = 1.0;
+                for (int j = 0; j < row.length; ++j) {
+                    int col = index[j];
+                    if (row[j] == 0 || col < 0) {
+                        continue;
+                    }
+                    if (col == k) {
+                        diag[k] -= row[j];
+                        continue;
+                    }
+                    if (nnz == c.length) {
+                        c = Arrays.copyOf(c, 2 * nnz);
+                        v = Arrays.copyOf(v, 2 * nnz);
+                    }
+                    c[nnz] = col;
+                    v[nnz] = row[j];
+                    ++nnz;
+                }
+            }
+            rowStart[n] = nnz;
+            cols = Arrays.copyOf(c, nnz);
+            vals = Arrays.copyOf(v, nnz);
+        }
+    }
+
+    /**
+     * Get the method the system is solved by; never AUTO.
+     * @return LU, GAUSS_SEIDEL or JACOBI.
+     */
+    public int getMethod() {
+        return method;
+    }
+
+    /**
+     * Solve (I - Q) x = b.
+     * @param b: the right hand side, one entry per transient state. It is not modified.
+     * @return the solution x.
+     * @throws ArithmeticException if an iterative method does not converge within MAX_ITERATIONS sweeps.
+     */
+    public double[] solve(double[] b) {
+        if (b.length != n) {
+            throw new IllegalArgumentException("The right hand side has " + b.length + " entries, expected " + n + ".");
+        }
+        if (method == LU) {
+            return _solveLU(b);
+        }
+        return _solveIterative(b);
+    }
+
+    /**
+     * A private helper method which factors lu in place into L and U, with row pivoting.
+     */
+    private void _factor() {
+        pivots = new int[n];
+        for (int k = 0; k < n; ++k) {
+            int p = k;
+            double max = Math.abs(lu[k*n + k]);
+            for (int i = k + 1; i < n; ++i) {
+                double a = Math.abs(lu[i*n + k]);
+                if (a > max) {
+                    max = a;
+                    p = i;
+                }
+            }
+            if (max < TOLERANCE) {
+                throw new ArithmeticException("The transient system is singular.");
+            }
+            pivots[k] = p;
+            if (p != k) {
+                for (int j = 0; j < n; ++j) {
+                    double t = lu[k*n + j];
+                    lu[k*n + j] = lu[p*n + j];
+                    lu[p*n + j] = t;
+                }
+            }
+            double pivot = lu[k*n + k];
+            for (int i = k + 1; i < n; ++i) {
+                double f = lu[i*n + k] / pivot;
+                lu[i*n + k] = f;
+                if (f == 0) {
+                    continue; //common in sparse-ish chains
+                }
+                for (int j = k + 1; j < n; ++j) {
+                    lu[i*n + j] -= f * lu[k*n + j];
+                }
+            }
+        }
+    }
+
+    private double[] _solveLU(double[] b) {
+        double[] x = b.clone();
+        for (int k = 0; k < n; ++k) {
+            int p = pivots[k];
+            if (p != k) {
+                double t = x[k];
+                x[k] = x[p];
+                x[p] = t;
+            }
+        }
+        //Forward substitution with unit lower triangular L.
+        for (int i = 0; i < n; ++i) {
+            double s = x[i];
+            for (int j = 0; j < i; ++j) {
+                s -= lu[i*n + j] * x[j];
+            }
+            x[i] = s;
+        }
+        //Back substitution with U.
+        for (int i = n - 1; i >= 0; --i) {
+            double s = x[i];
+            for (int j = i + 1; j < n; ++j) {
+                s -= lu[i*n + j] * x[j];
+            }
+            x[i] = s / lu[i*n + i];
+        }
+        return x;
+    }
+
+    /**
+     * A private helper method running Gauss-Seidel or Jacobi sweeps of
+     * x(i) = (b(i) + sum over j != i of Q(i, j) x(j)) / (1 - Q(i, i)) until x stops changing.
+     */
+    private double[] _solveIterative(double[] b) {
+        double[] x = new double[n];
+        double[] next = method == JACOBI ? new double[n] : x;
+        for (int iter = 0; iter < MAX_ITERATIONS; ++iter) {
+            double maxChange = 0;
+            double maxValue = 0;
+            for (int i = 0; i < n; ++i) {
+                double s = b[i];
+                for (int e = rowStart[i]; e < rowStart[i+1]; ++e) {
+                    s += vals[e] * x[cols[e]];
+                }
+                s /= diag[i];
+                maxChange = Math.max(maxChange, Math.abs(s - x[i]));
+                maxValue = Math.max(maxValue, Math.abs(s));
+                next[i] = s;
+            }
+            if (next != x) {
+                double[] t = x;
+                x = next;
+                next = t;
+            }
+            if (maxChange <= TOLERANCE * Math.max(1.0, maxValue)) {
+                return x;
+            }
+        }
+        throw new ArithmeticException("The transient system did not converge within " + MAX_ITERATIONS + " iterations.");
+    }
+
+}
@@ -0,0 +1,216 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Fits a direction Markov chain's transition matrix to observed walks, such as the files
+ * written by the walkers' saveWalkToFile() methods.
+ * Each step of a walk is turned into a heading, "N", "E", "S" or "W", from the difference of
+ * consecutive coordinates, and every pair of consecutive headings is counted as one observed
+ * transition. The maximum likelihood estimate of each row of the transition matrix is then
+ * the row's counts divided by their total.
+ *
+ * Walks are streamed through a WalkFileReader, so only the 4 x 4 counts are held in memory
+ * however long they are. Steps which are not a single unit step along the lattice, or which
+ * stay in place, have no heading: they are counted as skipped and break the chain of headings.
+ */
+public class TransitionEstimator {
+
+    public static final String NORTH = "N";
+    public static final String EAST = "E";
+    public static final String SOUTH = "S";
+    public static final String WEST = "W";
+    public static final int NUM_STATES = 4;
+    private static final int NO_HEADING = -1;
+
+    private long[] counts; //row-major, counts[from * NUM_STATES + to]
+    private long numSkipped;
+
+    /**
+     * Construct an estimator with no observed transitions.
+     */
+    public TransitionEstimator() {
+        counts = new long[NUM_STATES * NUM_STATES];
+        numSkipped = 0;
+    }
+
+    /**
+     * Get the state labels of the estimated matrix, in the order of its rows and columns.
+     * These are the cardinal directions the other classes use to build their Markov chains.
+     * @return the labels "N", "E", "S", "W".
+     */
+    public static String[] getStateLabels() {
+        return new String[] {NORTH, EAST, SOUTH, WEST};
+    }
+
+    /**
+     * Count the transitions of one walk file.
+     * @param fname: the name of the walk file, ending in ".txt" or ".dat".
+     * @throws IOException if the file could not be opened or read
+     * @throws RuntimeException if the file is not a valid walk file
+     */
+    public void addWalkFile(String fname) throws IOException, RuntimeException {
+        try (WalkFileReader rd = new WalkFileReader(fname)) {
+            Coordinate cur = new Coordinate(0, 0);
+            if (!rd.readNext(cur)) {
+                return;
+            }
+            int prevX = cur.x;
+            int prevY = cur.y;
+            int prevHeading = NO_HEADING;
+            while (rd.readNext(cur)) {
+                int heading = headingOf(cur.x - prevX, cur.y - prevY);
+                if (heading == NO_HEADING) {
+                    ++numSkipped;
+                } else if (prevHeading != NO_HEADING) {
+                    ++counts[prevHeading * NUM_STATES + heading];
+                }
+                prevHeading = heading;
+                prevX = cur.x;
+                prevY = cur.y;
+            }
+        }
+    }
+
+    /**
+     * Count the transitions of many walk files on a pool of worker threads.
+     * Each thread counts its files into its own estimator, and those are merged into this one
+     * once every file has been read, so the result is the same as adding the files one by one.
+     * @param fnames: the names of the walk files.
+     * @param nThreads: the number of threads reading files.
+     * @throws IOException if a file could not be opened or read
+     * @throws RuntimeException if a file is not a valid walk file
+     */
+    public void addWalkFiles(List<String> fnames, int nThreads) throws IOException, RuntimeException {
+        int nTasks = Math.max(1, Math.min(nThreads, fnames.size()));
+        ExecutorService pool = Executors.newFixedThreadPool(nTasks);
+        try {
+            ArrayList<Future<TransitionEstimator>> futures = new ArrayList<>();
+            for (int t = 0; t < nTasks; ++t) {
+                int task = t;
+                futures.add(pool.submit(() -> {
+                    TransitionEstimator local = new TransitionEstimator();
+                    for (int i = task; i < fnames.size(); i += nTasks) {
+                        local.addWalkFile(fnames.get(i));
+                    }
+                    return local;
+                }));
+            }
+            for (Future<TransitionEstimator> f : futures) {
+                merge(f.get());
+            }
+        } catch (InterruptedException e) {
+            throw new RuntimeException("Reading walk files was interrupted.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException("Reading walk files failed.", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Add the counts of another estimator to this one.
+     * @param other: the estimator to merge; it is not modified.
+     */
+    public void merge(TransitionEstimator other) {
+        for (int i = 0; i < counts.length; ++i) {
+            counts[i] += other.counts[i];
+        }
+        numSkipped += other.numSkipped;
+    }
+
+    /**
+     * Get the number of observed transitions from one heading to the next.
+     * @param from: the earlier heading, 0 to 3 in the order of getStateLabels().
+     * @param to: the later heading, 0 to 3 in the order of getStateLabels().
+     * @return the count.
+     */
+    public long getCount(int from, int to) {
+        return counts[from * NUM_STATES + to];
+    }
+
+    /**
+     * @return the total number of observed transitions.
+     */
+    public long getNumTransitions() {
+        long total = 0;
+        for (long c : counts) {
+            total += c;
+        }
+        return total;
+    }
+
+    /**
+     * @return the number of steps skipped because they were not a single unit step.
+     */
+    public long getNumSkipped() {
+        return numSkipped;
+    }
+
+    /**
+     * Get the maximum likelihood estimate of the transition matrix.
+     * See getTransitionMatrix(double).
+     * @return the estimated transition matrix.
+     */
+    public FloatMatrix getTransitionMatrix() {
+        return getTransitionMatrix(0);
+    }
+
+    /**
+     * Get the estimated transition matrix, adding pseudocount to every count first
+     * (additive smoothing; 0 gives the maximum likelihood estimate). Rows with no counts at all
+     * are uniform. Every row sums to 1, so the result is accepted by
+     * MarkovChain.isValidTransitionMatrix().
+     * @param pseudocount: the number added to each count; must not be negative.
+     * @return the estimated transition matrix, with rows and columns ordered as getStateLabels().
+     */
+    public FloatMatrix getTransitionMatrix(double pseudocount) {
+        if (pseudocount < 0) {
+            throw new IllegalArgumentException("The pseudocount must not be negative.");
+        }
+        FloatMatrix T = new FloatMatrix(NUM_STATES, NUM_STATES);
+        float[] row = new float[NUM_STATES];
+        for (int i = 0; i < NUM_STATES; ++i) {
+            double total = 0;
+            for (int j = 0; j < NUM_STATES; ++j) {
+                total += counts[i * NUM_STATES + j] + pseudocount;
+            }
+            for (int j = 0; j < NUM_STATES; ++j) {
+                row[j] = total == 0 ? 1.0f / NUM_STATES : (float) ((counts[i * NUM_STATES + j] + pseudocount) / total);
+            }
+            T.setRow(i, row);
+        }
+        return T;
+    }
+
+    /**
+     * Get the heading of a step.
+     * @param dx: the change in x.
+     * @param dy: the change in y.
+     * @return the heading, 0 to 3 in the order of getStateLabels(), or -1 if the step
+     *         is not a single unit step along the lattice.
+     */
+    public static int headingOf(int dx, int dy) {
+        if (dx == 0 && dy == 1) {
+            return 0;
+        } else if (dx == 1 && dy == 0) {
+            return 1;
+        } else if (dx == 0 && dy == -1) {
+            return 2;
+        } else if (dx == -1 && dy == 0) {
+            return 3;
+        }
+        return NO_HEADING;
+    }
+
+}
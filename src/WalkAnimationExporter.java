@@ -0,0 +1,414 @@
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.ImageWriter;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.IndexColorModel;
+import java.awt.image.WritableRaster;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Exports the animation of a walk without any window, either as numbered PNG frames or
+ * as an animated GIF, for when a recording of a WalkFrame is wanted.
+ * Frames look like WalkImageRenderer's image part way through: the same grid, coordinate
+ * transform and segment colors are used. As in WalkCanvas.startAnimation(double, double),
+ * the frame shown after t seconds holds the first 1 + t * segmentsPerSecond segments.
+ *
+ * Frames are drawn incrementally on the calling thread. Copies of them are handed to a pool
+ * of worker threads, which encode them as indexed images: every color a walk is drawn with
+ * fits in one 256 entry palette, so frames are written at one byte per pixel.
+ */
+public class WalkAnimationExporter {
+
+    public static final int DEFAULT_MAX_SIZE = 1024;
+    //Frames waiting to be encoded, per worker thread. Bounds the memory used by copies.
+    private static final int FRAMES_IN_FLIGHT_PER_THREAD = 2;
+    //The background, the grid, then the segment colors.
+    private static final IndexColorModel COLOR_MODEL = _buildColorModel();
+    //Open addressing table from 0xRRGGBB to palette index. No 24 bit color is -1, so it marks empty slots.
+    private static final int LOOKUP_BITS = 10;
+    private static final int[] LOOKUP_COLORS = new int[1 << LOOKUP_BITS];
+    private static final byte[] LOOKUP_INDICES = new byte[1 << LOOKUP_BITS];
+    static {
+        Arrays.fill(LOOKUP_COLORS, -1);
+        for (int i = COLOR_MODEL.getMapSize() - 1; i >= 0; --i) {
+            int rgb = COLOR_MODEL.getRGB(i) & 0xFFFFFF;
+            int h = _lookupSlot(rgb);
+            LOOKUP_COLORS[h] = rgb;
+            LOOKUP_INDICES[h] = (byte) i; //duplicate colors keep their lowest index
+        }
+    }
+
+    private WalkImageRenderer renderer;
+    private double framesPerSecond;
+    private double segmentsPerSecond;
+
+    /**
+     * Construct an exporter with WalkFrame's default padding and scale.
+     * @param framesPerSecond: the frame rate of the exported animation.
+     * @param segmentsPerSecond: the number of segments drawn per second of animation.
+     */
+    public WalkAnimationExporter(double framesPerSecond, double segmentsPerSecond) {
+        this(new Coordinate(WalkFrame.DEFAULT_PADDING, WalkFrame.DEFAULT_PADDING),
+                WalkFrame.DEFAULT_SCALE, DEFAULT_MAX_SIZE, framesPerSecond, segmentsPerSecond);
+    }
+
+    /**
+     * Construct an exporter.
+     * @param padding: the empty border around the grid, in pixels.
+     * @param scale: the preferred number of pixels per lattice unit.
+     * @param maxSize: the largest allowed frame side length; scale is halved, then sites are binned, until the path fits.
+     * @param framesPerSecond: the frame rate of the exported animation.
+     * @param segmentsPerSecond: the number of segments drawn per second of animation.
+     */
+    public WalkAnimationExporter(Coordinate padding, int scale, int maxSize,
+                                 double framesPerSecond, double segmentsPerSecond) {
+        if (!(framesPerSecond > 0) || !(segmentsPerSecond > 0)) {
+            throw new IllegalArgumentException("Frame rate and segment rate must be positive.");
+        }
+        this.renderer = new WalkImageRenderer(padding, scale, maxSize);
+        this.framesPerSecond = framesPerSecond;
+        this.segmentsPerSecond = segmentsPerSecond;
+    }
+
+    /**
+     * Get the number of frames in the animation of a path. The last frame is the first
+     * one showing every segment.
+     * @param path: the walk to animate.
+     * @return the number of frames.
+     */
+    public int getNumFrames(List<Coordinate> path) {
+        int numSegments = Math.max(0, path.size() - 1);
+        if (numSegments <= 1) {
+            return 1;
+        }
+        //Find the first frame k with _segmentsDue(k) == numSegments, correcting for rounding.
+        long k = (long) Math.ceil((numSegments - 1) * framesPerSecond / segmentsPerSecond);
+        while (_segmentsDue(k, numSegments) < numSegments) {
+            ++k;
+        }
+        while (k > 0 && _segmentsDue(k-1, numSegments) >= numSegments) {
+            --k;
+        }
+        if (k >= Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many frames; increase segmentsPerSecond.");
+        }
+        return (int) k + 1;
+    }
+
+    /**
+     * Write every frame of the animation to its own PNG file, named prefix followed by the
+     * six digit frame number, e.g. "frames/walk_000042.png".
+     * @param path: the walk to animate.
+     * @param prefix: the start of each file name, which may include a directory.
+     * @param nThreads: the number of threads encoding frames.
+     * @return the number of frames written.
+     * @throws IOException if a frame could not be written.
+     */
+    public int writePngFrames(List<Coordinate> path, String prefix, int nThreads) throws IOException {
+        return _exportFrames(path, Math.max(1, nThreads), true, (k, frame, changed) -> {
+            String fname = String.format("%s%06d.png", prefix, k);
+            if (!ImageIO.write(frame, "png", new File(fname))) {
+                throw new IOException("No PNG writer is available.");
+            }
+        });
+    }
+
+    /**
+     * Write the animation as one looping animated GIF.
+     * GIF frame delays are whole hundredths of a second, so the frame rate is rounded to fit.
+     * Each frame after the first holds only the rectangle which changed since the one before.
+     * A GIF is one stream which must be written in order, so it is encoded on a single worker
+     * thread while the calling thread draws the frames which follow.
+     * @param path: the walk to animate.
+     * @param fname: the name of the GIF file to write.
+     * @return the number of frames written.
+     * @throws IOException if the file could not be written.
+     */
+    public int writeGif(List<Coordinate> path, String fname) throws IOException {
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName("gif");
+        if (!writers.hasNext()) {
+            throw new IOException("No GIF writer is available.");
+        }
+        ImageWriter writer = writers.next();
+        int delay = (int) Math.max(1, Math.round(100 / framesPerSecond));
+        File file = new File(fname);
+        file.delete(); //the output stream would otherwise leave any old bytes past its end
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(file)) {
+            writer.setOutput(out);
+            writer.prepareWriteSequence(_gifStreamMetadata(writer));
+            int numFrames = _exportFrames(path, 1, false, (k, frame, changed) -> {
+                IIOMetadata meta = _gifFrameMetadata(writer, frame, changed, delay, k == 0);
+                writer.writeToSequence(new IIOImage(frame, null, meta), null);
+            });
+            writer.endWriteSequence();
+            return numFrames;
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    /**
+     * Encodes one frame; called on a worker thread.
+     */
+    private interface FrameEncoder {
+        /**
+         * @param k: the frame number.
+         * @param frame: the pixels in the changed rectangle, owned by the encoder.
+         * @param changed: where frame lies in the full image.
+         */
+        void encode(int k, BufferedImage frame, Rectangle changed) throws IOException;
+    }
+
+    /**
+     * A private helper method which draws the frames of the animation in order and hands a copy
+     * of each to encoder on a pool of nThreads threads. With one thread, frames are encoded in order.
+     * Unless wholeFrames is set, each copy after the first holds only the rectangle changed since the frame before.
+     * @return the number of frames.
+     */
+    private int _exportFrames(List<Coordinate> path, int nThreads, boolean wholeFrames, FrameEncoder encoder) throws IOException {
+        int extents = WalkCanvas._findPathExtends(path);
+        int spp = renderer._sitesPerPixelFor(extents);
+        extents = WalkImageRenderer._binnedExtents(extents, spp);
+        int s = renderer._scaleFor(extents);
+        int size = renderer._sizeFor(extents, s);
+        Coordinate centerPt = new Coordinate(size/2, size/2);
+        int numSegments = Math.max(0, path.size() - 1);
+        int numFrames = getNumFrames(path);
+
+        BufferedImage canvas = new BufferedImage(size, size, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2 = canvas.createGraphics();
+        renderer._drawBackground(g2, size, s);
+
+        ExecutorService pool = Executors.newFixedThreadPool(nThreads);
+        Semaphore inFlight = new Semaphore(FRAMES_IN_FLIGHT_PER_THREAD * nThreads);
+        ArrayList<Future<?>> futures = new ArrayList<>();
+        try {
+            int drawn = 0;
+            Rectangle changed = new Rectangle(0, 0, size, size);
+            for (int k = 0; k < numFrames; ++k) {
+                int due = _segmentsDue(k, numSegments);
+                if (due > drawn) {
+                    WalkImageRenderer._drawSegments(g2, path, drawn + 1, due, s, spp, centerPt);
+                    Rectangle bounds = _segmentBounds(path, drawn + 1, due, s, spp, centerPt).intersection(canvas.getRaster().getBounds());
+                    changed = changed.isEmpty() ? bounds : changed.union(bounds);
+                    drawn = due;
+                }
+                if (wholeFrames) {
+                    changed = new Rectangle(0, 0, size, size);
+                } else if (changed.isEmpty()) {
+                    changed = new Rectangle(0, 0, 1, 1); //a frame needs at least one pixel
+                }
+
+                Rectangle frameRect = changed;
+                int frameNum = k;
+                inFlight.acquire();
+                int[] pixels = (int[]) canvas.getRaster().getDataElements(
+                        frameRect.x, frameRect.y, frameRect.width, frameRect.height, null);
+                futures.add(pool.submit(() -> {
+                    try {
+                        encoder.encode(frameNum, _toIndexed(pixels, frameRect.width, frameRect.height), frameRect);
+                    } finally {
+                        inFlight.release();
+                    }
+                    return null;
+                }));
+                changed = new Rectangle();
+
+                //Check encoded frames as we go, so a failure stops the export early.
+                while (!futures.isEmpty() && futures.get(0).isDone()) {
+                    futures.remove(0).get();
+                }
+            }
+            for (Future<?> f : futures) {
+                f.get();
+            }
+            return numFrames;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new RuntimeException("Encoding an animation frame failed.", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while exporting the animation.", e);
+        } finally {
+            pool.shutdownNow();
+            g2.dispose();
+        }
+    }
+
+    /**
+     * A private helper method giving the number of segments shown in frame k, as WalkCanvas would.
+     */
+    private int _segmentsDue(long k, int numSegments) {
+        if (numSegments == 0) {
+            return 0;
+        }
+        double due = 1 + Math.floor(k * segmentsPerSecond / framesPerSecond);
+        return (int) Math.min(numSegments, due);
+    }
+
+    /**
+     * A private helper method which bounds the pixels touched by the segments ending at path indices first to last.
+     */
+    private static Rectangle _segmentBounds(List<Coordinate> path, int first, int last, int s, int spp, Coordinate centerPt) {
+        int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE;
+        for (int i = first - 1; i <= last; ++i) {
+            Coordinate pt = WalkImageRenderer._toWindowCoords(path.get(i), s, spp, centerPt);
+            minX = Math.min(minX, pt.x);
+            maxX = Math.max(maxX, pt.x);
+            minY = Math.min(minY, pt.y);
+            maxY = Math.max(maxY, pt.y);
+        }
+        //Widen by the stroke, which extends past the end points.
+        int margin = (int) Math.ceil(WalkCanvas.SEGMENT_STROKE.getLineWidth()) + 1;
+        return new Rectangle(minX - margin, minY - margin, maxX - minX + 2*margin + 1, maxY - minY + 2*margin + 1);
+    }
+
+    /**
+     * A private helper method which converts 0xRRGGBB pixels, all drawn in palette colors, into an indexed image.
+     */
+    private static BufferedImage _toIndexed(int[] pixels, int w, int h) {
+        WritableRaster raster = COLOR_MODEL.createCompatibleWritableRaster(w, h);
+        byte[] indices = new byte[pixels.length];
+        int lastRgb = -1;
+        byte lastIndex = 0;
+        for (int p = 0; p < pixels.length; ++p) {
+            int rgb = pixels[p] & 0xFFFFFF;
+            if (rgb != lastRgb) {
+                int slot = _lookupSlot(rgb);
+                if (LOOKUP_COLORS[slot] != rgb) {
+                    throw new IllegalStateException("Color " + Integer.toHexString(rgb) + " is not in the walk palette.");
+                }
+                lastRgb = rgb;
+                lastIndex = LOOKUP_INDICES[slot];
+            }
+            indices[p] = lastIndex;
+        }
+        raster.setDataElements(0, 0, w, h, indices);
+        return new BufferedImage(COLOR_MODEL, raster, false, null);
+    }
+
+    /**
+     * A private helper method which finds the slot of LOOKUP_COLORS holding rgb, or the empty slot where it would go.
+     */
+    private static int _lookupSlot(int rgb) {
+        int mask = (1 << LOOKUP_BITS) - 1;
+        int h = (rgb * 0x9E3779B9) >>> (32 - LOOKUP_BITS);
+        while (LOOKUP_COLORS[h] != -1 && LOOKUP_COLORS[h] != rgb) {
+            h = (h + 1) & mask;
+        }
+        return h;
+    }
+
+    /**
+     * A private helper method which builds the GIF stream metadata, holding the palette as the global color table.
+     */
+    private static IIOMetadata _gifStreamMetadata(ImageWriter writer) throws IOException {
+        IIOMetadata meta = writer.getDefaultStreamMetadata(null);
+        String format = meta.getNativeMetadataFormatName();
+        IIOMetadataNode root = (IIOMetadataNode) meta.getAsTree(format);
+        IIOMetadataNode table = _childNode(root, "GlobalColorTable");
+        //A GIF color table has a power of two entries.
+        int n = Integer.highestOneBit(COLOR_MODEL.getMapSize() - 1) << 1;
+        table.setAttribute("sizeOfGlobalColorTable", Integer.toString(n));
+        table.setAttribute("backgroundColorIndex", "0");
+        table.setAttribute("sortFlag", "FALSE");
+        for (int i = 0; i < n; ++i) {
+            int rgb = i < COLOR_MODEL.getMapSize() ? COLOR_MODEL.getRGB(i) : 0;
+            IIOMetadataNode entry = new IIOMetadataNode("ColorTableEntry");
+            entry.setAttribute("index", Integer.toString(i));
+            entry.setAttribute("red", Integer.toString((rgb >> 16) & 0xFF));
+            entry.setAttribute("green", Integer.toString((rgb >> 8) & 0xFF));
+            entry.setAttribute("blue", Integer.toString(rgb & 0xFF));
+            table.appendChild(entry);
+        }
+        meta.setFromTree(format, root);
+        return meta;
+    }
+
+    /**
+     * A private helper method which builds the GIF metadata for one frame: its delay, position,
+     * and, for the first frame, the extension which makes the animation loop forever.
+     */
+    private static IIOMetadata _gifFrameMetadata(ImageWriter writer, BufferedImage frame, Rectangle changed,
+                                                 int delay, boolean first) throws IOException {
+        IIOMetadata meta = writer.getDefaultImageMetadata(ImageTypeSpecifier.createFromRenderedImage(frame), null);
+        String format = meta.getNativeMetadataFormatName();
+        IIOMetadataNode root = (IIOMetadataNode) meta.getAsTree(format);
+
+        //Drop the writer's default palette, so the frame is written with the global one.
+        root.removeChild(_childNode(root, "LocalColorTable"));
+
+        IIOMetadataNode control = _childNode(root, "GraphicControlExtension");
+        control.setAttribute("disposalMethod", "doNotDispose");
+        control.setAttribute("userInputFlag", "FALSE");
+        control.setAttribute("transparentColorFlag", "FALSE");
+        control.setAttribute("transparentColorIndex", "0");
+        control.setAttribute("delayTime", Integer.toString(delay));
+
+        IIOMetadataNode descriptor = _childNode(root, "ImageDescriptor");
+        descriptor.setAttribute("imageLeftPosition", Integer.toString(changed.x));
+        descriptor.setAttribute("imageTopPosition", Integer.toString(changed.y));
+        descriptor.setAttribute("imageWidth", Integer.toString(changed.width));
+        descriptor.setAttribute("imageHeight", Integer.toString(changed.height));
+        descriptor.setAttribute("interlaceFlag", "FALSE");
+
+        if (first) {
+            IIOMetadataNode loop = new IIOMetadataNode("ApplicationExtension");
+            loop.setAttribute("applicationID", "NETSCAPE");
+            loop.setAttribute("authenticationCode", "2.0");
+            loop.setUserObject(new byte[] {1, 0, 0}); //sub-block 1: loop count 0, i.e. forever
+            _childNode(root, "ApplicationExtensions").appendChild(loop);
+        }
+
+        meta.setFromTree(format, root);
+        return meta;
+    }
+
+    /**
+     * A private helper method which finds the child of a metadata node with the given name, adding it if missing.
+     */
+    private static IIOMetadataNode _childNode(IIOMetadataNode parent, String name) {
+        for (int i = 0; i < parent.getLength(); ++i) {
+            if (parent.item(i).getNodeName().equals(name)) {
+                return (IIOMetadataNode) parent.item(i);
+            }
+        }
+        IIOMetadataNode node = new IIOMetadataNode(name);
+        parent.appendChild(node);
+        return node;
+    }
+
+    private static IndexColorModel _buildColorModel() {
+        int n = 2 + WalkCanvas.COLOR_PERIOD;
+        byte[] r = new byte[n];
+        byte[] g = new byte[n];
+        byte[] b = new byte[n];
+        Color[] fixed = {Color.WHITE, WalkCanvas.GRID_COLOR};
+        for (int i = 0; i < n; ++i) {
+            Color c = i < fixed.length ? fixed[i] : WalkCanvas._getLineSegmentColor(i - fixed.length);
+            r[i] = (byte) c.getRed();
+            g[i] = (byte) c.getGreen();
+            b[i] = (byte) c.getBlue();
+        }
+        return new IndexColorModel(8, n, r, g, b);
+    }
+
+}
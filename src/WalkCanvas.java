@@ -2,7 +2,10 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.image.BufferedImage;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 /**
  * An awt canvas for rendering a walk path on a lattice grid.
@@ -10,8 +13,18 @@ import java.util.ArrayList;
  */
 public class WalkCanvas extends Canvas {
 
+    //Segment colors repeat with this period, so they are computed once up front.
+    static final int COLOR_PERIOD = 200;
+    private static final Color[] PALETTE = _buildPalette();
+    //One stroke shared by every segment drawn, on screen or offscreen.
+    static final BasicStroke SEGMENT_STROKE = new BasicStroke(2);
+    static final Color GRID_COLOR = new Color(200, 200, 200);
+    private static final int LIVE_BATCH_SIZE = 1 << 14;
+    private static final int LIVE_MAX_PER_FRAME = 1 << 20;
+
     private ArrayList<Coordinate> drawCoords;
-    private ArrayList<Color> drawColors;
+    //The walk step each point was reached at, which colors and times the segment ending there.
+    private int[] drawSteps;
     private boolean shouldDrawBGGrid = true;
     private boolean drawBackgroundGrid;
     private int scale;
@@ -19,12 +32,24 @@ public class WalkCanvas extends Canvas {
     private Coordinate centerPt;
     private int lastIdxPainted;
 
+    //Segments are drawn once into this persistent image; painting the canvas only copies it to the screen.
+    private BufferedImage backBuffer;
+    private Graphics2D backGraphics;
+
     private Timer timer;
+    //Live mode: points arrive through a ring buffer while the walk is still being simulated.
+    private CoordinateRingBuffer liveSource;
+    private long[] liveBatch;
+    private Coordinate liveLastPt;
+    private int liveCount;
+    //Animation progress is driven by elapsed time, so dropped frames do not slow playback down.
+    private double segmentsPerSecond;
+    private long animationStart;
 
     public WalkCanvas(Coordinate padding, int scale) {
         super();
         drawCoords = new ArrayList<>();
-        drawColors = new ArrayList<>();
+        drawSteps = new int[16];
         this.scale = scale;
         this.padding = padding;
         this.drawBackgroundGrid = shouldDrawBGGrid;
@@ -33,48 +58,106 @@ public class WalkCanvas extends Canvas {
 
     @Override
     public void paint(Graphics g) {
-        if (drawBackgroundGrid) {
-            this.drawGrid(g);
+        if (backBuffer == null) {
+            //Not yet prepared for a path.
+            if (drawBackgroundGrid) {
+                this.drawGrid(g);
+            }
+            return;
         }
-        //AWT may trigger a paint while timer is running. If so, reset timer paint index.
-        lastIdxPainted = 0;
 
-        if (timer != null && !timer.isRunning()) {
-            this.connectTheDots(g);
+        //While animating, the timer decides when segments are added to the back buffer.
+        if (timer == null || !timer.isRunning()) {
+            this.connectTheDots();
         }
+        g.drawImage(backBuffer, 0, 0, null);
     }
 
     @Override
     public void update(Graphics g) {
-        super.update(g); //clears contents of this component
+        //The back buffer covers the whole canvas, so there is no need to clear it first.
         drawBackgroundGrid = shouldDrawBGGrid;
-        lastIdxPainted = 0;
+        paint(g);
     }
 
     public void paintNewPoints() {
+        //Draw every segment due by now in one batch; the first is due as soon as the animation starts.
+        //Segments are due by the step they end at, so merged straight runs take as long as their steps.
+        double elapsed = (System.nanoTime() - animationStart) / 1e9;
+        long first = drawCoords.size() < 2 ? 0 : drawSteps[1];
+        long due = first + (long) (elapsed * segmentsPerSecond);
+        int prevIdxPainted = lastIdxPainted;
+        int last = lastIdxPainted;
+        while (last + 1 < drawCoords.size() && drawSteps[last + 1] <= due) {
+            ++last;
+        }
+        _drawSegmentsUpTo(last);
+
         Graphics g = this.getGraphics();
-        int N = Math.min(drawCoords.size(), lastIdxPainted + 2);
-        for (int i = lastIdxPainted+1; i < N; ++i) {
-            _drawLineSegment(g, i);
+        if (g != null && backBuffer != null && lastIdxPainted != prevIdxPainted) {
+            g.drawImage(backBuffer, 0, 0, null);
+            g.dispose();
         }
-        lastIdxPainted = N-1;
 
-        if (lastIdxPainted+1 == drawCoords.size()) {
+        if (lastIdxPainted+1 >= drawCoords.size()) {
             timer.stop();
         }
     }
 
-    private void connectTheDots(Graphics graphics) {
-        if (drawCoords.size() < 2) {
+    //Draw every segment not yet in the back buffer.
+    private void connectTheDots() {
+        _drawSegmentsUpTo(drawCoords.size() - 1);
+    }
+
+    //Draw the segments ending at points lastIdxPainted+1 to last, inclusive, into the back buffer.
+    private void _drawSegmentsUpTo(int last) {
+        if (backGraphics == null) {
             return;
         }
+        int N = Math.min(last, drawCoords.size() - 1);
+        for (int i = lastIdxPainted+1; i <= N; ++i) {
+            _drawLineSegment(backGraphics, i);
+        }
+        if (N > lastIdxPainted) {
+            lastIdxPainted = N;
+        }
+    }
+
+    //Allocate the back buffer for the current canvas size and draw the background into it.
+    private void _resetBackBuffer() {
+        int w = Math.max(1, this.getWidth());
+        int h = Math.max(1, this.getHeight());
+        if (backBuffer == null || backBuffer.getWidth() != w || backBuffer.getHeight() != h) {
+            if (backGraphics != null) {
+                backGraphics.dispose();
+            }
+            backBuffer = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+            backGraphics = backBuffer.createGraphics();
+            backGraphics.setStroke(SEGMENT_STROKE);
+        }
+        Color bg = this.getBackground();
+        backGraphics.setColor(bg != null ? bg : Color.WHITE);
+        backGraphics.fillRect(0, 0, w, h);
+        if (drawBackgroundGrid) {
+            this.drawGrid(backGraphics);
+        }
+        lastIdxPainted = 0;
+    }
+
+    //Shared with the offscreen renderers so every view of a walk uses the same colors.
+    static Color _getLineSegmentColor(int i) {
+        return PALETTE[Math.floorMod(i, COLOR_PERIOD)];
+    }
 
-        for (int i = 1; i < drawCoords.size(); ++i) {
-            _drawLineSegment(graphics, i);
+    private static Color[] _buildPalette() {
+        Color[] palette = new Color[COLOR_PERIOD];
+        for (int i = 0; i < COLOR_PERIOD; ++i) {
+            palette[i] = _computeLineSegmentColor(i);
         }
+        return palette;
     }
 
-    private Color _getLineSegmentColor(int i) {
+    private static Color _computeLineSegmentColor(int i) {
         int r = 0;
         int g = 0;
         int b = 0;
@@ -104,17 +187,24 @@ public class WalkCanvas extends Canvas {
         }
 
         Graphics2D g2 = (Graphics2D) graphics;
-        g2.setStroke(new BasicStroke(2));
-        g2.setColor(drawColors.get(i));
+        g2.setColor(_getLineSegmentColor(drawSteps[i]));
         Coordinate prevPt = drawCoords.get(i-1);
         Coordinate curPt = drawCoords.get(i);
+        if (prevPt == null || curPt == null) {
+            return; //a break in the path, see PathDecimator
+        }
         g2.drawLine(prevPt.x, prevPt.y, curPt.x, curPt.y);
     }
 
     public void drawGrid(Graphics g) {
-        g.setColor(new Color(200, 200, 200));
-        int w = this.getWidth() - padding.x;
-        int h = this.getHeight() - padding.y;
+        _drawGrid(g, this.getWidth(), this.getHeight(), padding, scale);
+    }
+
+    //Draw the lattice grid for a width x height drawing area.
+    static void _drawGrid(Graphics g, int width, int height, Coordinate padding, int scale) {
+        g.setColor(GRID_COLOR);
+        int w = width - padding.x;
+        int h = height - padding.y;
         for (int i = padding.x; i <= w; i += scale) {
             g.drawLine(i, padding.y, i, h);
         }
@@ -123,29 +213,56 @@ public class WalkCanvas extends Canvas {
         }
     }
 
+    //A null point breaks the path: no segment is drawn to or from it.
     public void addPoint(Coordinate pt) {
-        this.drawCoords.add(_centeredCoordsToWindowCoords(pt));
-        this.drawColors.add(_getLineSegmentColor(drawCoords.size()-1));
+        addPoint(pt, drawCoords.size());
+    }
+
+    //Add a point reached at the given walk step; steps must not decrease along the path.
+    public void addPoint(Coordinate pt, int step) {
+        if (drawCoords.size() == drawSteps.length) {
+            drawSteps = Arrays.copyOf(drawSteps, 2 * drawSteps.length);
+        }
+        drawSteps[drawCoords.size()] = step;
+        this.drawCoords.add(pt == null ? null : _centeredCoordsToWindowCoords(pt));
+    }
+
+    public int getNumSegments() {
+        return Math.max(0, drawCoords.size() - 1);
+    }
+
+    //The number of walk steps the segments cover, which sets how long they take to animate.
+    public int getNumSteps() {
+        return drawCoords.size() < 2 ? 0 : drawSteps[drawCoords.size() - 1] - drawSteps[0];
     }
 
     public void clearPoints() {
         this.drawCoords.clear();
-        this.drawColors.clear();
         this.lastIdxPainted = 0;
+        if (backBuffer != null) {
+            _resetBackBuffer();
+        }
     }
 
     private Coordinate _centeredCoordsToWindowCoords(Coordinate coord) {
-        Coordinate ret = coord.scale(this.scale);
+        return _centeredCoordsToWindowCoords(coord, this.scale, this.centerPt);
+    }
+
+    static Coordinate _centeredCoordsToWindowCoords(Coordinate coord, int scale, Coordinate centerPt) {
+        Coordinate ret = coord.scale(scale);
         ret.y = ret.y*-1; //need to flip y around since, Window coords has positive y-axis pointing down
-        ret = ret.add(this.centerPt);
+        ret = ret.add(centerPt);
 
         return ret;
     }
 
-    private int _findPathExtends(ArrayList<Coordinate> path) {
+    static int _findPathExtends(List<Coordinate> path) {
         int max = 0;
         int ax, ay;
         for (Coordinate coord : path) {
+            if (coord == null) {
+                continue;
+            }
             ax = Math.abs(coord.x);
             ay = Math.abs(coord.y);
             if (ax > max) {
@@ -158,30 +275,41 @@ public class WalkCanvas extends Canvas {
         return max;
     }
 
-    public void prepareCanvas(ArrayList<Coordinate> path) {
-        int max = _findPathExtends(path);
-        max *= this.scale;
+    //Side length of a square drawing area which holds a path of the given extents, centered, on whole grid cells.
+    static int _canvasSizeFor(int extents, Coordinate padding, int scale, Dimension minSize) {
+        int max = extents * scale;
 
         int maxPadding = Math.max(padding.x, padding.y);
         max += maxPadding;
         max *= 2; //to center the path on canvas
 
-        if (max < this.getMinimumSize().width) {
-            max = this.getMinimumSize().width;
+        if (max < minSize.width) {
+            max = minSize.width;
         }
-        if (max < this.getMinimumSize().height) {
-            max = this.getMinimumSize().height;
+        if (max < minSize.height) {
+            max = minSize.height;
         }
 
         while ((max-2*maxPadding) % scale != 0) {
             ++max;
         }
+        return max;
+    }
+
+    public void prepareCanvas(ArrayList<Coordinate> path) {
+        prepareCanvas(_findPathExtends(path));
+    }
+
+    //Size the canvas for a path whose coordinates lie within [-extents, extents].
+    public void prepareCanvas(int extents) {
+        int max = _canvasSizeFor(extents, padding, scale, this.getMinimumSize());
 
         Dimension screenDim = this.getToolkit().getScreenSize();
         int screenSize = Math.min(screenDim.width, screenDim.height);
-        if (max > screenSize) {
+        if (max > screenSize && this.scale > 1) {
             //If extents are too big for screen, adjust scale and try again.
-            prepareCanvas(path, this.padding, this.scale/2);
+            this.scale /= 2;
+            prepareCanvas(extents);
             return;
         }
 
@@ -189,6 +317,7 @@ public class WalkCanvas extends Canvas {
         this.centerPt = new Coordinate(max/2, max/2);
 
         this.clearPoints();
+        _resetBackBuffer();
 
     }
 
@@ -198,8 +327,76 @@ public class WalkCanvas extends Canvas {
         prepareCanvas(path);
     }
 
+    //Each frame, draw whatever points have arrived from source since the last frame.
+    //The canvas should first be prepared for the expected extents; points beyond them are clipped.
+    public void startLiveAnimation(CoordinateRingBuffer source, double framesPerSecond) {
+        if (timer != null) {
+            timer.stop();
+        }
+        this.clearPoints();
+        this.liveSource = source;
+        this.liveBatch = new long[LIVE_BATCH_SIZE];
+        this.liveLastPt = null;
+        this.liveCount = 0;
+        int frameDelay = (int) Math.max(1, Math.round(1000.0 / framesPerSecond));
+        timer = new Timer(frameDelay, null);
+        WalkCanvas localCanvas = this;
+        timer.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                localCanvas.paintLivePoints();
+            }
+        });
+        timer.start();
+    }
+
+    public void paintLivePoints() {
+        //Stop after a bounded amount of work so the frame rate holds even if the walker is faster.
+        int polled = 0;
+        int n;
+        while (backGraphics != null && polled < LIVE_MAX_PER_FRAME && (n = liveSource.poll(liveBatch)) > 0) {
+            for (int k = 0; k < n; ++k) {
+                long val = liveBatch[k];
+                if (val == CoordinateRingBuffer.BREAK) {
+                    liveLastPt = null;
+                    continue;
+                }
+                Coordinate curPt = _centeredCoordsToWindowCoords(new Coordinate(
+                        CoordinateRingBuffer.unpackX(val), CoordinateRingBuffer.unpackY(val)));
+                if (liveLastPt != null) {
+                    backGraphics.setColor(_getLineSegmentColor(liveCount));
+                    backGraphics.drawLine(liveLastPt.x, liveLastPt.y, curPt.x, curPt.y);
+                }
+                liveLastPt = curPt;
+                ++liveCount;
+            }
+            polled += n;
+        }
+
+        Graphics g = this.getGraphics();
+        if (g != null && backBuffer != null && polled > 0) {
+            g.drawImage(backBuffer, 0, 0, null);
+            g.dispose();
+        }
+
+        if (liveSource.isFinished()) {
+            timer.stop();
+        }
+    }
+
+    //Animate one segment every stepDuration milliseconds.
     public void startAnimation(int stepDuration) {
-        timer = new Timer(stepDuration, null);
+        startAnimation(1000.0 / Math.max(1, stepDuration), 1000.0 / Math.max(1, stepDuration));
+    }
+
+    //Animate at a fixed frame rate, drawing all segments due at segmentsPerSecond in each frame.
+    public void startAnimation(double framesPerSecond, double segmentsPerSecond) {
+        if (timer != null) {
+            timer.stop();
+        }
+        int frameDelay = (int) Math.max(1, Math.round(1000.0 / framesPerSecond));
+        this.segmentsPerSecond = segmentsPerSecond;
+        timer = new Timer(frameDelay, null);
         WalkCanvas localCanvas = this;
         timer.addActionListener(new ActionListener() {
             @Override
@@ -207,7 +404,11 @@ public class WalkCanvas extends Canvas {
                 localCanvas.paintNewPoints();
             }
         });
+        if (backBuffer != null) {
+            _resetBackBuffer(); //start from an empty grid even if the path was already painted
+        }
         lastIdxPainted = 0;
+        animationStart = System.nanoTime();
         timer.start();
     }
 
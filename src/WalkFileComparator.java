@@ -0,0 +1,101 @@
+import java.io.FileNotFoundException;
+import java.io.IOException;
+
+/**
+ * A class for checking one walk file against another, for example a new run against
+ * one of the gold walks in test_cases.
+ * Both files are streamed side by side with WalkFileReader, so the comparison uses
+ * constant memory however long the walks are. Either file may be a ".txt" or ".dat" file.
+ */
+public class WalkFileComparator {
+
+    private String firstFile;
+    private String secondFile;
+    private long divergenceIdx;
+    private Coordinate firstCoord;
+    private Coordinate secondCoord;
+
+    /**
+     * Construct a WalkFileComparator for two walk files.
+     * @param firstFile: the name of the first walk file (e.g. the expected walk).
+     * @param secondFile: the name of the second walk file (e.g. the actual walk).
+     */
+    public WalkFileComparator(String firstFile, String secondFile) {
+        this.firstFile = firstFile;
+        this.secondFile = secondFile;
+        this.divergenceIdx = -1;
+        this.firstCoord = null;
+        this.secondCoord = null;
+    }
+
+    /**
+     * Compare the two walk files coordinate by coordinate, stopping at the first difference.
+     * If one walk is a prefix of the other, they diverge at the index of the first
+     * coordinate missing from the shorter walk.
+     * @return true if and only if both files encode the same walk.
+     * @throws FileNotFoundException if either file cannot be opened
+     * @throws IOException if either file cannot be read
+     * @throws RuntimeException if either file is not a valid walk file
+     */
+    public boolean compare() throws IOException, RuntimeException {
+        divergenceIdx = -1;
+        firstCoord = null;
+        secondCoord = null;
+
+        try (WalkFileReader first = new WalkFileReader(firstFile);
+             WalkFileReader second = new WalkFileReader(secondFile)) {
+            Coordinate a = new Coordinate(0, 0);
+            Coordinate b = new Coordinate(0, 0);
+            long idx = 0;
+            while (true) {
+                boolean hasA = first.readNext(a);
+                boolean hasB = second.readNext(b);
+                if (!hasA && !hasB) {
+                    return true;
+                }
+                if (hasA != hasB || a.x != b.x || a.y != b.y) {
+                    divergenceIdx = idx;
+                    firstCoord = hasA ? a : null;
+                    secondCoord = hasB ? b : null;
+                    return false;
+                }
+                ++idx;
+            }
+        }
+    }
+
+    /**
+     * Get the index, within the walks, of the first coordinate at which they differ.
+     * @return the index of the first divergence, or -1 if the last compare() found no divergence.
+     */
+    public long getDivergenceIndex() {
+        return divergenceIdx;
+    }
+
+    /**
+     * Get the first walk's coordinate at the first divergence.
+     * @return the coordinate, or null if there was no divergence or the first walk had already ended.
+     */
+    public Coordinate getFirstCoordinate() {
+        return firstCoord;
+    }
+
+    /**
+     * Get the second walk's coordinate at the first divergence.
+     * @return the coordinate, or null if there was no divergence or the second walk had already ended.
+     */
+    public Coordinate getSecondCoordinate() {
+        return secondCoord;
+    }
+
+    @Override
+    public String toString() {
+        if (divergenceIdx < 0) {
+            return firstFile + " and " + secondFile + " do not diverge.";
+        }
+        return firstFile + " and " + secondFile + " diverge at step " + divergenceIdx + ": "
+                + (firstCoord == null ? "end of walk" : firstCoord.toString()) + " vs "
+                + (secondCoord == null ? "end of walk" : secondCoord.toString());
+    }
+
+}
@@ -0,0 +1,146 @@
+import java.io.Closeable;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * A class for reading back, one coordinate at a time, the walk files written by
+ * the saveWalkToFile() methods of the walkers.
+ * A ".txt" file lists one "(x, y)" coordinate per line and a ".dat" file lists
+ * the coordinates as a stream of integers "x y x y ...".
+ * Only a small fixed-size buffer is held in memory, regardless of the length of the walk.
+ */
+public class WalkFileReader implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private String fname;
+    private InputStream in;
+    private byte[] buffer;
+    private int bufPos;
+    private int bufLen;
+    private long numRead;
+
+    /**
+     * Open a walk file for reading.
+     * @param fname: the name of the walk file, ending in ".txt" or ".dat".
+     * @throws FileNotFoundException if the file at path fname cannot be opened
+     * @throws IllegalArgumentException if the file name has an unsupported extension.
+     */
+    public WalkFileReader(String fname) throws FileNotFoundException {
+        if (!fname.endsWith(".dat") && !fname.endsWith(".txt")) {
+            throw new IllegalArgumentException("Unsupported file format. Please use .dat or .txt extension.");
+        }
+        this.fname = fname;
+        this.in = new FileInputStream(fname);
+        this.buffer = new byte[BUFFER_SIZE];
+        this.bufPos = 0;
+        this.bufLen = 0;
+        this.numRead = 0;
+    }
+
+    /**
+     * Read the next coordinate of the walk into coord.
+     * If the end of the file has been reached, coord is left unchanged and false is returned.
+     * @param coord: the Coordinate to overwrite with the next coordinate of the walk.
+     * @return true if and only if a coordinate was read.
+     * @throws IOException if the file could not be read
+     * @throws RuntimeException if the file is not a valid walk file
+     */
+    public boolean readNext(Coordinate coord) throws IOException, RuntimeException {
+        if (!_skipSeparators()) {
+            return false;
+        }
+        int x = _readInt();
+        if (!_skipSeparators()) {
+            throw new RuntimeException("Malformed walk file " + fname + ". Coordinate " + numRead + " is missing its y value.");
+        }
+        int y = _readInt();
+        coord.x = x;
+        coord.y = y;
+        ++numRead;
+        return true;
+    }
+
+    /**
+     * Get the number of coordinates read from the file so far.
+     * @return the number of coordinates read.
+     */
+    public long getNumRead() {
+        return numRead;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    /**
+     * A private helper method which makes sure there is at least one unread byte in the buffer.
+     * @return false if and only if the end of the file has been reached.
+     * @throws IOException if the file could not be read
+     */
+    private boolean _fill() throws IOException {
+        while (bufPos == bufLen) {
+            bufLen = in.read(buffer);
+            bufPos = 0;
+            if (bufLen < 0) {
+                bufLen = 0;
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * A private helper method which skips the whitespace and punctuation surrounding
+     * the integers of a walk file.
+     * @return false if and only if the end of the file has been reached.
+     * @throws IOException if the file could not be read
+     */
+    private boolean _skipSeparators() throws IOException {
+        while (_fill()) {
+            byte b = buffer[bufPos];
+            if (b == '(' || b == ')' || b == ',' || b == ' ' || b == '\n' || b == '\r' || b == '\t') {
+                ++bufPos;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A private helper method which parses one, possibly negative, integer at the current position.
+     * @return the parsed integer.
+     * @throws IOException if the file could not be read
+     * @throws RuntimeException if there is no valid integer at the current position.
+     */
+    private int _readInt() throws IOException, RuntimeException {
+        boolean negative = false;
+        if (buffer[bufPos] == '-') {
+            negative = true;
+            ++bufPos;
+        }
+        long val = 0;
+        int digits = 0;
+        while (_fill()) {
+            byte b = buffer[bufPos];
+            if (b < '0' || b > '9') {
+                break;
+            }
+            val = val*10 + (b - '0');
+            if (val > (long) Integer.MAX_VALUE + 1) {
+                throw new RuntimeException("Malformed walk file " + fname + ". Coordinate " + numRead + " is out of range.");
+            }
+            ++digits;
+            ++bufPos;
+        }
+        if (digits == 0 || (!negative && val > Integer.MAX_VALUE)) {
+            throw new RuntimeException("Malformed walk file " + fname + ". Coordinate " + numRead + " is not an integer pair.");
+        }
+        return (int) (negative ? -val : val);
+    }
+
+}
@@ -11,6 +11,9 @@ public class WalkFrame extends Frame {
     public static final int DEFAULT_SIZE = 500;
     public static final int DEFAULT_SCALE = 15;
     public static final int DEFAULT_PADDING = 20;
+    public static final int ANIMATION_FPS = 60;
+    //Paths with more segments than this are decimated even if they fit on screen.
+    public static final int MAX_SEGMENTS = 1 << 18;
 
     private WalkCanvas canvas;
 
@@ -40,25 +43,57 @@ public class WalkFrame extends Frame {
     }
 
     public void setPath (ArrayList<Coordinate> path) {
-        this.canvas.prepareCanvas(path);
-        this.pack();
-        for (Coordinate coord : path) {
-            this.canvas.addPoint((coord));
-        }
+        _prepareLevelOfDetail(path);
     }
 
     public void animatePath(ArrayList<Coordinate> coords, int stepDuration) {
-        this.canvas.prepareCanvas(coords);
+        animatePath(coords, stepDuration, Integer.MAX_VALUE);
+    }
+
+    //Animate one segment every stepDuration ms, sped up if needed to finish within maxDuration ms.
+    //Frames are drawn at ANIMATION_FPS, each with every segment due by then.
+    public void animatePath(ArrayList<Coordinate> coords, int stepDuration, int maxDuration) {
+        _prepareLevelOfDetail(coords);
+        if (this.canvas.getNumSegments() < 1) {
+            return;
+        }
+
+        double segmentsPerSecond = 1000.0 / Math.max(1, stepDuration);
+        segmentsPerSecond = Math.max(segmentsPerSecond, 1000.0 * this.canvas.getNumSteps() / Math.max(1, maxDuration));
+        this.canvas.startAnimation(ANIMATION_FPS, segmentsPerSecond);
+    }
+
+    //Show a walk while it is simulated: the walker publishes its points to source.
+    public void animateLive(CoordinateRingBuffer source, int expectedExtents) {
+        this.canvas.prepareCanvas(expectedExtents);
         this.pack();
-        if (coords.size() < 2) {
+        this.canvas.startLiveAnimation(source, ANIMATION_FPS);
+    }
+
+    //Prepare the canvas for the path and add its points, each with the step it was reached at.
+    //Only a path wider than the screen or longer than MAX_SEGMENTS is reduced to what can be seen,
+    //so at most O(pixels) segments reach the canvas; others are drawn step by step.
+    private void _prepareLevelOfDetail(ArrayList<Coordinate> path) {
+        Dimension screenDim = this.getToolkit().getScreenSize();
+        int maxPixels = Math.min(screenDim.width, screenDim.height) - 2*DEFAULT_PADDING;
+        int sitesPerPixel = PathDecimator.sitesPerPixelFor(WalkCanvas._findPathExtends(path), maxPixels);
+        if (sitesPerPixel == 1 && path.size() - 1 <= MAX_SEGMENTS) {
+            this.canvas.prepareCanvas(path);
+            this.pack();
+            for (Coordinate coord : path) {
+                this.canvas.addPoint(coord);
+            }
             return;
         }
 
-        int N = coords.size();
-        for (int i = 0; i < N; ++i) {
-            this.canvas.addPoint((coords.get(i)));
+        PathDecimator decimator = new PathDecimator(sitesPerPixel);
+        ArrayList<Coordinate> drawPath = decimator.decimate(path);
+        int[] steps = decimator.getStepIndices();
+        this.canvas.prepareCanvas(drawPath);
+        this.pack();
+        for (int i = 0; i < drawPath.size(); ++i) {
+            this.canvas.addPoint(drawPath.get(i), steps[i]);
         }
-        this.canvas.startAnimation(stepDuration);
     }
 
     @Override
@@ -0,0 +1,133 @@
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Renders a walk as a density heatmap: how often each lattice site was visited.
+ * This stays readable, and fast, for walks far too long to draw segment by segment.
+ * Visits are counted into an int grid in one pass over the path and the counts are
+ * tone-mapped on a log scale straight into the image pixels, so the cost is
+ * O(points + pixels) and no Graphics drawing calls are made.
+ */
+public class WalkHeatmapRenderer {
+
+    public static final int DEFAULT_MAX_SIZE = 4096;
+    public static final int BACKGROUND_RGB = 0xFFFFFF;
+    /* The colors for the least and most visited sites; counts in between are blended via MID_RGB. */
+    public static final int LOW_RGB = 0xB4DCFF;
+    public static final int MID_RGB = 0x00A078;
+    public static final int HIGH_RGB = 0x002800;
+
+    private int scale;
+    private int maxSize;
+
+    /**
+     * Construct a heatmap renderer with WalkFrame's default scale.
+     */
+    public WalkHeatmapRenderer() {
+        this(WalkFrame.DEFAULT_SCALE, DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * Construct a heatmap renderer.
+     * @param scale: the largest number of pixels used for one lattice site.
+     * @param maxSize: the largest allowed image side length. If the walk spans more sites
+     *                 than this, neighbouring sites are binned into one pixel.
+     */
+    public WalkHeatmapRenderer(int scale, int maxSize) {
+        this.scale = Math.max(1, scale);
+        this.maxSize = Math.max(1, maxSize);
+    }
+
+    /**
+     * Render the visit density of a path into a new square image centered on the origin.
+     * @param path: the walk to render.
+     * @return the rendered image.
+     */
+    public BufferedImage render(List<Coordinate> path) {
+        //Lattice sites -extents..extents along each axis, like WalkCanvas which centers the origin.
+        int extents = WalkCanvas._findPathExtends(path);
+        long span = 2L * extents + 1;
+
+        //Either several pixels per site, or several sites per pixel.
+        int pixelsPerSite = (int) Math.max(1, Math.min(scale, maxSize / span));
+        int sitesPerPixel = (int) ((span + maxSize - 1) / maxSize);
+        int cells = (int) ((span + sitesPerPixel - 1) / sitesPerPixel);
+
+        int[] counts = new int[cells * cells];
+        int max = 0;
+        for (Coordinate coord : path) {
+            int cx = (coord.x + extents) / sitesPerPixel;
+            int cy = (extents - coord.y) / sitesPerPixel; //flip y, window y-axis points down
+            int c = ++counts[cy * cells + cx];
+            if (c > max) {
+                max = c;
+            }
+        }
+
+        int size = cells * pixelsPerSite;
+        BufferedImage img = new BufferedImage(size, size, BufferedImage.TYPE_INT_RGB);
+        int[] pixels = ((DataBufferInt) img.getRaster().getDataBuffer()).getData();
+        double logMax = Math.log1p(max);
+        for (int cy = 0; cy < cells; ++cy) {
+            for (int cx = 0; cx < cells; ++cx) {
+                int c = counts[cy * cells + cx];
+                int rgb = (c == 0) ? BACKGROUND_RGB : _toneMap(Math.log1p(c) / logMax);
+                int rowStart = cy * pixelsPerSite * size + cx * pixelsPerSite;
+                for (int py = 0; py < pixelsPerSite; ++py) {
+                    int p = rowStart + py * size;
+                    for (int px = 0; px < pixelsPerSite; ++px) {
+                        pixels[p + px] = rgb;
+                    }
+                }
+            }
+        }
+        return img;
+    }
+
+    /**
+     * Render the visit density of a path and save it as a PNG file.
+     * @param path: the walk to render.
+     * @param fname: the name of the PNG file to write.
+     * @throws IOException if the file could not be written.
+     */
+    public void writePng(List<Coordinate> path, String fname) throws IOException {
+        BufferedImage img = render(path);
+        if (!ImageIO.write(img, "png", new File(fname))) {
+            throw new IOException("No PNG writer is available.");
+        }
+    }
+
+    /**
+     * A private helper method mapping a normalized log density to a color.
+     * @param t: the normalized density, in (0,1].
+     * @return the packed RGB color.
+     */
+    private static int _toneMap(double t) {
+        if (t < 0.5) {
+            return _blend(LOW_RGB, MID_RGB, 2*t);
+        }
+        return _blend(MID_RGB, HIGH_RGB, 2*t - 1);
+    }
+
+    /**
+     * A private helper method linearly interpolating two packed RGB colors.
+     * @param from: the color at t = 0.
+     * @param to: the color at t = 1.
+     * @param t: the interpolation parameter in [0,1].
+     * @return the packed RGB color.
+     */
+    private static int _blend(int from, int to, double t) {
+        int rgb = 0;
+        for (int shift = 16; shift >= 0; shift -= 8) {
+            int a = (from >> shift) & 0xFF;
+            int b = (to >> shift) & 0xFF;
+            rgb |= ((int) Math.round(a + (b - a) * t)) << shift;
+        }
+        return rgb;
+    }
+
+}
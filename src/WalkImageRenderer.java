@@ -0,0 +1,312 @@
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Renders a whole walk path into an image without any window, so walks can be
+ * drawn on machines without a display (run with -Djava.awt.headless=true).
+ * The image looks like a finished WalkCanvas: the same grid, coordinate transform
+ * and segment colors are used.
+ *
+ * Images are never larger than maxSize pixels a side. A path too wide to fit even at one
+ * pixel per lattice unit is binned, as PathDecimator does: sitesPerPixel x sitesPerPixel
+ * blocks of lattice sites share a pixel.
+ */
+public class WalkImageRenderer {
+
+    public static final int DEFAULT_MAX_SIZE = 4096;
+    //Grid lines closer together than this many pixels would just smear the image.
+    public static final int MIN_GRID_SCALE = 4;
+    //Below this many segments per thread, drawing in parallel costs more than it saves.
+    public static final int MIN_SEGMENTS_PER_THREAD = 10000;
+    //The image is split into this many horizontal bands per thread, so busy bands can be balanced.
+    private static final int BANDS_PER_THREAD = 4;
+
+    private Coordinate padding;
+    private int scale;
+    private int maxSize;
+
+    /**
+     * Construct a renderer with WalkFrame's default padding and scale.
+     */
+    public WalkImageRenderer() {
+        this(new Coordinate(WalkFrame.DEFAULT_PADDING, WalkFrame.DEFAULT_PADDING),
+                WalkFrame.DEFAULT_SCALE, DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * Construct a renderer.
+     * @param padding: the empty border around the grid, in pixels.
+     * @param scale: the preferred number of pixels per lattice unit.
+     * @param maxSize: the largest allowed image side length; scale is halved, then sites are binned, until the path fits.
+     */
+    public WalkImageRenderer(Coordinate padding, int scale, int maxSize) {
+        this.padding = padding;
+        this.scale = Math.max(1, scale);
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Draw the path into a new square image.
+     * If the path does not fit within maxSize pixels at the preferred scale, the scale is
+     * halved until it does, or until it reaches one pixel per lattice unit. Past that, several
+     * lattice sites are binned into each pixel.
+     * @param path: the walk to draw.
+     * @return the rendered image.
+     */
+    public BufferedImage render(List<Coordinate> path) {
+        return render(path, 1);
+    }
+
+    /**
+     * Draw the path into a new square image using nThreads threads.
+     * The image is split into horizontal bands of rows, and each band is drawn by one thread,
+     * straight into the image: the segments crossing the band, found in one pass over the path,
+     * are drawn in path order, clipped to the band. Bands share no pixels, so the image is exactly
+     * that of a single-threaded render.
+     * @param path: the walk to draw.
+     * @param nThreads: the number of threads to draw with.
+     * @return the rendered image.
+     */
+    public BufferedImage render(List<Coordinate> path, int nThreads) {
+        int extents = WalkCanvas._findPathExtends(path);
+        int spp = _sitesPerPixelFor(extents);
+        extents = _binnedExtents(extents, spp);
+        int s = _scaleFor(extents);
+        int size = _sizeFor(extents, s);
+        Coordinate centerPt = new Coordinate(size/2, size/2);
+
+        BufferedImage img = new BufferedImage(size, size, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2 = img.createGraphics();
+        _drawBackground(g2, size, s);
+
+        int numSegments = path.size() - 1;
+        int nTasks = Math.max(1, Math.min(nThreads, numSegments / MIN_SEGMENTS_PER_THREAD));
+        if (nTasks == 1) {
+            _drawSegments(g2, path, 1, numSegments, s, spp, centerPt);
+        } else {
+            _renderBands(img, path, nTasks, s, spp, centerPt);
+        }
+        g2.dispose();
+        return img;
+    }
+
+    /**
+     * A helper method which finds the number of lattice sites binned into each pixel, along
+     * each axis, so that a path with the given extents fits within maxSize pixels at one pixel
+     * per lattice unit. This is 1 unless the path is very wide.
+     */
+    int _sitesPerPixelFor(int extents) {
+        int maxPadding = Math.max(padding.x, padding.y);
+        long fits = Math.max(1, maxSize / 2 - maxPadding); //the widest extents drawn unbinned
+        return (int) Math.max(1, ((long) extents + fits - 1) / fits);
+    }
+
+    /**
+     * A helper method giving the extents of a path, in pixels at scale 1, once sitesPerPixel sites share a pixel.
+     */
+    static int _binnedExtents(int extents, int sitesPerPixel) {
+        return (int) (((long) extents + sitesPerPixel - 1) / sitesPerPixel);
+    }
+
+    /**
+     * A helper method which finds the scale a path with the given extents is drawn at:
+     * the preferred scale, halved until the image fits within maxSize pixels or reaches one pixel per lattice unit.
+     */
+    int _scaleFor(int extents) {
+        int s = this.scale;
+        while (_sizeFor(extents, s) > maxSize && s > 1) {
+            s /= 2;
+        }
+        return s;
+    }
+
+    /**
+     * A helper method which finds the side length of the image for a path with the given extents drawn at scale s.
+     */
+    int _sizeFor(int extents, int s) {
+        int min = Math.min(WalkFrame.DEFAULT_SIZE, maxSize);
+        Dimension minSize = new Dimension(min, min);
+        return WalkCanvas._canvasSizeFor(extents, padding, s, minSize);
+    }
+
+    /**
+     * A helper method which clears a size x size image and draws the grid, when it is coarse enough to see.
+     */
+    void _drawBackground(Graphics2D g2, int size, int s) {
+        g2.setColor(Color.WHITE);
+        g2.fillRect(0, 0, size, size);
+        if (s >= MIN_GRID_SCALE) {
+            WalkCanvas._drawGrid(g2, size, size, padding, s);
+        }
+    }
+
+    /**
+     * A private helper method which draws the path into horizontal bands of img, in parallel.
+     * The path is mapped to pixels once, and each segment is assigned to the bands it may touch,
+     * so each thread draws only its own bands' segments. Each band is a view of img's own pixels,
+     * so threads write to disjoint rows.
+     */
+    private void _renderBands(BufferedImage img, List<Coordinate> path, int nTasks, int s, int spp, Coordinate centerPt) {
+        int size = img.getHeight();
+        int nBands = Math.min(size, nTasks * BANDS_PER_THREAD);
+        int[] xs = new int[path.size()];
+        int[] ys = new int[path.size()];
+        _toWindowCoords(path, s, spp, centerPt, xs, ys);
+        int[][] bands = _segmentsByBand(ys, size, nBands);
+        ExecutorService pool = Executors.newFixedThreadPool(nTasks);
+        try {
+            ArrayList<Future<?>> futures = new ArrayList<>();
+            for (int k = 0; k < nBands; ++k) {
+                int top = _bandTop(k, size, nBands);
+                int bottom = _bandTop(k+1, size, nBands);
+                int[] segments = bands[k];
+                futures.add(pool.submit(() -> {
+                    Graphics2D bg = img.getSubimage(0, top, img.getWidth(), bottom - top).createGraphics();
+                    bg.translate(0, -top);
+                    bg.setStroke(WalkCanvas.SEGMENT_STROKE);
+                    for (int i : segments) {
+                        bg.setColor(WalkCanvas._getLineSegmentColor(i));
+                        bg.drawLine(xs[i-1], ys[i-1], xs[i], ys[i]);
+                    }
+                    bg.dispose();
+                }));
+            }
+            for (Future<?> f : futures) {
+                f.get();
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            throw new RuntimeException("Parallel rendering of the walk failed.", e);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * A helper method which finds, for each of nBands horizontal bands of an image size rows
+     * tall, the segments which may touch its rows: those whose end points, widened by the
+     * stroke, reach into the band. Segment i joins points i-1 and i, and each band lists its
+     * segments in path order, so drawing them gives the band exactly as drawing the whole path
+     * would. A segment is listed more than once only if it crosses a band boundary.
+     * @param ys: the row of each point of the path.
+     * @param size: the height of the image.
+     * @param nBands: the number of bands, at most size.
+     * @return the indices of the segments touching each band.
+     */
+    static int[][] _segmentsByBand(int[] ys, int size, int nBands) {
+        int[] counts = new int[nBands];
+        int[] range = new int[2];
+        for (int i = 1; i < ys.length; ++i) {
+            if (_bandRange(ys[i-1], ys[i], size, nBands, range)) {
+                for (int k = range[0]; k <= range[1]; ++k) {
+                    ++counts[k];
+                }
+            }
+        }
+        int[][] bands = new int[nBands][];
+        for (int k = 0; k < nBands; ++k) {
+            bands[k] = new int[counts[k]];
+            counts[k] = 0;
+        }
+        for (int i = 1; i < ys.length; ++i) {
+            if (_bandRange(ys[i-1], ys[i], size, nBands, range)) {
+                for (int k = range[0]; k <= range[1]; ++k) {
+                    bands[k][counts[k]++] = i;
+                }
+            }
+        }
+        return bands;
+    }
+
+    /**
+     * A private helper method which finds the first and last bands that a segment between rows
+     * y0 and y1 may touch, once widened by the stroke, into range.
+     * @return false if the segment lies wholly outside the image.
+     */
+    private static boolean _bandRange(int y0, int y1, int size, int nBands, int[] range) {
+        //The stroke reaches this far past a segment's end points.
+        int margin = (int) Math.ceil(WalkCanvas.SEGMENT_STROKE.getLineWidth()) + 1;
+        int lo = Math.min(y0, y1) - margin;
+        int hi = Math.max(y0, y1) + margin;
+        if (hi < 0 || lo >= size) {
+            return false;
+        }
+        range[0] = _bandOf(Math.max(lo, 0), size, nBands);
+        range[1] = _bandOf(Math.min(hi, size - 1), size, nBands);
+        return true;
+    }
+
+    //The first row of band k of nBands, in an image size rows tall.
+    private static int _bandTop(int k, int size, int nBands) {
+        return (int) ((long) size * k / nBands);
+    }
+
+    //The band containing row r: the last band whose top is at most r.
+    private static int _bandOf(int r, int size, int nBands) {
+        return (int) (((long) (r + 1) * nBands - 1) / size);
+    }
+
+    /**
+     * A helper method which maps every point of the path to its pixel, as _toWindowCoords()
+     * does, into xs and ys, without allocating a Coordinate per point.
+     */
+    static void _toWindowCoords(List<Coordinate> path, int s, int sitesPerPixel, Coordinate centerPt, int[] xs, int[] ys) {
+        int i = 0;
+        for (Coordinate coord : path) {
+            xs[i] = Math.floorDiv(coord.x, sitesPerPixel) * s + centerPt.x;
+            ys[i] = -Math.floorDiv(coord.y, sitesPerPixel) * s + centerPt.y;
+            ++i;
+        }
+    }
+
+    /**
+     * A helper method which maps a lattice coordinate to its pixel, binning sitesPerPixel sites
+     * per pixel along each axis as PathDecimator does, then scaling and centering as WalkCanvas does.
+     */
+    static Coordinate _toWindowCoords(Coordinate coord, int s, int sitesPerPixel, Coordinate centerPt) {
+        if (sitesPerPixel > 1) {
+            coord = new Coordinate(Math.floorDiv(coord.x, sitesPerPixel), Math.floorDiv(coord.y, sitesPerPixel));
+        }
+        return WalkCanvas._centeredCoordsToWindowCoords(coord, s, centerPt);
+    }
+
+    /**
+     * A helper method which draws the segments ending at path indices first to last, inclusive.
+     */
+    static void _drawSegments(Graphics2D g2, List<Coordinate> path, int first, int last, int s, int sitesPerPixel,
+                              Coordinate centerPt) {
+        if (first > last) {
+            return;
+        }
+        g2.setStroke(WalkCanvas.SEGMENT_STROKE);
+        Coordinate prevPt = _toWindowCoords(path.get(first-1), s, sitesPerPixel, centerPt);
+        for (int i = first; i <= last; ++i) {
+            Coordinate curPt = _toWindowCoords(path.get(i), s, sitesPerPixel, centerPt);
+            g2.setColor(WalkCanvas._getLineSegmentColor(i));
+            g2.drawLine(prevPt.x, prevPt.y, curPt.x, curPt.y);
+            prevPt = curPt;
+        }
+    }
+
+    /**
+     * Draw the path, using all available processors, and save it as a PNG file.
+     * @param path: the walk to draw.
+     * @param fname: the name of the PNG file to write.
+     * @throws IOException if the file could not be written.
+     */
+    public void writePng(List<Coordinate> path, String fname) throws IOException {
+        BufferedImage img = render(path, Runtime.getRuntime().availableProcessors());
+        if (!ImageIO.write(img, "png", new File(fname))) {
+            throw new IOException("No PNG writer is available.");
+        }
+    }
+
+}
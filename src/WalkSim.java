@@ -1,13 +1,16 @@
 /**
- * WalkSim is a Java program that simulates different types of walks (random walk, spiral walk, and breadcrumb walk)
+ * WalkSim is a Java program that simulates different types of walks (random walk, spiral walk, breadcrumb walk,
+ * self-avoiding walk, and loop-erased walk)
  * based on user input and generates an animation of the walk path.*
+ * It can also histogram the endpoints of an ensemble of random walks, saving the distribution instead of a path.
  * The program prompts the user to input the number of steps and the type of walker.
- * For random walk and breadcrumb walk, the user is also asked to provide a file containing a FloatMatrix.
+ * For every walk but the spiral walk, the user is also asked to provide a file containing a FloatMatrix.
  * The walk paths are then simulated, saved to an output file, and visualized using the WalkFrame class.
  *
  * @author Ankon Biswas
  * @id     B00915283
  */
+import java.awt.GraphicsEnvironment;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.ArrayList;
@@ -18,6 +21,22 @@ public class WalkSim {
     public static final int BREADCRUMB_WALK = 2;
     public static final int RANDOM_WALK = 0;
     public static final int SPIRAL_WALK = 1;
+    public static final int SELF_AVOIDING_WALK = 3;
+    public static final int LOOP_ERASED_WALK = 4;
+    public static final int ENDPOINT_HISTOGRAM = 5;
+    // Milliseconds between animated segments in the WalkFrame
+    private static final int STEP_DURATION = 30;
+    // Longer walks are animated faster so that playback never takes more than this many milliseconds
+    private static final int MAX_ANIMATION_DURATION = 20000;
+    // Walks with more points than this are shown as a visit density heatmap instead of line segments
+    private static final int HEATMAP_THRESHOLD = 100000;
+    // Walks with more steps than this are drawn live while they are simulated
+    private static final int LIVE_THRESHOLD = HEATMAP_THRESHOLD;
+    // Self-avoiding walks grow a whole population of chains, so they are capped at this many steps
+    private static final int MAX_SELF_AVOIDING_STEPS = 50000;
+    // Matrices with more entries than this are printed as a summary of their corner entries
+    private static final int MATRIX_SUMMARY_THRESHOLD = 1000;
+    private static final int MATRIX_SUMMARY_EDGE_ITEMS = 3;
 
     public static void main(String[] args) {
         Scanner in = new Scanner(System.in);
@@ -31,8 +50,8 @@ public class WalkSim {
         // Initialize a variable to store the file name for FloatMatrix
         String fileName = "";
 
-        // For random walk and breadcrumb walk, prompt the user to enter the file name for FloatMatrix
-        if (walkType == RANDOM_WALK || walkType == BREADCRUMB_WALK) {
+        // For every walk but the spiral walk, prompt the user to enter the file name for FloatMatrix
+        if (walkType != SPIRAL_WALK) {
             fileName = readFileName(in, "Enter the file name for FloatMatrix: ");
         }
 
@@ -44,8 +63,8 @@ public class WalkSim {
         FloatMatrix T1 = null;
 
         try {
-            // If the walker type is random walk or breadcrumb walk, read the FloatMatrix from the specified file
-            if (walkType == RANDOM_WALK || walkType == BREADCRUMB_WALK) {
+            // If the walker type is not the spiral walk, read the FloatMatrix from the specified file
+            if (walkType != SPIRAL_WALK) {
                 // Check if the file name for FloatMatrix is provided
                 if (!fileName.isEmpty()) {
                     // Read the FloatMatrix from the file
@@ -53,28 +72,91 @@ public class WalkSim {
 
                     // Ensure that the Walker MarkovChain has 4 states
                     assert T1.rows() == 4 : "Walker MarkovChain should have 4 states";
-                    System.out.println(T1.prettyString());
+                    if ((long) T1.rows() * T1.columns() > MATRIX_SUMMARY_THRESHOLD) {
+                        System.out.println(T1.summaryString(MATRIX_SUMMARY_EDGE_ITEMS));
+                    } else {
+                        System.out.println(T1.prettyString());
+                    }
 
                     // If the walker type is random walk, create a MarkovChain and RandomWalker
                     if (walkType == RANDOM_WALK) {
                         MarkovChain mc = new MarkovChain(T1, cardinals);
                         RandomWalker walker = new RandomWalker(mc);
-                        ArrayList<Coordinate> theWalk = walker.walk(nSteps);
+                        CoordinateRingBuffer liveSteps = newLiveBuffer(nSteps);
+                        WalkFrame liveFrame = startLiveView(liveSteps, nSteps);
+                        // Gather summary statistics while walking
+                        WalkStatistics stats = new WalkStatistics();
+                        SiteCoverage coverage = new SiteCoverage();
+                        ArrayList<Coordinate> theWalk = walker.walk(nSteps, StepListener.both(liveSteps, StepListener.both(stats, coverage)));
+                        if (liveSteps != null) {
+                            liveSteps.close();
+                        }
                         walker.saveWalkToFile(outputFile);
+                        System.out.println(stats.getReport());
+                        System.out.println(coverage);
+
+                        // Visualize the walk path
+                        displayWalk(theWalk, outputFile, liveFrame);
+                    }
+                    // If the walker type is self-avoiding walk, create a SelfAvoidingWalker
+                    else if (walkType == SELF_AVOIDING_WALK) {
+                        SelfAvoidingWalker selfAvoidingWalker = new SelfAvoidingWalker(new MarkovChain(T1, cardinals));
+                        if (nSteps > MAX_SELF_AVOIDING_STEPS) {
+                            System.out.println("Self-avoiding walks are limited to " + MAX_SELF_AVOIDING_STEPS + " steps.");
+                            nSteps = MAX_SELF_AVOIDING_STEPS;
+                        }
+                        // The path is only known once the whole population has grown, so there is no live view
+                        WalkStatistics stats = new WalkStatistics();
+                        ArrayList<Coordinate> theWalk = selfAvoidingWalker.walk(nSteps);
+                        stats.addAll(theWalk);
+                        selfAvoidingWalker.saveWalkToFile(outputFile);
+                        System.out.println(stats.getReport());
+
+                        // Visualize the walk path
+                        displayWalk(theWalk, outputFile, null);
+                    }
+                    // If the walker type is loop-erased walk, create a LoopErasedWalker
+                    else if (walkType == LOOP_ERASED_WALK) {
+                        LoopErasedWalker loopErasedWalker = new LoopErasedWalker(new MarkovChain(T1, cardinals));
+                        // Loops may still be erased until the last step, so there is no live view
+                        WalkStatistics stats = new WalkStatistics();
+                        ArrayList<Coordinate> theWalk = loopErasedWalker.walk(nSteps);
+                        stats.addAll(theWalk);
+                        loopErasedWalker.saveWalkToFile(outputFile);
+                        System.out.println(stats.getReport());
+                        System.out.println("Points erased:             " + loopErasedWalker.getNumErased());
 
-                        // Visualize the walk path using WalkFrame
-                        WalkFrame walkFrame = new WalkFrame();
-                        walkFrame.animatePath(theWalk, 30);
+                        // Visualize the walk path
+                        displayWalk(theWalk, outputFile, null);
+                    }
+                    // If the walker type is endpoint histogram, run an ensemble of random walks
+                    else if (walkType == ENDPOINT_HISTOGRAM) {
+                        int nWalkers = readPositiveInt(in, "Enter the number of walkers: ");
+                        EndpointEnsemble ensemble = new EndpointEnsemble(new MarkovChain(T1, cardinals));
+                        // Only the endpoints are kept, so there is no path to save or show
+                        EndpointHistogram histogram = ensemble.run(nWalkers, nSteps, System.nanoTime());
+                        histogram.saveToFile(outputFile);
+                        System.out.println(histogram);
+                        System.out.println("Endpoint distribution written to " + outputFile);
                     }
                     // If the walker type is breadcrumb walk, create a BreadCrumbWalker
                     else {
                         BreadCrumbWalker breadCrumbWalker = new BreadCrumbWalker(new MarkovChain(T1, cardinals));
-                        ArrayList<Coordinate> theWalk = breadCrumbWalker.walk(nSteps);
+                        CoordinateRingBuffer liveSteps = newLiveBuffer(nSteps);
+                        WalkFrame liveFrame = startLiveView(liveSteps, nSteps);
+                        // Gather summary statistics while walking
+                        WalkStatistics stats = new WalkStatistics();
+                        SiteCoverage coverage = new SiteCoverage();
+                        ArrayList<Coordinate> theWalk = breadCrumbWalker.walk(nSteps, StepListener.both(liveSteps, StepListener.both(stats, coverage)));
+                        if (liveSteps != null) {
+                            liveSteps.close();
+                        }
                         breadCrumbWalker.saveWalkToFile(outputFile);
+                        System.out.println(stats.getReport());
+                        System.out.println(coverage);
 
-                        // Visualize the walk path using WalkFrame
-                        WalkFrame walkFrame = new WalkFrame();
-                        walkFrame.animatePath(theWalk, 30);
+                        // Visualize the walk path
+                        displayWalk(theWalk, outputFile, liveFrame);
                     }
 
                 } else {
@@ -86,12 +168,19 @@ public class WalkSim {
             // If the walker type is spiral walk, create a SpiralWalker
             else if (walkType == SPIRAL_WALK) {
                 SpiralWalker spiralWalker = new SpiralWalker();
-                ArrayList<Coordinate> theWalk = spiralWalker.walk(nSteps);
+                CoordinateRingBuffer liveSteps = newLiveBuffer(nSteps);
+                WalkFrame liveFrame = startLiveView(liveSteps, nSteps);
+                // Gather summary statistics while walking
+                WalkStatistics stats = new WalkStatistics();
+                ArrayList<Coordinate> theWalk = spiralWalker.walk(nSteps, StepListener.both(liveSteps, stats));
+                if (liveSteps != null) {
+                    liveSteps.close();
+                }
                 spiralWalker.saveWalkToFile(outputFile);
+                System.out.println(stats.getReport());
 
-                // Visualize the walk path using WalkFrame
-                WalkFrame walkFrame = new WalkFrame();
-                walkFrame.animatePath(theWalk, 30);
+                // Visualize the walk path
+                displayWalk(theWalk, outputFile, liveFrame);
             }
             // If the walker type is invalid, print an error message and exit the program
             else {
@@ -112,6 +201,79 @@ public class WalkSim {
         }
     }
 
+    /**
+     * A utility method to create the buffer through which a long walk is drawn while it is
+     * simulated. The walker publishes its steps to the buffer; the caller should close it
+     * when the walk is done. Short walks, and runs without a display, get no live view.
+     *
+     * @param nSteps the number of steps to be simulated
+     * @return the buffer to pass to the walker, or null if there is no live view
+     */
+    private static CoordinateRingBuffer newLiveBuffer(int nSteps) {
+        if (nSteps <= LIVE_THRESHOLD || GraphicsEnvironment.isHeadless()) {
+            return null;
+        }
+        return new CoordinateRingBuffer();
+    }
+
+    /**
+     * A utility method to open a WalkFrame which drains liveSteps once per frame.
+     *
+     * @param liveSteps the buffer from newLiveBuffer(), or null if there is no live view
+     * @param nSteps    the number of steps to be simulated
+     * @return the live frame, or null if there is no live view
+     */
+    private static WalkFrame startLiveView(CoordinateRingBuffer liveSteps, int nSteps) {
+        if (liveSteps == null) {
+            return null;
+        }
+        // A random walk usually stays within a few multiples of sqrt(nSteps) of the origin
+        int expectedExtents = (int) Math.min(nSteps, 3 * Math.ceil(Math.sqrt(nSteps)));
+        WalkFrame liveFrame = new WalkFrame();
+        liveFrame.setTitle("Random Walk (live)");
+        liveFrame.animateLive(liveSteps, expectedExtents);
+        return liveFrame;
+    }
+
+    /**
+     * A utility method to show the walk path.
+     * With a display, the path is animated in a WalkFrame. Without one (e.g. when run with
+     * -Djava.awt.headless=true), the whole path is rendered to a PNG file named after the output file.
+     * Walks longer than HEATMAP_THRESHOLD points are shown in a zoomable WalkViewer instead,
+     * or as a visit density heatmap when there is no display.
+     * A walk which was drawn live is handed over: its live frame is closed as the walk is shown,
+     * so each walk has one window.
+     *
+     * @param theWalk    the walk path to show
+     * @param outputFile the name of the file the walk was saved to
+     * @param liveFrame  the frame the walk was drawn in while it was simulated, or null
+     * @throws IOException if the PNG file could not be written
+     */
+    private static void displayWalk(ArrayList<Coordinate> theWalk, String outputFile, WalkFrame liveFrame) throws IOException {
+        if (liveFrame != null) {
+            liveFrame.dispose();
+        }
+        boolean heatmap = theWalk.size() > HEATMAP_THRESHOLD;
+        if (GraphicsEnvironment.isHeadless()) {
+            int dot = outputFile.lastIndexOf('.');
+            String imageFile = (dot > 0 ? outputFile.substring(0, dot) : outputFile) + ".png";
+            if (heatmap) {
+                new WalkHeatmapRenderer().writePng(theWalk, imageFile);
+            } else {
+                new WalkImageRenderer().writePng(theWalk, imageFile);
+            }
+            System.out.println("No display available. Walk rendered to " + imageFile);
+        } else {
+            if (heatmap) {
+                // Too long to animate; explore it in the zoomable viewer instead
+                new WalkViewer(theWalk);
+            } else {
+                WalkFrame walkFrame = new WalkFrame();
+                walkFrame.animatePath(theWalk, STEP_DURATION, MAX_ANIMATION_DURATION);
+            }
+        }
+    }
+
     /**
      * A utility method to prompt the user for the number of steps in the walk.
      *
@@ -119,12 +281,23 @@ public class WalkSim {
      * @return The number of steps entered by the user
      */
     private static int numSteps(Scanner in) {
+        return readPositiveInt(in, "Enter the number of steps: ");
+    }
+
+    /**
+     * A utility method to prompt the user for a positive integer.
+     *
+     * @param in     Scanner for user input
+     * @param prompt Prompt message to display to the user
+     * @return The positive integer entered by the user
+     */
+    private static int readPositiveInt(Scanner in, String prompt) {
         int result = 0;
         boolean isValidInput = false;
 
         // Continue prompting the user until a valid input is provided
         while (!isValidInput) {
-            System.out.print("Enter the number of steps: ");
+            System.out.print(prompt);
             // Check if the next input is an integer
             if (in.hasNextInt()) {
                 result = in.nextInt();
@@ -148,20 +321,21 @@ public class WalkSim {
      * A utility method to prompt the user for the type of walker (random, spiral, or breadcrumb).
      *
      * @param in Scanner for user input
-     * @return The selected walker type (0 for Random, 1 for Spiral, 2 for Bread crumb)
+     * @return The selected walker type (0 for Random, 1 for Spiral, 2 for Bread crumb, 3 for Self-avoiding,
+     *         4 for Loop-erased, 5 for Endpoint histogram)
      */
     private static int walkerType(Scanner in) {
         int walkerType = -1;
 
         // Continue prompting the user until a valid walker type is provided
-        while (walkerType < RANDOM_WALK || walkerType > BREADCRUMB_WALK) {
-            System.out.print("Enter the walker type (0 for Random, 1 for Spiral, 2 for Bread crumb): ");
+        while (walkerType < RANDOM_WALK || walkerType > ENDPOINT_HISTOGRAM) {
+            System.out.print("Enter the walker type (0 for Random, 1 for Spiral, 2 for Bread crumb, 3 for Self-avoiding, 4 for Loop-erased, 5 for Endpoint histogram): ");
             // Check if the next input is an integer
             if (in.hasNextInt()) {
                 walkerType = in.nextInt();
             } else {
                 // If the input is not an integer, print an error message and consume the invalid input
-                System.out.println("Invalid input. Please enter a valid walker type (0, 1, or 2).");
+                System.out.println("Invalid input. Please enter a valid walker type (0, 1, 2, 3, 4, or 5).");
                 in.next();
             }
         }
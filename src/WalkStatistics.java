@@ -0,0 +1,228 @@
+import java.util.List;
+
+/**
+ * A single pass, constant memory accumulator of summary statistics for a walk path.
+ * It can be fed inline, as a StepListener passed to a walker's walk(), or afterwards from
+ * a stored path with addAll(). Either way each point is looked at once and then forgotten,
+ * so walks too long to store can still be summarised.
+ *
+ * Displacements are measured from the first point of the path. Means are kept with
+ * Welford's running updates rather than as sums, so they stay accurate for very long walks.
+ */
+public class WalkStatistics implements StepListener {
+
+    private long numPoints;
+    private int startX;
+    private int startY;
+    private int lastX;
+    private int lastY;
+    private int minX;
+    private int maxX;
+    private int minY;
+    private int maxY;
+    //Running means of the position and of the squared displacement from the start.
+    private double meanX;
+    private double meanY;
+    private double meanSquaredDisplacement;
+    //Sum of squared distances from the running mean position (Welford's M2, over x and y).
+    private double sumSquaredDeviation;
+    private long maxSquaredDistance;
+
+    /**
+     * Construct an empty accumulator.
+     */
+    public WalkStatistics() {
+        clear();
+    }
+
+    /**
+     * Forget every point added so far.
+     */
+    public void clear() {
+        numPoints = 0;
+        startX = startY = lastX = lastY = 0;
+        minX = maxX = minY = maxY = 0;
+        meanX = meanY = 0;
+        meanSquaredDisplacement = 0;
+        sumSquaredDeviation = 0;
+        maxSquaredDistance = 0;
+    }
+
+    /**
+     * Add the next point of the walk.
+     * @param x: the x coordinate of the point.
+     * @param y: the y coordinate of the point.
+     */
+    @Override
+    public void onStep(int x, int y) {
+        ++numPoints;
+        if (numPoints == 1) {
+            startX = minX = maxX = x;
+            startY = minY = maxY = y;
+        } else {
+            minX = Math.min(minX, x);
+            maxX = Math.max(maxX, x);
+            minY = Math.min(minY, y);
+            maxY = Math.max(maxY, y);
+        }
+        lastX = x;
+        lastY = y;
+
+        long dx = (long) x - startX;
+        long dy = (long) y - startY;
+        long squaredDistance = dx*dx + dy*dy;
+        maxSquaredDistance = Math.max(maxSquaredDistance, squaredDistance);
+        meanSquaredDisplacement += (squaredDistance - meanSquaredDisplacement) / numPoints;
+
+        double devX = x - meanX;
+        double devY = y - meanY;
+        meanX += devX / numPoints;
+        meanY += devY / numPoints;
+        sumSquaredDeviation += devX * (x - meanX) + devY * (y - meanY);
+    }
+
+    /**
+     * Add every point of a stored path, in order.
+     * @param path: the points to add.
+     */
+    public void addAll(List<Coordinate> path) {
+        for (Coordinate coord : path) {
+            onStep(coord.x, coord.y);
+        }
+    }
+
+    /**
+     * Summarise the points added so far.
+     * @return a report of the statistics.
+     */
+    public Report getReport() {
+        return new Report(this);
+    }
+
+    /**
+     * An immutable summary of a walk, as computed by a WalkStatistics.
+     * If no points were added, every statistic is 0.
+     */
+    public static class Report {
+
+        private final long numPoints;
+        private final int minX;
+        private final int maxX;
+        private final int minY;
+        private final int maxY;
+        private final double meanSquaredDisplacement;
+        private final double endToEndDistance;
+        private final double maxDistance;
+        private final double radiusOfGyration;
+        private final double centerX;
+        private final double centerY;
+
+        private Report(WalkStatistics stats) {
+            this.numPoints = stats.numPoints;
+            this.minX = stats.minX;
+            this.maxX = stats.maxX;
+            this.minY = stats.minY;
+            this.maxY = stats.maxY;
+            this.meanSquaredDisplacement = stats.meanSquaredDisplacement;
+            long dx = (long) stats.lastX - stats.startX;
+            long dy = (long) stats.lastY - stats.startY;
+            this.endToEndDistance = Math.sqrt((double) (dx*dx + dy*dy));
+            this.maxDistance = Math.sqrt((double) stats.maxSquaredDistance);
+            this.radiusOfGyration = stats.numPoints == 0 ? 0 : Math.sqrt(Math.max(0, stats.sumSquaredDeviation / stats.numPoints));
+            this.centerX = stats.meanX;
+            this.centerY = stats.meanY;
+        }
+
+        /**
+         * @return the number of points in the walk; one more than the number of steps.
+         */
+        public long getNumPoints() {
+            return numPoints;
+        }
+
+        /**
+         * @return the smallest x coordinate visited.
+         */
+        public int getMinX() {
+            return minX;
+        }
+
+        /**
+         * @return the largest x coordinate visited.
+         */
+        public int getMaxX() {
+            return maxX;
+        }
+
+        /**
+         * @return the smallest y coordinate visited.
+         */
+        public int getMinY() {
+            return minY;
+        }
+
+        /**
+         * @return the largest y coordinate visited.
+         */
+        public int getMaxY() {
+            return maxY;
+        }
+
+        /**
+         * @return the mean, over every point, of its squared distance from the first point.
+         */
+        public double getMeanSquaredDisplacement() {
+            return meanSquaredDisplacement;
+        }
+
+        /**
+         * @return the distance from the first point to the last.
+         */
+        public double getEndToEndDistance() {
+            return endToEndDistance;
+        }
+
+        /**
+         * @return the largest distance of any point from the first point.
+         */
+        public double getMaxDistance() {
+            return maxDistance;
+        }
+
+        /**
+         * @return the root mean squared distance of the points from their center of mass.
+         */
+        public double getRadiusOfGyration() {
+            return radiusOfGyration;
+        }
+
+        /**
+         * @return the x coordinate of the center of mass of the points.
+         */
+        public double getCenterX() {
+            return centerX;
+        }
+
+        /**
+         * @return the y coordinate of the center of mass of the points.
+         */
+        public double getCenterY() {
+            return centerY;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append("Points:                    ").append(numPoints).append('\n');
+            sb.append("Bounding box:              [").append(minX).append(", ").append(maxX).append("] x [")
+                    .append(minY).append(", ").append(maxY).append("]\n");
+            sb.append(String.format("Center of mass:            (%.3f, %.3f)%n", centerX, centerY));
+            sb.append(String.format("Mean squared displacement: %.3f%n", meanSquaredDisplacement));
+            sb.append(String.format("End-to-end distance:       %.3f%n", endToEndDistance));
+            sb.append(String.format("Max distance from start:   %.3f%n", maxDistance));
+            sb.append(String.format("Radius of gyration:        %.3f", radiusOfGyration));
+            return sb.toString();
+        }
+    }
+
+}
@@ -0,0 +1,35 @@
+/**
+ * A condition on the walker's position which ends a first-passage trial, such as leaving a
+ * disc or reaching a particular site. See FirstPassageSimulator.
+ */
+public interface WalkTarget {
+
+    /**
+     * Check whether the walker has reached the target.
+     * @param x: the walker's x coordinate.
+     * @param y: the walker's y coordinate.
+     * @return true if and only if the position is on the target.
+     */
+    boolean isHit(int x, int y);
+
+    /**
+     * A target hit once the walker is strictly further than radius from the origin.
+     * @param radius: the radius of the disc the walker must leave.
+     * @return the target.
+     */
+    static WalkTarget leavesRadius(double radius) {
+        double r2 = radius * radius;
+        return (x, y) -> (double) x * x + (double) y * y > r2;
+    }
+
+    /**
+     * A target hit once the walker stands on one particular site.
+     * @param a: the x coordinate of the site.
+     * @param b: the y coordinate of the site.
+     * @return the target.
+     */
+    static WalkTarget reachesSite(int a, int b) {
+        return (x, y) -> x == a && y == b;
+    }
+
+}
@@ -0,0 +1,210 @@
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.awt.image.BufferedImage;
+import java.util.List;
+
+/**
+ * An awt canvas for exploring a long walk path: the mouse wheel zooms about the cursor,
+ * dragging pans, and a double-click fits the whole path back into view.
+ * A SegmentGridIndex finds the segments in the current viewport, so each repaint draws only
+ * those. When too many segments are in view to draw interactively, a heatmap overview of
+ * the whole walk is drawn instead.
+ */
+public class WalkViewCanvas extends Canvas {
+
+    private static final long serialVersionUID = 1L;
+
+    //Above this many visible segments, the heatmap overview is drawn instead.
+    public static final int MAX_SEGMENTS_PER_PAINT = 200000;
+    public static final int OVERVIEW_SIZE = 2048;
+    public static final double ZOOM_STEP = 1.25;
+
+    private List<Coordinate> path;
+    private SegmentGridIndex index;
+    private int extents;
+    private BufferedImage overview;
+    private int overviewSitesPerPixel;
+
+    //The view: pixels per lattice unit, and the lattice point shown at the center of the canvas.
+    private double zoom;
+    private double centerX;
+    private double centerY;
+    private boolean fitPending;
+
+    private BufferedImage backBuffer;
+    private Point dragStart;
+
+    public WalkViewCanvas(List<Coordinate> path) {
+        super();
+        this.path = path;
+        this.index = new SegmentGridIndex(path);
+        this.extents = WalkCanvas._findPathExtends(path);
+        if (index.getNumSegments() > MAX_SEGMENTS_PER_PAINT) {
+            //One pixel per cell, so the overview maps back onto the lattice exactly.
+            this.overview = new WalkHeatmapRenderer(1, OVERVIEW_SIZE).render(path);
+            this.overviewSitesPerPixel = (int) ((2L * extents + OVERVIEW_SIZE) / OVERVIEW_SIZE);
+        }
+        this.fitPending = true;
+
+        MouseAdapter mouse = new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                dragStart = e.getPoint();
+            }
+
+            @Override
+            public void mouseDragged(MouseEvent e) {
+                if (dragStart != null) {
+                    centerX -= (e.getX() - dragStart.x) / zoom;
+                    centerY += (e.getY() - dragStart.y) / zoom;
+                    dragStart = e.getPoint();
+                    repaint();
+                }
+            }
+
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                if (e.getClickCount() == 2) {
+                    fitToView();
+                }
+            }
+
+            @Override
+            public void mouseWheelMoved(MouseWheelEvent e) {
+                zoomAbout(e.getX(), e.getY(), Math.pow(ZOOM_STEP, -e.getPreciseWheelRotation()));
+            }
+        };
+        this.addMouseListener(mouse);
+        this.addMouseMotionListener(mouse);
+        this.addMouseWheelListener(mouse);
+    }
+
+    //Zoom and center so the whole path is in view.
+    public void fitToView() {
+        int size = Math.max(1, Math.min(this.getWidth(), this.getHeight()) - 2*WalkFrame.DEFAULT_PADDING);
+        zoom = Math.min(WalkFrame.DEFAULT_SCALE, (double) size / (2*extents + 1));
+        centerX = 0;
+        centerY = 0;
+        fitPending = false;
+        repaint();
+    }
+
+    //Multiply the zoom by factor, keeping the lattice point under pixel (px, py) in place.
+    public void zoomAbout(int px, int py, double factor) {
+        double lx = _toLatticeX(px);
+        double ly = _toLatticeY(py);
+        zoom *= factor;
+        centerX = lx - (px - this.getWidth() / 2.0) / zoom;
+        centerY = ly + (py - this.getHeight() / 2.0) / zoom;
+        repaint();
+    }
+
+    @Override
+    public void update(Graphics g) {
+        //The back buffer covers the whole canvas, so there is no need to clear it first.
+        paint(g);
+    }
+
+    @Override
+    public void paint(Graphics g) {
+        int w = Math.max(1, this.getWidth());
+        int h = Math.max(1, this.getHeight());
+        if (fitPending) {
+            fitToView();
+        }
+        if (backBuffer == null || backBuffer.getWidth() != w || backBuffer.getHeight() != h) {
+            backBuffer = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+        }
+
+        Graphics2D g2 = backBuffer.createGraphics();
+        g2.setColor(Color.WHITE);
+        g2.fillRect(0, 0, w, h);
+
+        //The visible rectangle of the lattice, with a one unit margin for segments crossing the border.
+        long x0 = (long) Math.floor(_toLatticeX(0)) - 1;
+        long x1 = (long) Math.ceil(_toLatticeX(w)) + 1;
+        long y0 = (long) Math.floor(_toLatticeY(h)) - 1;
+        long y1 = (long) Math.ceil(_toLatticeY(0)) + 1;
+
+        if (zoom >= WalkImageRenderer.MIN_GRID_SCALE) {
+            _drawGrid(g2, x0, y0, x1, y1);
+        }
+
+        int[] runs = index.query(x0, y0, x1, y1);
+        if (overview != null && SegmentGridIndex.countSegments(runs) > MAX_SEGMENTS_PER_PAINT) {
+            _drawOverview(g2);
+        } else {
+            _drawRuns(g2, runs);
+        }
+        g2.dispose();
+        g.drawImage(backBuffer, 0, 0, null);
+    }
+
+    private void _drawGrid(Graphics2D g2, long x0, long y0, long x1, long y1) {
+        g2.setColor(WalkCanvas.GRID_COLOR);
+        int w = this.getWidth();
+        int h = this.getHeight();
+        for (long x = x0; x <= x1; ++x) {
+            int px = _toScreenX(x);
+            g2.drawLine(px, 0, px, h);
+        }
+        for (long y = y0; y <= y1; ++y) {
+            int py = _toScreenY(y);
+            g2.drawLine(0, py, w, py);
+        }
+    }
+
+    private void _drawRuns(Graphics2D g2, int[] runs) {
+        g2.setStroke(WalkCanvas.SEGMENT_STROKE);
+        for (int k = 0; k < runs.length; k += 2) {
+            Coordinate prevPt = path.get(runs[k] - 1);
+            int px = _toScreenX(prevPt.x);
+            int py = _toScreenY(prevPt.y);
+            for (int i = runs[k]; i <= runs[k+1]; ++i) {
+                Coordinate curPt = path.get(i);
+                int cx = _toScreenX(curPt.x);
+                int cy = _toScreenY(curPt.y);
+                g2.setColor(WalkCanvas._getLineSegmentColor(i));
+                g2.drawLine(px, py, cx, cy);
+                px = cx;
+                py = cy;
+            }
+        }
+    }
+
+    //The overview's pixel (0,0) covers the sites from (-extents, extents), each pixel overviewSitesPerPixel sites wide.
+    private void _drawOverview(Graphics2D g2) {
+        double left = _toScreenXExact(-extents - 0.5);
+        double top = _toScreenYExact(extents + 0.5);
+        double size = overview.getWidth() * overviewSitesPerPixel * zoom;
+        g2.drawImage(overview, (int) Math.round(left), (int) Math.round(top),
+                (int) Math.max(1, Math.round(size)), (int) Math.max(1, Math.round(size)), null);
+    }
+
+    private double _toLatticeX(double px) {
+        return centerX + (px - this.getWidth() / 2.0) / zoom;
+    }
+
+    private double _toLatticeY(double py) {
+        return centerY - (py - this.getHeight() / 2.0) / zoom; //window y-axis points down
+    }
+
+    private double _toScreenXExact(double x) {
+        return (x - centerX) * zoom + this.getWidth() / 2.0;
+    }
+
+    private double _toScreenYExact(double y) {
+        return (centerY - y) * zoom + this.getHeight() / 2.0;
+    }
+
+    private int _toScreenX(long x) {
+        return (int) Math.round(Math.max(-1e6, Math.min(1e6, _toScreenXExact(x))));
+    }
+
+    private int _toScreenY(long y) {
+        return (int) Math.round(Math.max(-1e6, Math.min(1e6, _toScreenYExact(y))));
+    }
+
+}
@@ -0,0 +1,32 @@
+import java.awt.*;
+import java.awt.event.*;
+import java.util.List;
+
+/**
+ * A resizable AWT Frame holding a WalkViewCanvas, for zooming and panning around long walks.
+ */
+public class WalkViewer extends Frame {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final int DEFAULT_SIZE = 800;
+
+    private WalkViewCanvas canvas;
+
+    public WalkViewer(List<Coordinate> path) {
+        this.setTitle("Random Walk Viewer (scroll to zoom, drag to pan, double-click to fit)");
+        this.canvas = new WalkViewCanvas(path);
+        this.canvas.setPreferredSize(new Dimension(DEFAULT_SIZE, DEFAULT_SIZE));
+        this.add(this.canvas);
+        this.pack();
+
+        addWindowListener (new WindowAdapter() {
+            public void windowClosing (WindowEvent e) {
+                dispose();
+            }
+        });
+
+        this.setVisible(true);
+    }
+
+}
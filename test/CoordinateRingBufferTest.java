@@ -0,0 +1,137 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the CoordinateRingBuffer class.
+ *
+ * 1. pack(), unpackX(), unpackY()
+ * 1a. negative and extreme coordinates round trip.
+ *
+ * 2. onStep(), poll()
+ * 2a. coordinates are polled in the order they were offered.
+ * 2b. when full, coordinates are dropped and a BREAK is queued before the next one.
+ * 2c. a consumer thread sees every coordinate from a producer thread, in order.
+ *
+ * 3. isFinished()
+ * 3a. not finished until closed and drained.
+ *
+ * 4. walk(int, StepListener)
+ * 4a. the listener is told about exactly the coordinates of the path.
+ */
+public class CoordinateRingBufferTest {
+
+    @Test
+    void pack_roundTrip() {
+        int[][] coords = {{0, 0}, {-1, 1}, {5, -7}, {Integer.MAX_VALUE, Integer.MIN_VALUE}, {Integer.MIN_VALUE + 1, -1}};
+        for (int[] c : coords) {
+            long packed = CoordinateRingBuffer.pack(c[0], c[1]);
+            assertEquals(c[0], CoordinateRingBuffer.unpackX(packed));
+            assertEquals(c[1], CoordinateRingBuffer.unpackY(packed));
+        }
+    }
+
+    @Test
+    void poll_inOrder() {
+        CoordinateRingBuffer buf = new CoordinateRingBuffer(8);
+        long[] dst = new long[3];
+        int next = 0;
+        for (int i = 0; i < 20; ++i) {
+            buf.onStep(i, -i);
+            if (i % 2 == 1) {
+                int n;
+                while ((n = buf.poll(dst)) > 0) {
+                    for (int k = 0; k < n; ++k) {
+                        assertEquals(next, CoordinateRingBuffer.unpackX(dst[k]));
+                        assertEquals(-next, CoordinateRingBuffer.unpackY(dst[k]));
+                        ++next;
+                    }
+                }
+            }
+        }
+        assertEquals(20, next);
+        assertEquals(0, buf.getNumDropped());
+    }
+
+    @Test
+    void onStep_dropsWhenFull() {
+        CoordinateRingBuffer buf = new CoordinateRingBuffer(4);
+        for (int i = 0; i < 6; ++i) {
+            buf.onStep(i, 0);
+        }
+        assertEquals(2, buf.getNumDropped());
+
+        long[] dst = new long[16];
+        assertEquals(4, buf.poll(dst));
+        buf.onStep(6, 0);
+        assertEquals(2, buf.poll(dst));
+        assertEquals(CoordinateRingBuffer.BREAK, dst[0]);
+        assertEquals(6, CoordinateRingBuffer.unpackX(dst[1]));
+    }
+
+    @Test
+    void poll_acrossThreads() throws InterruptedException {
+        final int N = 200000;
+        CoordinateRingBuffer buf = new CoordinateRingBuffer(1 << 16);
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < N; ++i) {
+                while (true) {
+                    long before = buf.getNumDropped();
+                    buf.onStep(i, i);
+                    if (buf.getNumDropped() == before) {
+                        break;
+                    }
+                    Thread.yield();
+                }
+            }
+            buf.close();
+        });
+        producer.start();
+
+        long[] dst = new long[1000];
+        long expected = 0;
+        boolean sawBreak = false;
+        while (!buf.isFinished()) {
+            int n = buf.poll(dst);
+            for (int k = 0; k < n; ++k) {
+                if (dst[k] == CoordinateRingBuffer.BREAK) {
+                    sawBreak = true;
+                    continue;
+                }
+                assertEquals(expected, CoordinateRingBuffer.unpackX(dst[k]));
+                assertEquals(expected, CoordinateRingBuffer.unpackY(dst[k]));
+                ++expected;
+            }
+        }
+        producer.join();
+        //The producer retries dropped coordinates, so every one arrives, possibly after a BREAK.
+        assertEquals(N, expected);
+        assertEquals(sawBreak, buf.getNumDropped() > 0);
+    }
+
+    @Test
+    void isFinished_afterCloseAndDrain() {
+        CoordinateRingBuffer buf = new CoordinateRingBuffer(4);
+        assertFalse(buf.isFinished());
+        buf.onStep(1, 2);
+        buf.close();
+        assertFalse(buf.isFinished());
+        assertEquals(1, buf.poll(new long[4]));
+        assertTrue(buf.isFinished());
+    }
+
+    @Test
+    void walk_notifiesListener() {
+        SpiralWalker walker = new SpiralWalker();
+        ArrayList<long[]> seen = new ArrayList<>();
+        ArrayList<Coordinate> path = walker.walk(50, (x, y) -> seen.add(new long[] {x, y}));
+        assertEquals(path.size(), seen.size());
+        for (int i = 0; i < path.size(); ++i) {
+            assertEquals(path.get(i).x, seen.get(i)[0]);
+            assertEquals(path.get(i).y, seen.get(i)[1]);
+        }
+    }
+
+}
@@ -0,0 +1,151 @@
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the EndpointEnsemble and EndpointHistogram classes.
+ *
+ * 1. run()
+ * 1a. walkers which always head east all end at (nSteps, 0).
+ * 1b. endpoints beyond the grid are counted as outside.
+ * 1c. the same seed gives the same histogram with any number of threads.
+ * 1d. unbiased walks have a mean squared displacement of nSteps, and only reach sites of matching parity.
+ * 1e. the default grid of a long walk has wider cells and at most MAX_DEFAULT_HALF_WIDTH cells either side.
+ * 1f. invalid arguments throw.
+ * 1g. wider default cells are an even number of sites wide, so adjacent cells near the origin agree.
+ *
+ * 2. EndpointHistogram
+ * 2a. cellOf() centers cells on the origin.
+ * 2b. toFloatMatrix() puts north at the top.
+ * 2c. saveToFile() writes a matrix which FloatMatrix.fromFile() reads back.
+ */
+public class EndpointEnsembleTest {
+
+    @Test
+    void run_deterministic() {
+        EndpointHistogram h = new EndpointEnsemble(MarkovChainTest.constantChain(1), 2).run(10000, 7, 0);
+        assertEquals(10000, h.getCountAt(7, 0));
+        assertEquals(0, h.getNumOutside());
+        assertEquals(7.0, h.getMeanX(), 1e-12);
+        assertEquals(0.0, h.getMeanY(), 1e-12);
+        assertEquals(49.0, h.getMeanSquaredDisplacement(), 1e-12);
+    }
+
+    @Test
+    void run_outside() {
+        EndpointHistogram h = new EndpointEnsemble(MarkovChainTest.constantChain(0), 2).run(100, 10, 5, 1, 0);
+        assertEquals(100, h.getNumOutside());
+        assertEquals(0, h.getCountAt(0, 10));
+        assertEquals(10.0, h.getMeanY(), 1e-12);
+    }
+
+    @Test
+    void run_independentOfThreads() {
+        EndpointHistogram a = new EndpointEnsemble(MarkovChainTest.uniformChain(), 1).run(20000, 30, 3);
+        EndpointHistogram b = new EndpointEnsemble(MarkovChainTest.uniformChain(), 3).run(20000, 30, 3);
+        int w = a.getHalfWidth();
+        for (int cy = -w; cy <= w; ++cy) {
+            for (int cx = -w; cx <= w; ++cx) {
+                assertEquals(a.getCount(cx, cy), b.getCount(cx, cy));
+            }
+        }
+        assertEquals(a.getMeanSquaredDisplacement(), b.getMeanSquaredDisplacement());
+    }
+
+    @Test
+    void run_unbiased() {
+        int nSteps = 20;
+        int nWalkers = 100000;
+        EndpointHistogram h = new EndpointEnsemble(MarkovChainTest.uniformChain(), 4).run(nWalkers, nSteps, 1);
+        assertEquals(nSteps, h.getMeanSquaredDisplacement(), 0.3);
+        assertEquals(0.0, h.getMeanX(), 0.05);
+        long total = h.getNumOutside();
+        int w = h.getHalfWidth();
+        for (int cy = -w; cy <= w; ++cy) {
+            for (int cx = -w; cx <= w; ++cx) {
+                total += h.getCount(cx, cy);
+                if (((cx + cy) & 1) != 0) {
+                    assertEquals(0, h.getCount(cx, cy), "(" + cx + ", " + cy + ")");
+                }
+            }
+        }
+        assertEquals(nWalkers, total);
+        //The origin is reached with probability C(20, 10)^2 / 4^20.
+        assertEquals(0.0310, h.getProbability(0, 0), 0.003);
+    }
+
+    @Test
+    void run_defaultGrid() {
+        EndpointHistogram h = new EndpointEnsemble(MarkovChainTest.uniformChain(), 2).run(100, 1000000 / 100, 0);
+        assertEquals(1, h.getBinSize());
+        assertEquals(500, h.getHalfWidth());
+        h = new EndpointEnsemble(MarkovChainTest.uniformChain(), 2).run(1, 100000, 0);
+        assertTrue(h.getBinSize() > 1);
+        assertTrue(h.getHalfWidth() <= EndpointEnsemble.MAX_DEFAULT_HALF_WIDTH);
+        assertEquals(1, h.getNumWalkers());
+    }
+
+    @Test
+    void run_invalid() {
+        EndpointEnsemble e = new EndpointEnsemble(MarkovChainTest.uniformChain(), 1);
+        assertThrows(IllegalArgumentException.class, () -> e.run(-1, 10, 0));
+        assertThrows(IllegalArgumentException.class, () -> e.run(10, 10, 5, 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> e.run(10, 10, 1 << 20, 1, 0));
+    }
+
+    @Test
+    void run_evenBinSize() {
+        EndpointEnsemble e = new EndpointEnsemble(MarkovChainTest.uniformChain(), 2);
+        for (int nSteps : new int[] {20000, 50000, 100000}) {
+            int binSize = e.run(1, nSteps, 0).getBinSize();
+            assertTrue(binSize > 1);
+            assertEquals(0, binSize % 2, "nSteps = " + nSteps);
+        }
+        //With an even bin size every cell holds as many sites of each parity, so neighbours agree.
+        EndpointHistogram h = e.run(400000, 200, 5, 2, 5);
+        double mean = (h.getCount(0, 0) + h.getCount(1, 0) + h.getCount(0, 1) + h.getCount(-1, 0)) / 4.0;
+        for (int[] c : new int[][] {{0, 0}, {1, 0}, {0, 1}, {-1, 0}}) {
+            assertEquals(mean, h.getCount(c[0], c[1]), 0.1 * mean, "(" + c[0] + ", " + c[1] + ")");
+        }
+    }
+
+    @Test
+    void histogram_cellOf() {
+        assertEquals(0, EndpointHistogram.cellOf(0, 1));
+        assertEquals(-3, EndpointHistogram.cellOf(-3, 1));
+        assertEquals(0, EndpointHistogram.cellOf(-1, 3));
+        assertEquals(0, EndpointHistogram.cellOf(1, 3));
+        assertEquals(1, EndpointHistogram.cellOf(2, 3));
+        assertEquals(-1, EndpointHistogram.cellOf(-2, 3));
+    }
+
+    @Test
+    void histogram_toFloatMatrix() {
+        EndpointHistogram h = new EndpointEnsemble(MarkovChainTest.constantChain(0), 1).run(10, 2, 3, 1, 0);
+        FloatMatrix M = h.toFloatMatrix();
+        assertEquals(7, M.rows());
+        assertEquals(7, M.columns());
+        assertEquals(1.0f, M.get(1, 3)); //(0, 2) is one row below the top
+        assertEquals(0.0f, M.get(5, 3));
+    }
+
+    @Test
+    void histogram_saveToFile() throws Exception {
+        String fname = "endpoint_histogram_test.txt";
+        try {
+            EndpointHistogram h = new EndpointEnsemble(MarkovChainTest.uniformChain(), 2).run(1000, 4, 0);
+            h.saveToFile(fname);
+            FloatMatrix read = FloatMatrix.fromFile(fname);
+            FloatMatrix M = h.toFloatMatrix();
+            assertEquals(M.rows(), read.rows());
+            for (int r = 0; r < M.rows(); ++r) {
+                for (int c = 0; c < M.columns(); ++c) {
+                    assertEquals(M.get(r, c), read.get(r, c));
+                }
+            }
+        } finally {
+            new java.io.File(fname).delete();
+        }
+    }
+
+}
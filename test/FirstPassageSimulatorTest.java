@@ -0,0 +1,97 @@
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the FirstPassageSimulator and FirstPassageResult classes.
+ *
+ * 1. run()
+ * 1a. a walker which always heads east reaches (3, 0) in exactly 3 steps.
+ * 1b. a target which is never reached leaves every trial censored.
+ * 1c. a target containing the origin is hit after 0 steps.
+ * 1d. the same seed gives the same result with any number of threads.
+ * 1e. the mean time to leave radius R lies between R^2 and (R+1)^2, as for simple random walk.
+ * 1f. negative arguments, or a step limit beyond MAX_STEPS, throw.
+ *
+ * 2. FirstPassageResult
+ * 2a. quantiles, cumulative probabilities and intervals of a known set of times.
+ */
+public class FirstPassageSimulatorTest {
+
+    @Test
+    void run_invalid() {
+        FirstPassageSimulator sim = new FirstPassageSimulator(MarkovChainTest.uniformChain(), 1);
+        WalkTarget target = WalkTarget.reachesSite(3, 0);
+        assertThrows(IllegalArgumentException.class, () -> sim.run(target, -1, 10, 0));
+        assertThrows(IllegalArgumentException.class, () -> sim.run(target, 10, -1, 0));
+        assertThrows(IllegalArgumentException.class, () -> sim.run(target, 10, FirstPassageSimulator.MAX_STEPS + 1, 0));
+    }
+
+    @Test
+    void run_deterministic() {
+        FirstPassageResult result = new FirstPassageSimulator(MarkovChainTest.constantChain(1), 2)
+                .run(WalkTarget.reachesSite(3, 0), 10, 100, 0);
+        assertEquals(10, result.getNumHits());
+        assertEquals(3.0, result.getMeanHittingTime(), 1e-12);
+        assertEquals(3, result.getQuantile(0.5));
+    }
+
+    @Test
+    void run_censored() {
+        FirstPassageResult result = new FirstPassageSimulator(MarkovChainTest.constantChain(0), 2)
+                .run(WalkTarget.reachesSite(3, 0), 10, 50, 0);
+        assertEquals(0, result.getNumHits());
+        assertEquals(10, result.getNumCensored());
+        assertEquals(0.0, result.getHitProbability());
+        assertEquals(FirstPassageResult.CENSORED, result.getQuantile(0.5));
+        assertTrue(Double.isNaN(result.getMeanHittingTime()));
+    }
+
+    @Test
+    void run_startOnTarget() {
+        FirstPassageResult result = new FirstPassageSimulator(MarkovChainTest.uniformChain(), 1)
+                .run(WalkTarget.reachesSite(0, 0), 5, 10, 0);
+        assertArrayEquals(new long[] {0, 0, 0, 0, 0}, result.getHittingTimes());
+    }
+
+    @Test
+    void run_independentOfThreads() {
+        WalkTarget target = WalkTarget.leavesRadius(6);
+        FirstPassageResult a = new FirstPassageSimulator(MarkovChainTest.uniformChain(), 1).run(target, 2000, 10000, 9);
+        FirstPassageResult b = new FirstPassageSimulator(MarkovChainTest.uniformChain(), 3).run(target, 2000, 10000, 9);
+        assertArrayEquals(a.getHittingTimes(), b.getHittingTimes());
+    }
+
+    @Test
+    void run_exitRadius() {
+        int R = 10;
+        FirstPassageResult result = new FirstPassageSimulator(MarkovChainTest.uniformChain(), 2)
+                .run(WalkTarget.leavesRadius(R), 20000, 1000000, 1);
+        assertEquals(0, result.getNumCensored());
+        double[] ci = result.getMeanHittingTimeInterval(FirstPassageResult.Z_95);
+        assertTrue(ci[0] < result.getMeanHittingTime() && result.getMeanHittingTime() < ci[1]);
+        assertTrue(ci[1] > R*R, "mean " + result.getMeanHittingTime());
+        assertTrue(ci[0] < (R+1)*(R+1), "mean " + result.getMeanHittingTime());
+    }
+
+    @Test
+    void result_knownTimes() {
+        //Ten trials: hits at 1..8 steps, two censored at 20.
+        FirstPassageResult result = new FirstPassageResult(new long[] {1, 2, 3, 4, 5, 6, 7, 8}, 10, 20);
+        assertEquals(0.8, result.getHitProbability(), 1e-12);
+        assertEquals(0.3, result.getCumulativeProbability(3), 1e-12);
+        assertEquals(0.0, result.getCumulativeProbability(0), 1e-12);
+        assertEquals(5, result.getQuantile(0.5));
+        assertEquals(1, result.getQuantile(0.0));
+        assertEquals(FirstPassageResult.CENSORED, result.getQuantile(0.9));
+        assertEquals(4.5, result.getMeanHittingTime(), 1e-12);
+
+        double[] ci = result.getCumulativeProbabilityInterval(3, FirstPassageResult.Z_95);
+        assertTrue(ci[0] < 0.3 && 0.3 < ci[1]);
+        assertTrue(ci[0] > 0 && ci[1] < 1);
+        long[] qci = result.getQuantileInterval(0.5, FirstPassageResult.Z_95);
+        assertTrue(qci[0] <= 5);
+        assertTrue(qci[1] == FirstPassageResult.CENSORED || qci[1] >= 5);
+    }
+
+}
@@ -1,5 +1,9 @@
 import java.awt.datatransfer.FlavorEvent;
+import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -48,6 +52,28 @@ import static org.junit.jupiter.api.Assertions.*;
  * 7a. test common case of a 2x2 matrix
  * 7b. test exception thrown for malformed file
  * 7c. test exception thrown for file not found
+ * 7d. test CRLF line endings, signs and exponents parse exactly as Float.valueOf
+ * 7e. test exception thrown for rows of different lengths
+ *
+ * 8. toBinaryFile(), mapBinaryFile() and fromBinaryFile()
+ * 8a. test a rectangular matrix survives a round trip exactly
+ * 8b. test exception thrown for a file which is not a binary matrix file
+ * 8c. test exception thrown for file not found
+ * 8d. test a mapped matrix reads every entry and row, and writes back the same file
+ * 8e. test a mapped matrix is read-only, but a copy of it can be changed
+ *
+ * 9. toString(), prettyString(), summaryString() and writeTo()
+ * 9a. test toString() and prettyString() of a rectangular matrix
+ * 9b. test writeTo() writes the same as toString()
+ * 9c. test summaryString() of a small matrix equals prettyString()
+ * 9d. test summaryString() of a large matrix elides middle rows and columns
+ *
+ * 10. bulk access
+ * 10a. test getRow() and setRow() on a rectangular matrix
+ * 10b. test getRow() with invalid row index and short array
+ * 10c. test copyFrom() and fill()
+ * 10d. test asFloatBuffer() shares storage with the matrix
+ * 10e. test the copy constructor makes an independent copy
  */
 class FloatMatrixTest {
 
@@ -382,4 +408,226 @@ class FloatMatrixTest {
             //Exception expected.
         }
     }
-}
\ No newline at end of file
+
+    @org.junit.jupiter.api.Test
+    void fromFile_crlfFile() {
+        try {
+            FloatMatrix M = FloatMatrix.fromFile("test/inputs/crlf.txt");
+            assertEquals(2, M.rows());
+            assertEquals(3, M.columns());
+            assertEquals(Float.valueOf("0.25"), M.get(0, 0));
+            assertEquals(Float.valueOf("-1.5e2"), M.get(0, 1));
+            assertEquals(Float.valueOf("3"), M.get(0, 2));
+            assertEquals(Float.valueOf("1.0000001"), M.get(1, 0));
+            assertEquals(Float.valueOf("0.1"), M.get(1, 1));
+            assertEquals(Float.valueOf("7."), M.get(1, 2));
+        } catch (FileNotFoundException e) {
+            fail("FileNotFound exception occurred and was unexpected.");
+        }
+    }
+
+    @org.junit.jupiter.api.Test
+    void fromFile_raggedFile() {
+        try {
+            FloatMatrix M = FloatMatrix.fromFile("test/inputs/ragged.txt");
+            fail("FloatMatrix.fromFile() should have rejected rows of different lengths.");
+        } catch (RuntimeException e) {
+            assertEquals("Malformed file for FloatMatrix.fromFile. Are all rows the same length?", e.getMessage());
+        } catch (FileNotFoundException e) {
+            fail("FileNotFound exception occurred and was unexpected.");
+        }
+    }
+
+    @org.junit.jupiter.api.Test
+    void binaryFile_roundTrip() {
+        String path = "_binaryFile_roundTrip_UnitTest.fmat";
+        FloatMatrix M = new FloatMatrix(testMat2, 3);
+        M.set(1, 2, -0.1f);
+        try {
+            M.toBinaryFile(path);
+            File fp = new File(path);
+            assertEquals(FloatMatrix.BINARY_HEADER_SIZE + 6*Float.BYTES, fp.length());
+
+            FloatMatrix loaded = FloatMatrix.fromBinaryFile(path);
+            assertEquals(2, loaded.rows());
+            assertEquals(3, loaded.columns());
+            for (int i = 0; i < 2; ++i) {
+                for (int j = 0; j < 3; ++j) {
+                    assertEquals(M.get(i, j), loaded.get(i, j));
+                }
+            }
+            assertTrue(fp.delete(), "Expected to be able to delete binary file after writing to it.");
+        } catch (IOException e) {
+            fail("IOException occurred and was unexpected.");
+        }
+    }
+
+    @org.junit.jupiter.api.Test
+    void mapBinaryFile_roundTrip() throws IOException {
+        String path = "_mapBinaryFile_roundTrip_UnitTest.fmat";
+        String copyPath = "_mapBinaryFile_roundTrip_copy_UnitTest.fmat";
+        FloatMatrix M = new FloatMatrix(testMat2, 3);
+        M.set(1, 2, -0.1f);
+        try {
+            M.toBinaryFile(path);
+            FloatMatrix mapped = FloatMatrix.mapBinaryFile(path);
+            assertTrue(mapped.isReadOnly());
+            assertFalse(M.isReadOnly());
+            assertEquals(2, mapped.rows());
+            assertEquals(3, mapped.columns());
+            float[] row = new float[3];
+            for (int i = 0; i < 2; ++i) {
+                mapped.getRow(i, row);
+                for (int j = 0; j < 3; ++j) {
+                    assertEquals(M.get(i, j), mapped.get(i, j));
+                    assertEquals(M.get(i, j), row[j]);
+                }
+            }
+            assertEquals(M.get(1, 2), mapped.asFloatBuffer().get(5));
+            assertEquals(M.multiply(new FloatMatrix(testMat2, 2)).toString(),
+                    mapped.multiply(new FloatMatrix(testMat2, 2)).toString());
+
+            mapped.toBinaryFile(copyPath);
+            assertArrayEquals(Files.readAllBytes(Paths.get(path)), Files.readAllBytes(Paths.get(copyPath)));
+        } finally {
+            new File(path).delete();
+            new File(copyPath).delete();
+        }
+    }
+
+    @org.junit.jupiter.api.Test
+    void mapBinaryFile_readOnly() throws IOException {
+        String path = "_mapBinaryFile_readOnly_UnitTest.fmat";
+        try {
+            new FloatMatrix(testMat2, 3).toBinaryFile(path);
+            FloatMatrix mapped = FloatMatrix.mapBinaryFile(path);
+            assertThrows(UnsupportedOperationException.class, () -> mapped.set(0, 0, 1.0f));
+            assertThrows(UnsupportedOperationException.class, () -> mapped.setRow(0, new float[3]));
+            assertThrows(UnsupportedOperationException.class, () -> mapped.copyFrom(new float[6]));
+            assertThrows(UnsupportedOperationException.class, () -> mapped.fill(1.0f));
+            assertThrows(java.nio.ReadOnlyBufferException.class, () -> mapped.asFloatBuffer().put(0, 1.0f));
+
+            FloatMatrix copy = new FloatMatrix(mapped);
+            assertFalse(copy.isReadOnly());
+            copy.set(0, 0, 7.0f);
+            assertEquals(7.0f, copy.get(0, 0));
+            assertEquals(testMat2[0], mapped.get(0, 0));
+        } finally {
+            new File(path).delete();
+        }
+    }
+
+    @org.junit.jupiter.api.Test
+    void binaryFile_malformedFile() {
+        try {
+            FloatMatrix M = FloatMatrix.fromBinaryFile("test/inputs/good.txt");
+            fail("FloatMatrix.fromBinaryFile() should have rejected a text file.");
+        } catch (RuntimeException e) {
+            //Exception expected.
+        } catch (IOException e) {
+            fail("IOException occurred and was unexpected.");
+        }
+    }
+
+    @org.junit.jupiter.api.Test
+    void binaryFile_notFound() {
+        try {
+            FloatMatrix M = FloatMatrix.fromBinaryFile("asldijfbqwoe8rt.qwe9c");
+            fail("FloatMatrix.fromBinaryFile() should have failed to find the file.");
+        } catch (FileNotFoundException e) {
+            //Exception expected.
+        } catch (IOException e) {
+            fail("Expected FileNotFoundException but got: " + e);
+        }
+    }
+
+    @org.junit.jupiter.api.Test
+    void toString_rectangle() {
+        FloatMatrix M = new FloatMatrix(testMat2, 3);
+        assertEquals("[[1.0, 2.0, 3.0], [4.0, 5.0, 6.0]]", M.toString());
+        assertEquals("[[1.0, 2.0, 3.0],\n[4.0, 5.0, 6.0]]", M.prettyString());
+    }
+
+    @org.junit.jupiter.api.Test
+    void writeTo_matchesToString() {
+        FloatMatrix M = new FloatMatrix(testMat2, 2);
+        StringBuilder sb = new StringBuilder();
+        try {
+            M.writeTo(sb);
+        } catch (IOException e) {
+            fail("IOException occurred and was unexpected.");
+        }
+        assertEquals(M.toString(), sb.toString());
+    }
+
+    @org.junit.jupiter.api.Test
+    void summaryString_small() {
+        FloatMatrix M = new FloatMatrix(testMat2, 3);
+        assertEquals(M.prettyString(), M.summaryString(1));
+    }
+
+    @org.junit.jupiter.api.Test
+    void summaryString_large() {
+        float[] vals = new float[25];
+        for (int i = 0; i < vals.length; ++i) {
+            vals[i] = i;
+        }
+        FloatMatrix M = new FloatMatrix(vals, 5);
+        assertEquals("[[0.0, ..., 4.0],\n...,\n[20.0, ..., 24.0]]", M.summaryString(1));
+    }
+
+    @org.junit.jupiter.api.Test
+    void getRow_setRow() {
+        FloatMatrix M = new FloatMatrix(testMat2, 3);
+        float[] row = new float[3];
+        M.getRow(1, row);
+        assertArrayEquals(new float[] {4.0f, 5.0f, 6.0f}, row);
+
+        M.setRow(0, row);
+        assertEquals(4.0f, M.get(0, 0));
+        assertEquals(6.0f, M.get(0, 2));
+        assertEquals(4.0f, M.get(1, 0));
+    }
+
+    @org.junit.jupiter.api.Test
+    void getRow_invalid() {
+        FloatMatrix M = new FloatMatrix(testMat2, 3);
+        assertThrows(IndexOutOfBoundsException.class, () -> M.getRow(2, new float[3]));
+        assertThrows(IndexOutOfBoundsException.class, () -> M.setRow(-1, new float[3]));
+        assertThrows(IllegalArgumentException.class, () -> M.getRow(0, new float[2]));
+    }
+
+    @org.junit.jupiter.api.Test
+    void copyFrom_fill() {
+        FloatMatrix M = new FloatMatrix(2);
+        M.copyFrom(testMat1);
+        assertEquals(3.0f, M.get(1, 0));
+        assertThrows(IllegalArgumentException.class, () -> M.copyFrom(testMat2));
+
+        M.fill(7.0f);
+        for (int i = 0; i < M.rows(); ++i) {
+            for (int j = 0; j < M.columns(); ++j) {
+                assertEquals(7.0f, M.get(i, j));
+            }
+        }
+    }
+
+    @org.junit.jupiter.api.Test
+    void asFloatBuffer_view() {
+        FloatMatrix M = new FloatMatrix(testMat2, 3);
+        java.nio.FloatBuffer view = M.asFloatBuffer();
+        assertEquals(6, view.capacity());
+        assertEquals(5.0f, view.get(1*3 + 1));
+        view.put(2, 9.0f);
+        assertEquals(9.0f, M.get(0, 2));
+    }
+
+    @org.junit.jupiter.api.Test
+    void copyConstructor_independent() {
+        FloatMatrix M = new FloatMatrix(testMat2, 3);
+        FloatMatrix copy = new FloatMatrix(M);
+        M.set(0, 0, 100.0f);
+        assertEquals(1.0f, copy.get(0, 0));
+        assertEquals(6.0f, copy.get(1, 2));
+    }
+}
@@ -0,0 +1,156 @@
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the HigherOrderMarkovChain class.
+ *
+ * 1. contextOf()
+ * 1a. headings are base-4 digits, most recent lowest.
+ *
+ * 2. nextState()
+ * 2a. the context shifts in each new heading and forgets the oldest.
+ * 2b. a second-order chain which never repeats the heading of two steps ago.
+ * 2c. headings with zero probability are never chosen, including the last.
+ * 2d. a table built from a first-order matrix samples with that matrix's frequencies, at order 8.
+ *
+ * 3. constructor and isValidTransitionTable()
+ * 3a. tables of the wrong shape, rows not summing to 1, or negative entries are rejected.
+ *
+ * 4. setContext()
+ * 4a. valid and invalid contexts.
+ */
+public class HigherOrderMarkovChainTest {
+
+    static final int N = 0, E = 1, S = 2, W = 3;
+
+    /**
+     * A table of the given order in which every context always heads in one direction.
+     */
+    static FloatMatrix constantTable(int order, int heading) {
+        FloatMatrix T = new FloatMatrix(1 << (2 * order), 4);
+        for (int c = 0; c < T.rows(); ++c) {
+            T.set(c, heading, 1.0f);
+        }
+        return T;
+    }
+
+    @Test
+    void contextOf_digits() {
+        assertEquals(0, HigherOrderMarkovChain.contextOf());
+        assertEquals(W, HigherOrderMarkovChain.contextOf(W));
+        assertEquals(4 * E + S, HigherOrderMarkovChain.contextOf(E, S));
+        assertEquals(16 * W + 4 * N + E, HigherOrderMarkovChain.contextOf(W, N, E));
+        assertThrows(IllegalArgumentException.class, () -> HigherOrderMarkovChain.contextOf(4));
+    }
+
+    @Test
+    void nextState_shiftsContext() {
+        HigherOrderMarkovChain mc = new HigherOrderMarkovChain(2, constantTable(2, E));
+        assertTrue(mc.setContext(HigherOrderMarkovChain.contextOf(S, W)));
+        assertEquals(E, mc.nextState());
+        assertEquals(HigherOrderMarkovChain.contextOf(W, E), mc.getContext());
+        assertEquals("E", mc.getStateString());
+        mc.nextState();
+        assertEquals(HigherOrderMarkovChain.contextOf(E, E), mc.getContext());
+    }
+
+    @Test
+    void nextState_secondOrder() {
+        //Never head the way the walker was heading two steps ago; otherwise uniform.
+        FloatMatrix T = new FloatMatrix(16, 4);
+        for (int older = 0; older < 4; ++older) {
+            for (int last = 0; last < 4; ++last) {
+                for (int h = 0; h < 4; ++h) {
+                    T.set(HigherOrderMarkovChain.contextOf(older, last), h, h == older ? 0.0f : 1.0f / 3);
+                }
+            }
+        }
+        HigherOrderMarkovChain mc = new HigherOrderMarkovChain(2, T, 5);
+        int[] seen = new int[4];
+        int older = mc.getContext() / 4;
+        for (int i = 0; i < 30000; ++i) {
+            int h = mc.nextState();
+            assertNotEquals(older, h);
+            ++seen[h];
+            older = mc.getContext() / 4;
+        }
+        for (int h = 0; h < 4; ++h) {
+            assertEquals(7500, seen[h], 500);
+        }
+    }
+
+    @Test
+    void nextState_zeroProbability() {
+        FloatMatrix T = new FloatMatrix(4, 4);
+        for (int c = 0; c < 4; ++c) {
+            T.set(c, N, 0.0f);
+            T.set(c, E, 0.5f);
+            T.set(c, S, 0.5f);
+            T.set(c, W, 0.0f);
+        }
+        HigherOrderMarkovChain mc = new HigherOrderMarkovChain(1, T, 11);
+        for (int i = 0; i < 20000; ++i) {
+            int h = mc.nextState();
+            assertTrue(h == E || h == S, "heading " + h);
+        }
+        assertEquals(0.0f, mc.getTransitionProbability(0, W));
+        assertEquals(0.5f, mc.getTransitionProbability(2, S));
+    }
+
+    @Test
+    void nextState_fromFirstOrder() {
+        float[] vals = {
+                0.7f, 0.1f, 0.0f, 0.2f,
+                0.1f, 0.6f, 0.3f, 0.0f,
+                0.0f, 0.4f, 0.4f, 0.2f,
+                0.25f, 0.25f, 0.25f, 0.25f};
+        FloatMatrix M = new FloatMatrix(vals, 4);
+        HigherOrderMarkovChain mc = new HigherOrderMarkovChain(8, HigherOrderMarkovChain.tableFromFirstOrder(8, M), 3);
+        assertEquals(65536, mc.getNumContexts());
+        long[] counts = new long[16];
+        int last = mc.getHeading();
+        int n = 400000;
+        for (int i = 0; i < n; ++i) {
+            int h = mc.nextState();
+            ++counts[last * 4 + h];
+            last = h;
+        }
+        for (int i = 0; i < 4; ++i) {
+            long total = counts[i*4] + counts[i*4 + 1] + counts[i*4 + 2] + counts[i*4 + 3];
+            for (int j = 0; j < 4; ++j) {
+                assertEquals(M.get(i, j), (double) counts[i*4 + j] / total, 0.01, "entry (" + i + ", " + j + ")");
+            }
+        }
+    }
+
+    @Test
+    void isValidTransitionTable_invalid() {
+        assertTrue(HigherOrderMarkovChain.isValidTransitionTable(constantTable(3, N), 3));
+        assertFalse(HigherOrderMarkovChain.isValidTransitionTable(constantTable(3, N), 2));
+        assertFalse(HigherOrderMarkovChain.isValidTransitionTable(null, 1));
+
+        FloatMatrix badSum = constantTable(1, N);
+        badSum.set(2, E, 0.5f);
+        assertFalse(HigherOrderMarkovChain.isValidTransitionTable(badSum, 1));
+
+        FloatMatrix negative = constantTable(1, N);
+        negative.set(0, N, 1.5f);
+        negative.set(0, E, -0.5f);
+        assertFalse(HigherOrderMarkovChain.isValidTransitionTable(negative, 1));
+
+        assertThrows(IllegalArgumentException.class, () -> new HigherOrderMarkovChain(1, badSum));
+        assertThrows(IllegalArgumentException.class, () -> new HigherOrderMarkovChain(HigherOrderMarkovChain.MAX_ORDER + 1, badSum));
+    }
+
+    @Test
+    void setContext() {
+        HigherOrderMarkovChain mc = new HigherOrderMarkovChain(2, constantTable(2, N));
+        assertTrue(mc.setContext(15));
+        assertEquals(15, mc.getContext());
+        assertFalse(mc.setContext(16));
+        assertFalse(mc.setContext(-1));
+        assertEquals(15, mc.getContext());
+    }
+
+}
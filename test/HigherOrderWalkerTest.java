@@ -0,0 +1,69 @@
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the HigherOrderWalker class.
+ *
+ * 1. walk()
+ * 1a. a walk of N steps has N + 1 points joined by unit steps, starting at the origin.
+ * 1b. a walker which always heads west walks along the negative x axis.
+ * 1c. a walk of 0 steps is empty.
+ *
+ * 2. saveWalkToFile()
+ * 2a. the saved walk is read back by TransitionEstimator with the walker's own transitions.
+ */
+public class HigherOrderWalkerTest {
+
+    @Test
+    void walk_unitSteps() {
+        FloatMatrix T = new FloatMatrix(64, 4);
+        T.fill(0.25f);
+        HigherOrderWalker walker = new HigherOrderWalker(new HigherOrderMarkovChain(3, T, 1));
+        ArrayList<Coordinate> path = walker.walk(1000);
+        assertEquals(1001, path.size());
+        assertEquals(0, path.get(0).x);
+        assertEquals(0, path.get(0).y);
+        for (int i = 1; i < path.size(); ++i) {
+            int d = Math.abs(path.get(i).x - path.get(i-1).x) + Math.abs(path.get(i).y - path.get(i-1).y);
+            assertEquals(1, d);
+        }
+    }
+
+    @Test
+    void walk_west() {
+        HigherOrderWalker walker = new HigherOrderWalker(new HigherOrderMarkovChain(2, HigherOrderMarkovChainTest.constantTable(2, 3)));
+        ArrayList<Coordinate> path = walker.walk(5);
+        assertEquals(-5, path.get(5).x);
+        assertEquals(0, path.get(5).y);
+        assertTrue(walker.walk(0).isEmpty());
+    }
+
+    @Test
+    void saveWalkToFile_estimate() throws IOException {
+        String fname = "_HigherOrderWalker_UnitTest.dat";
+        try {
+            //Turn right every step: N, E, S, W, N, ...
+            FloatMatrix T = new FloatMatrix(16, 4);
+            for (int c = 0; c < 16; ++c) {
+                T.set(c, ((c & 3) + 1) % 4, 1.0f);
+            }
+            HigherOrderWalker walker = new HigherOrderWalker(new HigherOrderMarkovChain(2, T));
+            walker.walk(40);
+            walker.saveWalkToFile(fname);
+            TransitionEstimator est = new TransitionEstimator();
+            est.addWalkFile(fname);
+            assertEquals(39, est.getNumTransitions());
+            for (int h = 0; h < 4; ++h) {
+                assertEquals(1.0f, est.getTransitionMatrix().get(h, (h + 1) % 4));
+            }
+        } finally {
+            new File(fname).delete();
+        }
+    }
+
+}
@@ -0,0 +1,146 @@
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the LatticePropagator class.
+ *
+ * 1. advance()
+ * 1a. a walker which always heads east is at (n, 0), heading east, with probability 1.
+ * 1b. the unbiased walk matches its closed form, C(n, (n+x+y)/2) C(n, (n+x-y)/2) / 4^n, and has
+ *     mean squared displacement n, including after the grid has grown.
+ * 1c. the result does not depend on the number of threads.
+ * 1d. probability stepping beyond the maximum radius is dropped.
+ * 1e. a persistent walk agrees with the endpoint histogram of an EndpointEnsemble.
+ * 1f. the grid grows to cover the walk's reach, but never past 3n/2 or the maximum radius.
+ *
+ * 2. toFloatMatrix()
+ * 2a. the matrix has the same layout as EndpointHistogram.toFloatMatrix().
+ */
+public class LatticePropagatorTest {
+
+    MarkovChain persistentChain() {
+        //Keep heading with probability 1/2, turn either way with 1/4 each, never reverse.
+        float[] vals = {
+                0.5f, 0.25f, 0.0f, 0.25f,
+                0.25f, 0.5f, 0.25f, 0.0f,
+                0.0f, 0.25f, 0.5f, 0.25f,
+                0.25f, 0.0f, 0.25f, 0.5f};
+        return new MarkovChain(new FloatMatrix(vals, 4), MarkovChainTest.CARDINALS);
+    }
+
+    static double binomial(int n, int k) {
+        if (k < 0 || k > n) {
+            return 0;
+        }
+        double c = 1;
+        for (int i = 1; i <= k; ++i) {
+            c = c * (n - k + i) / i;
+        }
+        return c;
+    }
+
+    @Test
+    void advance_deterministic() {
+        LatticePropagator p = new LatticePropagator(MarkovChainTest.constantChain(1), 100, 1);
+        p.advance(5);
+        assertEquals(5, p.getNumSteps());
+        assertEquals(1.0, p.getProbability(5, 0), 1e-12);
+        assertEquals(1.0, p.getProbability(5, 0, 1), 1e-12);
+        assertEquals(0.0, p.getProbability(5, 0, 0));
+        assertEquals(25.0, p.getMeanSquaredDisplacement(), 1e-9);
+    }
+
+    @Test
+    void advance_unbiased() {
+        int n = 40;
+        LatticePropagator p = new LatticePropagator(MarkovChainTest.uniformChain(), Integer.MAX_VALUE, 1);
+        p.advance(n);
+        assertEquals(1.0, p.getTotalProbability(), 1e-9);
+        assertEquals(n, p.getMeanSquaredDisplacement(), 1e-9);
+        for (int[] site : new int[][] {{0, 0}, {2, 0}, {3, 5}, {-10, 4}, {1, 0}, {40, 0}, {41, 0}}) {
+            int x = site[0];
+            int y = site[1];
+            double expected = 0;
+            if (((n + x + y) & 1) == 0) {
+                expected = binomial(n, (n + x + y) / 2) * binomial(n, (n + x - y) / 2) / Math.pow(4, n);
+            }
+            assertEquals(expected, p.getProbability(x, y), 1e-12, "(" + x + ", " + y + ")");
+        }
+    }
+
+    @Test
+    void advance_independentOfThreads() {
+        LatticePropagator a = new LatticePropagator(persistentChain(), Integer.MAX_VALUE, 1);
+        LatticePropagator b = new LatticePropagator(persistentChain(), Integer.MAX_VALUE, 3);
+        a.advance(50);
+        b.advance(20);
+        b.advance(30);
+        for (int y = -50; y <= 50; ++y) {
+            for (int x = -50; x <= 50; ++x) {
+                assertEquals(a.getProbability(x, y), b.getProbability(x, y));
+            }
+        }
+    }
+
+    @Test
+    void advance_maxRadius() {
+        LatticePropagator p = new LatticePropagator(MarkovChainTest.constantChain(0), 2, 1);
+        p.advance(2);
+        assertEquals(1.0, p.getProbability(0, 2), 1e-12);
+        p.step();
+        assertEquals(0.0, p.getTotalProbability());
+
+        //From (1, 0), an unbiased walk confined to radius 1 only loses the step to (2, 0).
+        LatticePropagator q = new LatticePropagator(MarkovChainTest.uniformChain(), 1, 1);
+        q.advance(2);
+        assertEquals(0.75, q.getTotalProbability(), 1e-9);
+    }
+
+    @Test
+    void advance_gridGrowth() {
+        LatticePropagator p = new LatticePropagator(MarkovChainTest.constantChain(1), Integer.MAX_VALUE, 1);
+        assertEquals(LatticePropagator.INITIAL_RADIUS, p.getRadius());
+        for (int n = 1; n <= 300; ++n) {
+            p.step();
+            assertTrue(p.getRadius() >= n, "n = " + n);
+            assertTrue(p.getRadius() <= Math.max(LatticePropagator.INITIAL_RADIUS, 3 * n / 2), "n = " + n);
+        }
+        LatticePropagator q = new LatticePropagator(MarkovChainTest.constantChain(1), 40, 1);
+        q.advance(100);
+        assertEquals(40, q.getRadius());
+    }
+
+    @Test
+    void advance_matchesEnsemble() {
+        int n = 12;
+        int nWalkers = 200000;
+        LatticePropagator p = new LatticePropagator(persistentChain(), Integer.MAX_VALUE, 2);
+        p.advance(n);
+        EndpointHistogram h = new EndpointEnsemble(persistentChain(), 2).run(nWalkers, n, n, 1, 7);
+        for (int y = -n; y <= n; ++y) {
+            for (int x = -n; x <= n; ++x) {
+                double exact = p.getProbability(x, y);
+                double sigma = Math.sqrt(exact * (1 - exact) / nWalkers);
+                assertEquals(exact, h.getProbability(x, y), 5 * sigma + 1e-9, "(" + x + ", " + y + ")");
+            }
+        }
+        assertEquals(p.getMeanSquaredDisplacement(), h.getMeanSquaredDisplacement(), 0.02 * p.getMeanSquaredDisplacement());
+    }
+
+    @Test
+    void toFloatMatrix_layout() {
+        LatticePropagator p = new LatticePropagator(MarkovChainTest.constantChain(0), 10, 1);
+        p.advance(2);
+        FloatMatrix M = p.toFloatMatrix(3);
+        EndpointHistogram h = new EndpointEnsemble(MarkovChainTest.constantChain(0), 1).run(10, 2, 3, 1, 0);
+        FloatMatrix H = h.toFloatMatrix();
+        for (int r = 0; r < 7; ++r) {
+            for (int c = 0; c < 7; ++c) {
+                assertEquals(H.get(r, c), M.get(r, c));
+            }
+        }
+        assertEquals(1.0f, M.get(1, 3));
+    }
+
+}
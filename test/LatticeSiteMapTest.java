@@ -0,0 +1,80 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the LatticeSiteMap class.
+ *
+ * 1. put(), get()
+ * 1a. a new site returns NOT_FOUND; putting it again replaces and returns the old value.
+ * 1b. missing sites and the empty marker site are not found.
+ *
+ * 2. remove()
+ * 2a. removing a site returns its value and leaves the others reachable.
+ * 2b. random puts and removes, forcing growth and probe run shifts, match a HashMap.
+ */
+public class LatticeSiteMapTest {
+
+    @Test
+    void put_replace() {
+        LatticeSiteMap map = new LatticeSiteMap();
+        long site = Coordinate.pack(-3, 4);
+        assertEquals(LatticeSiteMap.NOT_FOUND, map.put(site, 7));
+        assertEquals(7, map.get(site));
+        assertEquals(7, map.put(site, 9));
+        assertEquals(9, map.get(site));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    void get_missing() {
+        LatticeSiteMap map = new LatticeSiteMap();
+        map.put(Coordinate.pack(1, 1), 0);
+        assertEquals(LatticeSiteMap.NOT_FOUND, map.get(Coordinate.pack(1, 2)));
+        assertEquals(LatticeSiteMap.NOT_FOUND, map.get(Coordinate.pack(Integer.MIN_VALUE, 0)));
+        assertThrows(IllegalArgumentException.class, () -> map.put(Coordinate.pack(Integer.MIN_VALUE, 0), 1));
+    }
+
+    @Test
+    void remove_keepsOthers() {
+        LatticeSiteMap map = new LatticeSiteMap(4);
+        for (int i = 0; i < 100; ++i) {
+            map.put(Coordinate.pack(i, 0), i);
+        }
+        assertEquals(50, map.remove(Coordinate.pack(50, 0)));
+        assertEquals(LatticeSiteMap.NOT_FOUND, map.remove(Coordinate.pack(50, 0)));
+        assertEquals(99, map.size());
+        for (int i = 0; i < 100; ++i) {
+            assertEquals(i == 50 ? LatticeSiteMap.NOT_FOUND : i, map.get(Coordinate.pack(i, 0)));
+        }
+    }
+
+    @Test
+    void remove_randomMatchesHashMap() {
+        //A small key range in a table which stays small makes long probe runs.
+        LatticeSiteMap map = new LatticeSiteMap(16);
+        HashMap<Long, Integer> expected = new HashMap<>();
+        Random rng = new Random(1);
+        for (int i = 0; i < 300000; ++i) {
+            long site = Coordinate.pack(rng.nextInt(60) - 30, rng.nextInt(60) - 30);
+            if (rng.nextInt(3) == 0) {
+                Integer old = expected.remove(site);
+                assertEquals(old == null ? LatticeSiteMap.NOT_FOUND : old, map.remove(site));
+            } else {
+                Integer old = expected.put(site, i);
+                assertEquals(old == null ? LatticeSiteMap.NOT_FOUND : old, map.put(site, i));
+            }
+        }
+        assertEquals(expected.size(), map.size());
+        for (int x = -31; x <= 31; ++x) {
+            for (int y = -31; y <= 31; ++y) {
+                Integer val = expected.get(Coordinate.pack(x, y));
+                assertEquals(val == null ? LatticeSiteMap.NOT_FOUND : val, map.get(Coordinate.pack(x, y)));
+            }
+        }
+    }
+
+}
@@ -0,0 +1,84 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the LatticeSiteSet class.
+ *
+ * 1. add(), contains(), size()
+ * 1a. a new site is added once; adding it again reports false.
+ * 1b. negative and extreme coordinates are distinct sites.
+ * 1c. many sites, forcing the table to grow, match a HashSet.
+ * 1d. the empty marker site is rejected.
+ *
+ * 2. clear()
+ * 2a. clearing empties the set, which can be reused.
+ */
+public class LatticeSiteSetTest {
+
+    @Test
+    void add_once() {
+        LatticeSiteSet set = new LatticeSiteSet();
+        assertTrue(set.add(1, 2));
+        assertFalse(set.add(1, 2));
+        assertTrue(set.contains(1, 2));
+        assertFalse(set.contains(2, 1));
+        assertEquals(1, set.size());
+    }
+
+    @Test
+    void add_extremes() {
+        LatticeSiteSet set = new LatticeSiteSet(1);
+        int[][] sites = {{0, 0}, {-1, 0}, {0, -1}, {-1, -1}, {Integer.MAX_VALUE, Integer.MIN_VALUE},
+                {Integer.MIN_VALUE, 1}, {Integer.MIN_VALUE, -1}};
+        for (int[] site : sites) {
+            assertTrue(set.add(site[0], site[1]));
+        }
+        for (int[] site : sites) {
+            assertTrue(set.contains(site[0], site[1]));
+        }
+        assertEquals(sites.length, set.size());
+        assertFalse(set.contains(Integer.MIN_VALUE, 0));
+    }
+
+    @Test
+    void add_manyMatchesHashSet() {
+        LatticeSiteSet set = new LatticeSiteSet(4);
+        HashSet<Long> expected = new HashSet<>();
+        Random rng = new Random(42);
+        for (int i = 0; i < 200000; ++i) {
+            int x = rng.nextInt(1000) - 500;
+            int y = rng.nextInt(1000) - 500;
+            assertEquals(expected.add(Coordinate.pack(x, y)), set.add(x, y));
+        }
+        assertEquals(expected.size(), set.size());
+        for (int i = 0; i < 10000; ++i) {
+            int x = rng.nextInt(1200) - 600;
+            int y = rng.nextInt(1200) - 600;
+            assertEquals(expected.contains(Coordinate.pack(x, y)), set.contains(x, y));
+        }
+    }
+
+    @Test
+    void add_emptyMarkerRejected() {
+        LatticeSiteSet set = new LatticeSiteSet();
+        assertThrows(IllegalArgumentException.class, () -> set.add(Integer.MIN_VALUE, 0));
+    }
+
+    @Test
+    void clear_reuse() {
+        LatticeSiteSet set = new LatticeSiteSet();
+        for (int i = 0; i < 5000; ++i) {
+            set.add(i, -i);
+        }
+        set.clear();
+        assertEquals(0, set.size());
+        assertFalse(set.contains(10, -10));
+        assertTrue(set.add(10, -10));
+        assertEquals(1, set.size());
+    }
+
+}
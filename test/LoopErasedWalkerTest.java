@@ -0,0 +1,85 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the LoopErasedWalker class.
+ *
+ * 1. walk()
+ * 1a. the path is self-avoiding with unit steps, and ends where the random walk ends.
+ * 1b. the path matches a direct quadratic loop erasure of the same random walk.
+ * 1c. the path length agrees with getNumErased().
+ * 1d. zero steps gives an empty path.
+ * 1e. a long walk finishes quickly.
+ */
+public class LoopErasedWalkerTest {
+
+    //Erase loops by scanning the path, as the walker would without its site map.
+    ArrayList<Coordinate> eraseLoops(ArrayList<Coordinate> walk) {
+        ArrayList<Coordinate> erased = new ArrayList<>();
+        for (Coordinate c : walk) {
+            int earlier = -1;
+            for (int i = 0; i < erased.size(); ++i) {
+                if (erased.get(i).x == c.x && erased.get(i).y == c.y) {
+                    earlier = i;
+                    break;
+                }
+            }
+            if (earlier >= 0) {
+                erased.subList(earlier + 1, erased.size()).clear();
+            } else {
+                erased.add(c);
+            }
+        }
+        return erased;
+    }
+
+    @Test
+    void walk_selfAvoiding() {
+        ArrayList<Coordinate> path = new LoopErasedWalker(MarkovChainTest.uniformChain(3)).walk(20000);
+        ArrayList<Coordinate> walk = new RandomWalker(MarkovChainTest.uniformChain(3)).walk(20000);
+        HashSet<Long> seen = new HashSet<>();
+        for (int i = 0; i < path.size(); ++i) {
+            Coordinate c = path.get(i);
+            assertTrue(seen.add(Coordinate.pack(c.x, c.y)), "site revisited at " + i);
+            if (i > 0) {
+                Coordinate prev = path.get(i-1);
+                assertEquals(1, Math.abs(c.x - prev.x) + Math.abs(c.y - prev.y));
+            }
+        }
+        assertEquals(walk.get(walk.size() - 1).toString(), path.get(path.size() - 1).toString());
+    }
+
+    @Test
+    void walk_matchesDirectErasure() {
+        for (long seed = 0; seed < 5; ++seed) {
+            ArrayList<Coordinate> path = new LoopErasedWalker(MarkovChainTest.uniformChain(seed)).walk(3000);
+            ArrayList<Coordinate> expected = eraseLoops(new RandomWalker(MarkovChainTest.uniformChain(seed)).walk(3000));
+            assertEquals(expected.toString(), path.toString());
+        }
+    }
+
+    @Test
+    void walk_numErased() {
+        LoopErasedWalker walker = new LoopErasedWalker(MarkovChainTest.uniformChain(8));
+        ArrayList<Coordinate> path = walker.walk(5000);
+        assertEquals(5000 + 1 - walker.getNumErased(), path.size());
+    }
+
+    @Test
+    void walk_zeroSteps() {
+        assertTrue(new LoopErasedWalker(MarkovChainTest.uniformChain(0)).walk(0).isEmpty());
+    }
+
+    @Test
+    void walk_long() {
+        long start = System.nanoTime();
+        ArrayList<Coordinate> path = new LoopErasedWalker(MarkovChainTest.uniformChain(5)).walk(2000000);
+        assertFalse(path.isEmpty());
+        assertTrue(System.nanoTime() - start < 20_000_000_000L, "2*10^6 steps should not take quadratic time");
+    }
+
+}
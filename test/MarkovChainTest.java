@@ -25,6 +25,15 @@ import static org.junit.jupiter.api.Assertions.*;
  * 5a. a valid transition matrix should return true
  * 5b. a transition matrix with valid sums but invalid dimensions
  * 5c. a transition matrix of size 1 (edge case)
+ *
+ * 6. getExpectedHittingTimes()
+ * 6a. gambler's ruin: the time to reach either end from i is i(N-i), by every solver
+ * 6b. states which might be trapped away from the target have infinite hitting time
+ * 6c. an invalid target state throws
+ *
+ * 7. getAbsorptionProbabilities()
+ * 7a. gambler's ruin: the probability of reaching N before 0 from i is i/N, by every solver
+ * 7b. a state which can never be absorbed has probability 0
  */
 class MarkovChainTest {
 
@@ -140,6 +149,114 @@ class MarkovChainTest {
         assertTrue(valid);
     }
 
+    /**
+     * The fair gambler's ruin chain on 0..N, with 0 and N absorbing.
+     */
+    static FloatMatrix gamblersRuin(int N) {
+        FloatMatrix M = new FloatMatrix(N + 1, N + 1);
+        M.set(0, 0, 1.0f);
+        M.set(N, N, 1.0f);
+        for (int i = 1; i < N; ++i) {
+            M.set(i, i - 1, 0.5f);
+            M.set(i, i + 1, 0.5f);
+        }
+        return M;
+    }
+
+    //Direction chains over the cardinal headings, shared by the walker tests.
+    static final String[] CARDINALS = {"N", "E", "S", "W"};
+
+    /**
+     * A direction chain which heads each way with probability 1/4.
+     */
+    static MarkovChain uniformChain(long seed) {
+        FloatMatrix T = new FloatMatrix(4, 4);
+        T.fill(0.25f);
+        return new MarkovChain(T, CARDINALS, seed);
+    }
+
+    static MarkovChain uniformChain() {
+        return uniformChain(0);
+    }
+
+    /**
+     * A direction chain which always heads in one direction, 0 to 3 in the order of CARDINALS.
+     */
+    static MarkovChain constantChain(int direction) {
+        FloatMatrix T = new FloatMatrix(4, 4);
+        for (int i = 0; i < 4; ++i) {
+            T.set(i, direction, 1.0f);
+        }
+        return new MarkovChain(T, CARDINALS);
+    }
+
+    static final int[] SOLVERS = {TransientSolver.AUTO, TransientSolver.LU, TransientSolver.GAUSS_SEIDEL, TransientSolver.JACOBI};
+
+    @org.junit.jupiter.api.Test
+    void getExpectedHittingTimes_gamblersRuin() {
+        int N = 20;
+        MarkovChain mc = new MarkovChain(gamblersRuin(N));
+        for (int method : SOLVERS) {
+            double[] h = mc.getExpectedHittingTimes(new int[] {0, N}, method);
+            for (int i = 0; i <= N; ++i) {
+                assertEquals(i * (N - i), h[i], 1e-6, "state " + i + " by method " + method);
+            }
+        }
+    }
 
+    @org.junit.jupiter.api.Test
+    void getExpectedHittingTimes_trapped() {
+        //State 3 is a trap; state 2 may fall into it, state 1 may reach 2.
+        float[] vals = {
+                1.0f, 0.0f, 0.0f, 0.0f,
+                0.5f, 0.0f, 0.5f, 0.0f,
+                0.0f, 0.5f, 0.0f, 0.5f,
+                0.0f, 0.0f, 0.0f, 1.0f};
+        MarkovChain mc = new MarkovChain(new FloatMatrix(vals, 4));
+        double[] h = mc.getExpectedHittingTimes(new int[] {0});
+        assertEquals(0.0, h[0]);
+        assertEquals(Double.POSITIVE_INFINITY, h[1]);
+        assertEquals(Double.POSITIVE_INFINITY, h[2]);
+        assertEquals(Double.POSITIVE_INFINITY, h[3]);
+
+        //With the trap as a target too, every state hits: h1 = 1 + h2/2, h2 = 1 + h1/2.
+        h = mc.getExpectedHittingTimes(new int[] {0, 3});
+        assertEquals(2.0, h[1], 1e-9);
+        assertEquals(2.0, h[2], 1e-9);
+    }
+
+    @org.junit.jupiter.api.Test
+    void getExpectedHittingTimes_invalid() {
+        MarkovChain mc = new MarkovChain(new FloatMatrix(testMat2, 2));
+        assertThrows(IllegalArgumentException.class, () -> mc.getExpectedHittingTimes(new int[] {2}));
+        assertThrows(IllegalArgumentException.class, () -> mc.getExpectedHittingTimes(new int[0]));
+    }
+
+    @org.junit.jupiter.api.Test
+    void getAbsorptionProbabilities_gamblersRuin() {
+        int N = 20;
+        MarkovChain mc = new MarkovChain(gamblersRuin(N));
+        for (int method : SOLVERS) {
+            double[][] B = mc.getAbsorptionProbabilities(new int[] {0, N}, method);
+            for (int i = 0; i <= N; ++i) {
+                assertEquals(1.0 - (double) i / N, B[i][0], 1e-9, "state " + i + " by method " + method);
+                assertEquals((double) i / N, B[i][1], 1e-9, "state " + i + " by method " + method);
+            }
+        }
+    }
+
+    @org.junit.jupiter.api.Test
+    void getAbsorptionProbabilities_neverAbsorbed() {
+        //States 1 and 2 swap forever and never reach state 0.
+        float[] vals = {
+                1.0f, 0.0f, 0.0f,
+                0.0f, 0.0f, 1.0f,
+                0.0f, 1.0f, 0.0f};
+        MarkovChain mc = new MarkovChain(new FloatMatrix(vals, 3));
+        double[][] B = mc.getAbsorptionProbabilities(new int[] {0});
+        assertEquals(1.0, B[0][0]);
+        assertEquals(0.0, B[1][0]);
+        assertEquals(0.0, B[2][0]);
+    }
 
-}
\ No newline at end of file
+}
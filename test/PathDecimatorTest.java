@@ -0,0 +1,104 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the PathDecimator class.
+ *
+ * 1. decimate()
+ * 1a. straight runs are merged into one segment.
+ * 1b. steps within one pixel are collapsed.
+ * 1c. a step already drawn is skipped, breaking the path with null.
+ * 1d. an empty path stays empty.
+ *
+ * 2. getStepIndices()
+ * 2a. merged runs keep the index of the step they end at.
+ * 2b. a break, and the point after it, have the index the walk resumed drawing from.
+ *
+ * 3. sitesPerPixelFor()
+ * 3a. a path that fits needs one site per pixel.
+ * 3b. a path too large to fit is binned.
+ */
+public class PathDecimatorTest {
+
+    ArrayList<Coordinate> makePath(int[] xy) {
+        ArrayList<Coordinate> path = new ArrayList<>();
+        for (int i = 0; i < xy.length; i += 2) {
+            path.add(new Coordinate(xy[i], xy[i+1]));
+        }
+        return path;
+    }
+
+    void assertCoordinate(int x, int y, Coordinate c) {
+        assertNotNull(c);
+        assertEquals(x, c.x);
+        assertEquals(y, c.y);
+    }
+
+    @Test
+    void decimate_straightRuns() {
+        ArrayList<Coordinate> path = makePath(new int[] {0,0, 1,0, 2,0, 3,0, 3,1, 3,2});
+        ArrayList<Coordinate> ret = new PathDecimator(1).decimate(path);
+        assertEquals(3, ret.size());
+        assertCoordinate(0, 0, ret.get(0));
+        assertCoordinate(3, 0, ret.get(1));
+        assertCoordinate(3, 2, ret.get(2));
+    }
+
+    @Test
+    void decimate_samePixel() {
+        ArrayList<Coordinate> path = makePath(new int[] {0,0, 1,0, 1,1, 0,1, 0,2});
+        ArrayList<Coordinate> ret = new PathDecimator(2).decimate(path);
+        assertEquals(2, ret.size());
+        assertCoordinate(0, 0, ret.get(0));
+        assertCoordinate(0, 1, ret.get(1));
+    }
+
+    @Test
+    void decimate_repeatedEdge() {
+        ArrayList<Coordinate> path = makePath(new int[] {0,0, 0,1, 0,0, 0,1, 1,1});
+        ArrayList<Coordinate> ret = new PathDecimator(1).decimate(path);
+        assertEquals(5, ret.size());
+        assertCoordinate(0, 0, ret.get(0));
+        assertCoordinate(0, 1, ret.get(1));
+        assertNull(ret.get(2));
+        assertCoordinate(0, 1, ret.get(3));
+        assertCoordinate(1, 1, ret.get(4));
+    }
+
+    @Test
+    void decimate_empty() {
+        assertTrue(new PathDecimator(1).decimate(new ArrayList<>()).isEmpty());
+    }
+
+    @Test
+    void getStepIndices_straightRuns() {
+        ArrayList<Coordinate> path = makePath(new int[] {0,0, 1,0, 2,0, 3,0, 3,1, 3,2});
+        PathDecimator decimator = new PathDecimator(1);
+        decimator.decimate(path);
+        assertArrayEquals(new int[] {0, 3, 5}, decimator.getStepIndices());
+    }
+
+    @Test
+    void getStepIndices_repeatedEdge() {
+        ArrayList<Coordinate> path = makePath(new int[] {0,0, 0,1, 0,0, 0,1, 1,1});
+        PathDecimator decimator = new PathDecimator(1);
+        decimator.decimate(path);
+        assertArrayEquals(new int[] {0, 1, 3, 3, 4}, decimator.getStepIndices());
+        decimator.decimate(new ArrayList<>());
+        assertEquals(0, decimator.getStepIndices().length);
+    }
+
+    @Test
+    void sitesPerPixelFor_fits() {
+        assertEquals(1, PathDecimator.sitesPerPixelFor(10, 500));
+    }
+
+    @Test
+    void sitesPerPixelFor_binned() {
+        assertEquals(5, PathDecimator.sitesPerPixelFor(1000, 500));
+    }
+
+}
@@ -17,6 +17,7 @@ import static org.junit.jupiter.api.Assertions.*;
  * 1a. common case: ensure walk path is the correct length for number of steps.
  * 1b. edge case: walk 0 steps.
  * 1c: error case: walk negative steps.
+ * 1d. a chain over a matrix mapped from a binary file walks exactly as one over the same matrix on the heap.
  *
  * 2. saveWalkToFile()
  * 2a. common case, with a correct file path.
@@ -70,6 +71,26 @@ public class RandomWalkerTest {
      * - commenting this method only as this is the only method I am working on
      *   for this class - Ankon
      */
+    @Test
+    void walk_mappedMatrix() throws IOException {
+        //A persistent chain, so that a walk depends on every row.
+        FloatMatrix T = new FloatMatrix(4, 4);
+        T.fill(0.1f);
+        for (int i = 0; i < 4; ++i) {
+            T.set(i, i, 0.7f);
+        }
+        String fname = "_randomWalker_mappedMatrix_UnitTest.fmat";
+        try {
+            T.toBinaryFile(fname);
+            FloatMatrix mapped = FloatMatrix.mapBinaryFile(fname);
+            ArrayList<Coordinate> expected = new RandomWalker(new MarkovChain(T, MarkovChainTest.CARDINALS, 5)).walk(1000);
+            ArrayList<Coordinate> actual = new RandomWalker(new MarkovChain(mapped, MarkovChainTest.CARDINALS, 5)).walk(1000);
+            assertEquals(expected.toString(), actual.toString());
+        } finally {
+            new File(fname).delete();
+        }
+    }
+
     @Test
     void saveWalkToFile_Common() {
         RandomWalker walker = new RandomWalker(testMC1);
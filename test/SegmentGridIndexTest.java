@@ -0,0 +1,60 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the SegmentGridIndex class.
+ *
+ * 1. query()
+ * 1a. a rectangle covering the whole path returns every segment as one run.
+ * 1b. a rectangle around one part of the path returns only the segments there.
+ * 1c. a rectangle away from the path returns nothing.
+ *
+ * 2. countSegments()
+ * 2a. count the segments in a list of runs.
+ */
+public class SegmentGridIndexTest {
+
+    //Out along the x-axis from (0,0) to (10,0), then back again to (0,0).
+    ArrayList<Coordinate> makePath() {
+        ArrayList<Coordinate> path = new ArrayList<>();
+        for (int x = 0; x <= 10; ++x) {
+            path.add(new Coordinate(x, 0));
+        }
+        for (int x = 9; x >= 0; --x) {
+            path.add(new Coordinate(x, 0));
+        }
+        return path;
+    }
+
+    @Test
+    void query_all() {
+        SegmentGridIndex index = new SegmentGridIndex(makePath(), 4);
+        assertEquals(20, index.getNumSegments());
+        assertArrayEquals(new int[] {1, 20}, index.query(-5, -5, 15, 5));
+    }
+
+    @Test
+    void query_part() {
+        SegmentGridIndex index = new SegmentGridIndex(makePath(), 11);
+        int[] runs = index.query(0, 0, 1, 0);
+        //Segments 1 and 2 on the way out, 19 and 20 on the way back.
+        assertArrayEquals(new int[] {1, 2, 19, 20}, runs);
+    }
+
+    @Test
+    void query_empty() {
+        SegmentGridIndex index = new SegmentGridIndex(makePath(), 4);
+        assertEquals(0, index.query(100, 100, 200, 200).length);
+        assertEquals(0, index.query(0, 5, 10, 10).length);
+    }
+
+    @Test
+    void countSegments_runs() {
+        assertEquals(5, SegmentGridIndex.countSegments(new int[] {1, 2, 7, 9}));
+        assertEquals(0, SegmentGridIndex.countSegments(new int[0]));
+    }
+
+}
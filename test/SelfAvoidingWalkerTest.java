@@ -0,0 +1,77 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the SelfAvoidingWalker class.
+ *
+ * 1. walk()
+ * 1a. the path has unit steps and never revisits a site.
+ * 1b. the same seed gives the same path with any number of threads.
+ * 1c. a chain which always heads north walks a straight line.
+ * 1d. zero steps gives an empty path.
+ *
+ * 2. getLogSurvivalProbabilities()
+ * 2a. for a uniform chain, 4^n times the estimate matches the number of n step self-avoiding walks.
+ */
+public class SelfAvoidingWalkerTest {
+
+    //Number of self-avoiding walks on the square lattice with 0..8 steps.
+    static final long[] SAW_COUNTS = {1, 4, 12, 36, 100, 284, 780, 2172, 5916};
+
+    @Test
+    void walk_selfAvoiding() {
+        SelfAvoidingWalker walker = new SelfAvoidingWalker(MarkovChainTest.uniformChain(), 200, 2, 7);
+        ArrayList<Coordinate> path = walker.walk(3000);
+        assertEquals(3001, path.size());
+        HashSet<Long> seen = new HashSet<>();
+        for (int i = 0; i < path.size(); ++i) {
+            Coordinate c = path.get(i);
+            assertTrue(seen.add(Coordinate.pack(c.x, c.y)), "site revisited at " + i);
+            if (i > 0) {
+                Coordinate prev = path.get(i-1);
+                assertEquals(1, Math.abs(c.x - prev.x) + Math.abs(c.y - prev.y));
+            }
+        }
+    }
+
+    @Test
+    void walk_independentOfThreads() {
+        ArrayList<Coordinate> a = new SelfAvoidingWalker(MarkovChainTest.uniformChain(), 100, 1, 11).walk(100);
+        ArrayList<Coordinate> b = new SelfAvoidingWalker(MarkovChainTest.uniformChain(), 100, 3, 11).walk(100);
+        assertEquals(a.toString(), b.toString());
+    }
+
+    @Test
+    void walk_straightLine() {
+        SelfAvoidingWalker walker = new SelfAvoidingWalker(MarkovChainTest.constantChain(0), 10, 1, 0);
+        ArrayList<Coordinate> path = walker.walk(20);
+        for (int i = 0; i < path.size(); ++i) {
+            assertEquals(0, path.get(i).x);
+            assertEquals(i, path.get(i).y);
+        }
+        assertEquals(0.0, walker.getLogSurvivalProbabilities()[20], 1e-9);
+    }
+
+    @Test
+    void walk_zeroSteps() {
+        SelfAvoidingWalker walker = new SelfAvoidingWalker(MarkovChainTest.uniformChain());
+        assertTrue(walker.walk(0).isEmpty());
+        assertEquals(0, walker.getLogSurvivalProbabilities().length);
+    }
+
+    @Test
+    void getLogSurvivalProbabilities_countsWalks() {
+        SelfAvoidingWalker walker = new SelfAvoidingWalker(MarkovChainTest.uniformChain(), 20000, 2, 3);
+        walker.walk(SAW_COUNTS.length - 1);
+        double[] logSurvival = walker.getLogSurvivalProbabilities();
+        for (int n = 0; n < SAW_COUNTS.length; ++n) {
+            double estimate = Math.exp(logSurvival[n]) * Math.pow(4, n);
+            assertEquals(SAW_COUNTS[n], estimate, 0.03 * SAW_COUNTS[n], "n = " + n);
+        }
+    }
+
+}
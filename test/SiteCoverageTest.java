@@ -0,0 +1,77 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the SiteCoverage class.
+ *
+ * 1. common case: a hand made path with a return to the start.
+ * 2. sweeping the square around the start covers it.
+ * 3. a bread crumb walk revisits every step on its way back.
+ * 4. no points.
+ */
+public class SiteCoverageTest {
+
+    @Test
+    void handMadePath() {
+        //(0,0) -> (1,0) -> (1,1) -> (0,1) -> (0,0) -> (1,0)
+        SiteCoverage coverage = new SiteCoverage();
+        int[] xy = {0,0, 1,0, 1,1, 0,1, 0,0, 1,0};
+        for (int i = 0; i < xy.length; i += 2) {
+            coverage.onStep(xy[i], xy[i+1]);
+        }
+        assertEquals(6, coverage.getNumPoints());
+        assertEquals(4, coverage.getNumDistinctSites());
+        assertEquals(2, coverage.getNumRevisits());
+        assertEquals(1, coverage.getNumReturns());
+        assertEquals(4, coverage.getFirstReturnStep());
+        assertEquals(1.0, coverage.getBoundingBoxCoverage(), 1e-12);
+        assertEquals(0, coverage.getCoverRadius());
+    }
+
+    @Test
+    void squareCovers() {
+        //Sweep the 5x5 square around (0,0) row by row, starting from the center.
+        SiteCoverage coverage = new SiteCoverage();
+        coverage.onStep(0, 0);
+        for (int y = -2; y <= 2; ++y) {
+            for (int x = -2; x <= 2; ++x) {
+                if (x != 0 || y != 0) {
+                    coverage.onStep(x, y);
+                }
+            }
+        }
+        assertEquals(25, coverage.getNumDistinctSites());
+        assertEquals(0, coverage.getNumRevisits());
+        assertEquals(-1, coverage.getFirstReturnStep());
+        assertEquals(2, coverage.getCoverRadius());
+        coverage.onStep(3, 3);
+        assertEquals(2, coverage.getCoverRadius());
+    }
+
+    @Test
+    void breadCrumbRevisits() {
+        FloatMatrix T = new FloatMatrix(4, 4);
+        T.fill(0.25f);
+        BreadCrumbWalker walker = new BreadCrumbWalker(new MarkovChain(T, new String[] {"N", "E", "S", "W"}));
+        ArrayList<Coordinate> path = walker.walk(1000);
+        SiteCoverage coverage = new SiteCoverage();
+        coverage.addAll(path);
+        assertEquals(path.size(), coverage.getNumPoints());
+        //Every point of the way back was visited on the way out.
+        assertTrue(coverage.getNumRevisits() >= 1000);
+        assertTrue(coverage.getNumReturns() >= 1);
+        assertTrue(coverage.getNumDistinctSites() <= 1001);
+    }
+
+    @Test
+    void empty() {
+        SiteCoverage coverage = new SiteCoverage();
+        assertEquals(0, coverage.getNumDistinctSites());
+        assertEquals(-1, coverage.getCoverRadius());
+        assertEquals(0, coverage.getBoundingBoxCoverage());
+    }
+
+}
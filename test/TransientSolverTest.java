@@ -0,0 +1,99 @@
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the TransientSolver class.
+ *
+ * 1. constructor
+ * 1a. AUTO picks LU for small systems and Gauss-Seidel for large ones.
+ * 1b. an unknown method throws.
+ * 1c. a singular system throws under LU.
+ *
+ * 2. solve()
+ * 2a. every method solves a small non-symmetric system exactly.
+ * 2b. LU factors once and solves several right hand sides.
+ * 2c. a system larger than DENSE_LIMIT gives the same answers by every method.
+ */
+public class TransientSolverTest {
+
+    @Test
+    void constructor_auto() {
+        FloatMatrix P = new FloatMatrix(2, 2);
+        P.fill(0.5f);
+        assertEquals(TransientSolver.LU, new TransientSolver(P, new int[] {0}, TransientSolver.AUTO).getMethod());
+
+        int n = TransientSolver.DENSE_LIMIT + 1;
+        FloatMatrix big = new FloatMatrix(n + 1, n + 1);
+        for (int i = 0; i <= n; ++i) {
+            big.set(i, 0, 1.0f);
+        }
+        int[] states = new int[n];
+        for (int k = 0; k < n; ++k) {
+            states[k] = k + 1;
+        }
+        assertEquals(TransientSolver.GAUSS_SEIDEL, new TransientSolver(big, states, TransientSolver.AUTO).getMethod());
+    }
+
+    @Test
+    void constructor_invalid() {
+        FloatMatrix P = new FloatMatrix(2, 2);
+        P.fill(0.5f);
+        assertThrows(IllegalArgumentException.class, () -> new TransientSolver(P, new int[] {0}, 42));
+        //Without a way out, I - Q is singular.
+        FloatMatrix closed = new FloatMatrix(2, 2);
+        closed.set(0, 1, 1.0f);
+        closed.set(1, 0, 1.0f);
+        assertThrows(ArithmeticException.class, () -> new TransientSolver(closed, new int[] {0, 1}, TransientSolver.LU));
+    }
+
+    @Test
+    void solve_smallSystem() {
+        //Q over states 0 and 1 of a 3 state chain; state 2 is where they stop.
+        float[] vals = {
+                0.25f, 0.5f, 0.25f,
+                0.125f, 0.0f, 0.875f,
+                0.0f, 0.0f, 1.0f};
+        FloatMatrix P = new FloatMatrix(vals, 3);
+        //(I - Q) x = b with x = (2, -1): b = (0.75*2 - 0.5*-1, -0.125*2 + -1) = (2, -1.25).
+        double[] b = {2.0, -1.25};
+        for (int method : new int[] {TransientSolver.LU, TransientSolver.GAUSS_SEIDEL, TransientSolver.JACOBI}) {
+            double[] x = new TransientSolver(P, new int[] {0, 1}, method).solve(b);
+            assertEquals(2.0, x[0], 1e-9);
+            assertEquals(-1.0, x[1], 1e-9);
+        }
+        assertArrayEquals(new double[] {2.0, -1.25}, b);
+    }
+
+    @Test
+    void solve_reuse() {
+        FloatMatrix P = MarkovChainTest.gamblersRuin(4);
+        TransientSolver solver = new TransientSolver(P, new int[] {1, 2, 3}, TransientSolver.LU);
+        //Expected hitting times of {0, 4}, then the probability of absorption at 4.
+        assertArrayEquals(new double[] {3, 4, 3}, solver.solve(new double[] {1, 1, 1}), 1e-12);
+        assertArrayEquals(new double[] {0.25, 0.5, 0.75}, solver.solve(new double[] {0, 0, 0.5}), 1e-12);
+    }
+
+    @Test
+    void solve_largeSystem() {
+        //A walk on a cycle which stops at state 0, or anywhere with probability 0.1 per step.
+        int m = TransientSolver.DENSE_LIMIT + 100;
+        FloatMatrix P = new FloatMatrix(m + 1, m + 1);
+        for (int i = 0; i < m; ++i) {
+            P.set(i, (i + 1) % m, 0.45f);
+            P.set(i, (i + m - 1) % m, 0.45f);
+            P.set(i, m, 0.1f);
+        }
+        P.set(m, m, 1.0f);
+        MarkovChain mc = new MarkovChain(P);
+        int[] targets = {0, m};
+        double[] auto = mc.getExpectedHittingTimes(targets);
+        double[] lu = mc.getExpectedHittingTimes(targets, TransientSolver.LU);
+        double[] jacobi = mc.getExpectedHittingTimes(targets, TransientSolver.JACOBI);
+        assertArrayEquals(lu, auto, 1e-9);
+        assertArrayEquals(lu, jacobi, 1e-9);
+        //Far from state 0 the walk almost always stops by leaking, after 10 steps on average.
+        assertEquals(10.0, lu[m / 2], 1e-4); //float entries sum to 1 only approximately
+    }
+
+}
@@ -0,0 +1,185 @@
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the TransitionEstimator class.
+ *
+ * 1. addWalkFile()
+ * 1a. a square walk N, E, S, W gives the transitions N->E, E->S and S->W.
+ * 1b. steps which are not unit steps are skipped and break the chain of headings.
+ * 1c. a .dat walk of a walker which always heads east gives only E->E transitions.
+ *
+ * 2. addWalkFiles()
+ * 2a. reading files in parallel gives the same counts as reading them one by one.
+ * 2b. the estimate from many RandomWalker walks is close to the walker's matrix.
+ * 2c. a missing file throws an IOException.
+ *
+ * 3. getTransitionMatrix()
+ * 3a. rows with no counts are uniform, and the matrix is a valid transition matrix.
+ * 3b. a pseudocount smooths the estimate, and must not be negative.
+ */
+public class TransitionEstimatorTest {
+
+    void writeLines(String fname, String... lines) throws IOException {
+        try (PrintWriter writer = new PrintWriter(fname)) {
+            for (String line : lines) {
+                writer.println(line);
+            }
+        }
+    }
+
+    String writeRandomWalk(FloatMatrix T, long seed, int nSteps, String fname) throws IOException {
+        RandomWalker walker = new RandomWalker(new MarkovChain(T, MarkovChainTest.CARDINALS, seed));
+        walker.walk(nSteps);
+        walker.saveWalkToFile(fname);
+        return fname;
+    }
+
+    FloatMatrix persistentMatrix() {
+        float[] vals = {
+                0.6f, 0.2f, 0.0f, 0.2f,
+                0.1f, 0.7f, 0.1f, 0.1f,
+                0.0f, 0.3f, 0.4f, 0.3f,
+                0.25f, 0.25f, 0.25f, 0.25f};
+        return new FloatMatrix(vals, 4);
+    }
+
+    @Test
+    void addWalkFile_square() throws IOException {
+        String fname = "_TransitionEstimator_square.txt";
+        try {
+            writeLines(fname, "(0, 0)", "(0, 1)", "(1, 1)", "(1, 0)", "(0, 0)");
+            TransitionEstimator est = new TransitionEstimator();
+            est.addWalkFile(fname);
+            assertEquals(3, est.getNumTransitions());
+            assertEquals(1, est.getCount(0, 1));
+            assertEquals(1, est.getCount(1, 2));
+            assertEquals(1, est.getCount(2, 3));
+            assertEquals(0, est.getNumSkipped());
+        } finally {
+            new File(fname).delete();
+        }
+    }
+
+    @Test
+    void addWalkFile_skipped() throws IOException {
+        String fname = "_TransitionEstimator_skipped.txt";
+        try {
+            //N, a jump, N, N, a repeated point, E.
+            writeLines(fname, "(0, 0)", "(0, 1)", "(5, 5)", "(5, 6)", "(5, 7)", "(5, 7)", "(6, 7)");
+            TransitionEstimator est = new TransitionEstimator();
+            est.addWalkFile(fname);
+            assertEquals(2, est.getNumSkipped());
+            assertEquals(1, est.getNumTransitions());
+            assertEquals(1, est.getCount(0, 0));
+        } finally {
+            new File(fname).delete();
+        }
+    }
+
+    @Test
+    void addWalkFile_dat() throws IOException {
+        String fname = "_TransitionEstimator_east.dat";
+        try {
+            FloatMatrix T = new FloatMatrix(4, 4);
+            for (int i = 0; i < 4; ++i) {
+                T.set(i, 1, 1.0f);
+            }
+            writeRandomWalk(T, 0, 100, fname);
+            TransitionEstimator est = new TransitionEstimator();
+            est.addWalkFile(fname);
+            assertEquals(99, est.getCount(1, 1));
+            assertEquals(99, est.getNumTransitions());
+        } finally {
+            new File(fname).delete();
+        }
+    }
+
+    @Test
+    void addWalkFiles_parallel() throws IOException {
+        List<String> fnames = new ArrayList<>();
+        try {
+            for (int i = 0; i < 6; ++i) {
+                fnames.add(writeRandomWalk(persistentMatrix(), i, 2000, "_TransitionEstimator_" + i + (i % 2 == 0 ? ".txt" : ".dat")));
+            }
+            TransitionEstimator sequential = new TransitionEstimator();
+            for (String fname : fnames) {
+                sequential.addWalkFile(fname);
+            }
+            TransitionEstimator parallel = new TransitionEstimator();
+            parallel.addWalkFiles(fnames, 4);
+            for (int i = 0; i < 4; ++i) {
+                for (int j = 0; j < 4; ++j) {
+                    assertEquals(sequential.getCount(i, j), parallel.getCount(i, j));
+                }
+            }
+            assertEquals(6 * 1999, parallel.getNumTransitions());
+        } finally {
+            for (String fname : fnames) {
+                new File(fname).delete();
+            }
+        }
+    }
+
+    @Test
+    void addWalkFiles_estimate() throws IOException {
+        List<String> fnames = new ArrayList<>();
+        try {
+            FloatMatrix T = persistentMatrix();
+            for (int i = 0; i < 4; ++i) {
+                fnames.add(writeRandomWalk(T, 100 + i, 50000, "_TransitionEstimator_fit" + i + ".dat"));
+            }
+            TransitionEstimator est = new TransitionEstimator();
+            est.addWalkFiles(fnames, 2);
+            FloatMatrix fit = est.getTransitionMatrix();
+            assertTrue(MarkovChain.isValidTransitionMatrix(fit));
+            for (int i = 0; i < 4; ++i) {
+                for (int j = 0; j < 4; ++j) {
+                    assertEquals(T.get(i, j), fit.get(i, j), 0.015, "entry (" + i + ", " + j + ")");
+                }
+            }
+        } finally {
+            for (String fname : fnames) {
+                new File(fname).delete();
+            }
+        }
+    }
+
+    @Test
+    void addWalkFiles_missing() {
+        TransitionEstimator est = new TransitionEstimator();
+        List<String> fnames = List.of("_TransitionEstimator_does_not_exist.txt");
+        assertThrows(IOException.class, () -> est.addWalkFiles(fnames, 2));
+    }
+
+    @Test
+    void getTransitionMatrix_emptyRows() throws IOException {
+        String fname = "_TransitionEstimator_rows.txt";
+        try {
+            writeLines(fname, "(0, 0)", "(0, 1)", "(0, 2)", "(1, 2)");
+            TransitionEstimator est = new TransitionEstimator();
+            est.addWalkFile(fname);
+            FloatMatrix T = est.getTransitionMatrix();
+            assertTrue(MarkovChain.isValidTransitionMatrix(T));
+            assertEquals(0.5f, T.get(0, 0));
+            assertEquals(0.5f, T.get(0, 1));
+            assertEquals(0.25f, T.get(2, 3));
+
+            FloatMatrix smoothed = est.getTransitionMatrix(1.0);
+            assertTrue(MarkovChain.isValidTransitionMatrix(smoothed));
+            assertEquals(2.0f / 6, smoothed.get(0, 0), 1e-6);
+            assertEquals(1.0f / 6, smoothed.get(0, 2), 1e-6);
+            assertThrows(IllegalArgumentException.class, () -> est.getTransitionMatrix(-1));
+        } finally {
+            new File(fname).delete();
+        }
+    }
+
+}
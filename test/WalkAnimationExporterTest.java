@@ -0,0 +1,147 @@
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the WalkAnimationExporter class.
+ *
+ * 1. getNumFrames()
+ * 1a. one segment per frame gives one frame per segment.
+ * 1b. several segments per frame rounds up to a last frame with every segment.
+ * 1c. a path without segments has one frame.
+ *
+ * 2. writePngFrames()
+ * 2a. writes one file per frame; the last frame matches WalkImageRenderer's image.
+ *
+ * 3. writeGif()
+ * 3a. writes one GIF image per frame; the first is the whole first frame.
+ * 3b. drawing every GIF image at its position gives WalkImageRenderer's image.
+ */
+public class WalkAnimationExporterTest {
+
+    ArrayList<Coordinate> makeWalk(int nSteps) {
+        return new SpiralWalker().walk(nSteps);
+    }
+
+    void assertSamePixels(BufferedImage expected, BufferedImage actual) {
+        assertEquals(expected.getWidth(), actual.getWidth());
+        assertEquals(expected.getHeight(), actual.getHeight());
+        for (int y = 0; y < expected.getHeight(); ++y) {
+            for (int x = 0; x < expected.getWidth(); ++x) {
+                assertEquals(expected.getRGB(x, y), actual.getRGB(x, y), "pixel " + x + "," + y);
+            }
+        }
+    }
+
+    @Test
+    void getNumFrames_oneSegmentPerFrame() {
+        WalkAnimationExporter exporter = new WalkAnimationExporter(10, 10);
+        assertEquals(10, exporter.getNumFrames(makeWalk(10)));
+    }
+
+    @Test
+    void getNumFrames_severalSegmentsPerFrame() {
+        //Frame k shows 1 + floor(2.5k) segments: 1, 3, 6, 8, then all 10.
+        WalkAnimationExporter exporter = new WalkAnimationExporter(10, 25);
+        assertEquals(5, exporter.getNumFrames(makeWalk(10)));
+    }
+
+    @Test
+    void getNumFrames_noSegments() {
+        WalkAnimationExporter exporter = new WalkAnimationExporter(30, 100);
+        assertEquals(1, exporter.getNumFrames(makeWalk(0)));
+        assertEquals(1, exporter.getNumFrames(makeWalk(1)));
+    }
+
+    @Test
+    void writePngFrames_lastMatchesImage() throws IOException {
+        ArrayList<Coordinate> path = makeWalk(40);
+        WalkAnimationExporter exporter = new WalkAnimationExporter(10, 30);
+        String prefix = "exporterTestFrame_";
+        int numFrames = exporter.writePngFrames(path, prefix, 2);
+        try {
+            assertEquals(exporter.getNumFrames(path), numFrames);
+            for (int k = 0; k < numFrames; ++k) {
+                assertTrue(new File(String.format("%s%06d.png", prefix, k)).exists());
+            }
+            assertFalse(new File(String.format("%s%06d.png", prefix, numFrames)).exists());
+
+            BufferedImage last = ImageIO.read(new File(String.format("%s%06d.png", prefix, numFrames - 1)));
+            assertSamePixels(new WalkImageRenderer().render(path), last);
+        } finally {
+            for (int k = 0; k <= numFrames; ++k) {
+                new File(String.format("%s%06d.png", prefix, k)).delete();
+            }
+        }
+    }
+
+    @Test
+    void writeGif_oneImagePerFrame() throws IOException {
+        ArrayList<Coordinate> path = makeWalk(40);
+        WalkAnimationExporter exporter = new WalkAnimationExporter(10, 30);
+        String prefix = "exporterTestGifFrame_";
+        File gif = new File("exporterTest.gif");
+        try {
+            int numFrames = exporter.writeGif(path, gif.getName());
+            assertEquals(exporter.getNumFrames(path), numFrames);
+            exporter.writePngFrames(path, prefix, 1);
+
+            try (ImageInputStream in = ImageIO.createImageInputStream(gif)) {
+                ImageReader reader = ImageIO.getImageReaders(in).next();
+                reader.setInput(in);
+                assertEquals(numFrames, reader.getNumImages(true));
+                BufferedImage first = reader.read(0);
+                assertSamePixels(ImageIO.read(new File(String.format("%s%06d.png", prefix, 0))), first);
+                reader.dispose();
+            }
+        } finally {
+            gif.delete();
+            for (int k = 0; k < exporter.getNumFrames(path); ++k) {
+                new File(String.format("%s%06d.png", prefix, k)).delete();
+            }
+        }
+    }
+
+    @Test
+    void writeGif_framesComposeToImage() throws IOException {
+        ArrayList<Coordinate> path = makeWalk(60);
+        WalkAnimationExporter exporter = new WalkAnimationExporter(10, 7);
+        File gif = new File("exporterTestCompose.gif");
+        try {
+            exporter.writeGif(path, gif.getName());
+            BufferedImage expected = new WalkImageRenderer().render(path);
+            BufferedImage composite = new BufferedImage(expected.getWidth(), expected.getHeight(), BufferedImage.TYPE_INT_RGB);
+            Graphics2D g2 = composite.createGraphics();
+
+            try (ImageInputStream in = ImageIO.createImageInputStream(gif)) {
+                ImageReader reader = ImageIO.getImageReaders(in).next();
+                reader.setInput(in);
+                for (int i = 0; i < reader.getNumImages(true); ++i) {
+                    IIOMetadata meta = reader.getImageMetadata(i);
+                    IIOMetadataNode root = (IIOMetadataNode) meta.getAsTree(meta.getNativeMetadataFormatName());
+                    IIOMetadataNode desc = (IIOMetadataNode) root.getElementsByTagName("ImageDescriptor").item(0);
+                    int x = Integer.parseInt(desc.getAttribute("imageLeftPosition"));
+                    int y = Integer.parseInt(desc.getAttribute("imageTopPosition"));
+                    g2.drawImage(reader.read(i), x, y, null);
+                }
+                reader.dispose();
+            }
+            g2.dispose();
+            assertSamePixels(expected, composite);
+        } finally {
+            gif.delete();
+        }
+    }
+
+}
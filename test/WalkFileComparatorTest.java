@@ -0,0 +1,85 @@
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the WalkFileComparator class.
+ *
+ * 1. compare()
+ * 1a. common case: a walk matches itself.
+ * 1b. common case: the same walk saved as .txt and .dat matches.
+ * 1c. two different gold walks report their first divergence.
+ * 1d. a walk which is a prefix of another diverges where the shorter one ends.
+ */
+public class WalkFileComparatorTest {
+
+    @Test
+    void compare_same() {
+        WalkFileComparator cmp = new WalkFileComparator("test_cases/gold2.txt", "test_cases/gold2.txt");
+        try {
+            assertTrue(cmp.compare());
+            assertEquals(-1, cmp.getDivergenceIndex());
+        } catch (IOException e) {
+            fail("Exception occurred while comparing walks: " + e);
+        }
+    }
+
+    @Test
+    void compare_txtAndDat() {
+        String pathTxt = "_WalkFileComparator_UnitTest.txt";
+        String pathDat = "_WalkFileComparator_UnitTest.dat";
+        SpiralWalker walker = new SpiralWalker();
+        walker.walk(30);
+        try {
+            walker.saveWalkToFile(pathTxt);
+            walker.saveWalkToFile(pathDat);
+            assertTrue(new WalkFileComparator(pathTxt, pathDat).compare());
+        } catch (IOException e) {
+            fail("Exception occurred while comparing walks: " + e);
+        }
+        assertTrue(new File(pathTxt).delete(), "Expected to be able to delete .txt file after writing to it.");
+        assertTrue(new File(pathDat).delete(), "Expected to be able to delete .dat file after writing to it.");
+    }
+
+    @Test
+    void compare_different() {
+        WalkFileComparator cmp = new WalkFileComparator("test_cases/gold1.txt", "test_cases/gold2.txt");
+        try {
+            assertFalse(cmp.compare());
+            assertEquals(1, cmp.getDivergenceIndex());
+            assertEquals(0, cmp.getFirstCoordinate().x);
+            assertEquals(-1, cmp.getFirstCoordinate().y);
+            assertEquals(1, cmp.getSecondCoordinate().x);
+            assertEquals(0, cmp.getSecondCoordinate().y);
+        } catch (IOException e) {
+            fail("Exception occurred while comparing walks: " + e);
+        }
+    }
+
+    @Test
+    void compare_prefix() {
+        String shortPath = "_WalkFileComparator_short_UnitTest.txt";
+        String longPath = "_WalkFileComparator_long_UnitTest.txt";
+        SpiralWalker walker = new SpiralWalker();
+        try {
+            walker.walk(5);
+            walker.saveWalkToFile(shortPath);
+            walker.walk(8);
+            walker.saveWalkToFile(longPath);
+
+            WalkFileComparator cmp = new WalkFileComparator(shortPath, longPath);
+            assertFalse(cmp.compare());
+            assertEquals(6, cmp.getDivergenceIndex());
+            assertNull(cmp.getFirstCoordinate());
+            assertNotNull(cmp.getSecondCoordinate());
+        } catch (IOException e) {
+            fail("Exception occurred while comparing walks: " + e);
+        }
+        assertTrue(new File(shortPath).delete(), "Expected to be able to delete file after writing to it.");
+        assertTrue(new File(longPath).delete(), "Expected to be able to delete file after writing to it.");
+    }
+
+}
@@ -0,0 +1,113 @@
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the WalkFileReader class.
+ *
+ * 1. readNext()
+ * 1a. common case: read back a .txt walk written by SpiralWalker.
+ * 1b. common case: read back a .dat walk written by SpiralWalker.
+ * 1c. read a gold walk with negative coordinates.
+ * 1d. error case: a file which is not a walk file.
+ *
+ * 2. WalkFileReader()
+ * 2a. exceptional case, unsupported file extension.
+ * 2b. exceptional case, file not found.
+ */
+public class WalkFileReaderTest {
+
+    void assertReadsBack(String fname) throws IOException {
+        SpiralWalker walker = new SpiralWalker();
+        ArrayList<Coordinate> path = walker.walk(50);
+        walker.saveWalkToFile(fname);
+
+        try (WalkFileReader rd = new WalkFileReader(fname)) {
+            Coordinate coord = new Coordinate(0, 0);
+            for (Coordinate expected : path) {
+                assertTrue(rd.readNext(coord), "Expected another coordinate in the file.");
+                assertEquals(expected.x, coord.x);
+                assertEquals(expected.y, coord.y);
+            }
+            assertFalse(rd.readNext(coord), "Expected the end of the file.");
+            assertEquals(path.size(), rd.getNumRead());
+        }
+        assertTrue(new File(fname).delete(), "Expected to be able to delete file after writing to it.");
+    }
+
+    @Test
+    void readNext_txt() {
+        try {
+            assertReadsBack("_WalkFileReader_txt_UnitTest.txt");
+        } catch (IOException e) {
+            fail("Exception occurred while reading back the walk: " + e);
+        }
+    }
+
+    @Test
+    void readNext_dat() {
+        try {
+            assertReadsBack("_WalkFileReader_dat_UnitTest.dat");
+        } catch (IOException e) {
+            fail("Exception occurred while reading back the walk: " + e);
+        }
+    }
+
+    @Test
+    void readNext_gold() {
+        try (WalkFileReader rd = new WalkFileReader("test_cases/gold1.txt")) {
+            Coordinate coord = new Coordinate(0, 0);
+            assertTrue(rd.readNext(coord));
+            assertTrue(rd.readNext(coord));
+            assertEquals(0, coord.x);
+            assertEquals(-1, coord.y);
+            while (rd.readNext(coord)) {
+                //read to the end
+            }
+            assertEquals(201, rd.getNumRead());
+        } catch (IOException e) {
+            fail("Exception occurred while reading the gold walk: " + e);
+        }
+    }
+
+    @Test
+    void readNext_malformed() {
+        try (WalkFileReader rd = new WalkFileReader("test/inputs/good.txt")) {
+            Coordinate coord = new Coordinate(0, 0);
+            rd.readNext(coord);
+            fail("Expected a RuntimeException reading a matrix file as a walk.");
+        } catch (RuntimeException e) {
+            //Exception expected.
+        } catch (IOException e) {
+            fail("IOException occurred and was unexpected.");
+        }
+    }
+
+    @Test
+    void constructor_badExtension() {
+        try {
+            new WalkFileReader("test/inputs/good.csv");
+            fail("Expected IllegalArgumentException for an unsupported extension.");
+        } catch (IllegalArgumentException e) {
+            //Exception expected.
+        } catch (FileNotFoundException e) {
+            fail("Extension should be checked before opening the file.");
+        }
+    }
+
+    @Test
+    void constructor_notFound() {
+        try {
+            new WalkFileReader("asldijfbqwoe8rt.txt");
+            fail("Expected FileNotFoundException.");
+        } catch (FileNotFoundException e) {
+            //Exception expected.
+        }
+    }
+
+}
@@ -0,0 +1,84 @@
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the WalkHeatmapRenderer class.
+ *
+ * 1. render()
+ * 1a. a single point fills scale x scale pixels with the most visited color.
+ * 1b. counts are tone-mapped on a log scale: log(1+c) / log(1+max) of 1/2 is MID_RGB, unvisited sites are background.
+ * 1c. a walk spanning more sites than maxSize is binned, several sites per pixel, into at most maxSize pixels.
+ */
+public class WalkHeatmapRendererTest {
+
+    ArrayList<Coordinate> makePath(int[] xy) {
+        ArrayList<Coordinate> path = new ArrayList<>();
+        for (int i = 0; i < xy.length; i += 2) {
+            path.add(new Coordinate(xy[i], xy[i+1]));
+        }
+        return path;
+    }
+
+    //The color of a pixel, without its alpha.
+    int rgb(BufferedImage img, int x, int y) {
+        return img.getRGB(x, y) & 0xFFFFFF;
+    }
+
+    @Test
+    void render_singlePoint() {
+        BufferedImage img = new WalkHeatmapRenderer(10, 1000).render(makePath(new int[] {0,0}));
+        assertEquals(10, img.getWidth());
+        assertEquals(10, img.getHeight());
+        for (int y = 0; y < 10; ++y) {
+            for (int x = 0; x < 10; ++x) {
+                assertEquals(WalkHeatmapRenderer.HIGH_RGB, rgb(img, x, y));
+            }
+        }
+    }
+
+    @Test
+    void render_logToneMap() {
+        //The origin is visited 3 times and (1, 0) once: log(2) / log(4) is exactly half way.
+        ArrayList<Coordinate> path = makePath(new int[] {0,0, 1,0, 0,0, 0,0});
+        BufferedImage img = new WalkHeatmapRenderer(10, 1000).render(path);
+        //Sites -1..1 along each axis, 10 pixels each, with y = 1 in the top row.
+        assertEquals(30, img.getWidth());
+        assertEquals(WalkHeatmapRenderer.HIGH_RGB, rgb(img, 15, 15));
+        assertEquals(WalkHeatmapRenderer.MID_RGB, rgb(img, 25, 15));
+        assertEquals(WalkHeatmapRenderer.BACKGROUND_RGB, rgb(img, 5, 15));
+        assertEquals(WalkHeatmapRenderer.BACKGROUND_RGB, rgb(img, 15, 5));
+        assertEquals(WalkHeatmapRenderer.BACKGROUND_RGB, rgb(img, 25, 25));
+    }
+
+    @Test
+    void render_binned() {
+        //x = 0..100 spans 201 sites; 21 sites per pixel fit them in 10 pixels.
+        ArrayList<Coordinate> path = new ArrayList<>();
+        for (int x = 0; x <= 100; ++x) {
+            path.add(new Coordinate(x, 0));
+        }
+        BufferedImage img = new WalkHeatmapRenderer(10, 10).render(path);
+        assertEquals(10, img.getWidth());
+        assertEquals(10, img.getHeight());
+        int row = 100 / 21;
+        for (int y = 0; y < 10; ++y) {
+            for (int x = 0; x < 10; ++x) {
+                int c = rgb(img, x, y);
+                if (y != row || x < 4) {
+                    assertEquals(WalkHeatmapRenderer.BACKGROUND_RGB, c, "pixel " + x + "," + y);
+                } else if (x == 4 || x == 9) {
+                    //Partly filled pixels: 5 and 12 of 21 sites visited.
+                    assertNotEquals(WalkHeatmapRenderer.BACKGROUND_RGB, c);
+                    assertNotEquals(WalkHeatmapRenderer.HIGH_RGB, c);
+                } else {
+                    assertEquals(WalkHeatmapRenderer.HIGH_RGB, c, "pixel " + x + "," + y);
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,142 @@
+import org.junit.jupiter.api.Test;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the WalkImageRenderer class.
+ *
+ * 1. render()
+ * 1a. a small path is drawn at the preferred scale, on a white background.
+ * 1b. a path wider than maxSize at one pixel per site is binned to fit within maxSize.
+ * 1c. a binned path still draws its last segment at the image's edge.
+ * 1d. rendering with several threads gives exactly the image of one thread.
+ * 1e. the bands drawn by different threads share out the segments, rather than each drawing the whole path.
+ *
+ * 2. _sitesPerPixelFor()
+ * 2a. a path that fits needs one site per pixel.
+ * 2b. a path too wide to fit is binned, just enough to fit.
+ */
+public class WalkImageRendererTest {
+
+    static final Coordinate PADDING = new Coordinate(20, 20);
+
+    ArrayList<Coordinate> straightPath(int nSteps) {
+        ArrayList<Coordinate> path = new ArrayList<>();
+        for (int x = 0; x <= nSteps; ++x) {
+            path.add(new Coordinate(x, 0));
+        }
+        return path;
+    }
+
+    @Test
+    void render_preferredScale() {
+        WalkImageRenderer renderer = new WalkImageRenderer(PADDING, 10, 1024);
+        BufferedImage img = renderer.render(straightPath(3));
+        assertEquals(WalkFrame.DEFAULT_SIZE, img.getWidth());
+        assertEquals(WalkFrame.DEFAULT_SIZE, img.getHeight());
+
+        int c = img.getWidth() / 2;
+        for (int i = 1; i <= 3; ++i) {
+            Color expected = WalkCanvas._getLineSegmentColor(i);
+            assertEquals(expected.getRGB(), img.getRGB(c + 10*i - 5, c), "segment " + i);
+        }
+        assertEquals(Color.WHITE.getRGB(), img.getRGB(0, 0));
+    }
+
+    @Test
+    void render_widerThanMaxSize() {
+        WalkImageRenderer renderer = new WalkImageRenderer(PADDING, 10, 1024);
+        BufferedImage img = renderer.render(straightPath(200000));
+        assertTrue(img.getWidth() <= 1024, "width " + img.getWidth());
+        assertTrue(img.getHeight() <= 1024, "height " + img.getHeight());
+    }
+
+    @Test
+    void render_binnedLastSegment() {
+        int nSteps = 200000;
+        WalkImageRenderer renderer = new WalkImageRenderer(PADDING, 10, 1024);
+        BufferedImage img = renderer.render(straightPath(nSteps));
+        int spp = renderer._sitesPerPixelFor(nSteps);
+        int c = img.getWidth() / 2;
+        int end = c + nSteps / spp;
+        assertTrue(end < img.getWidth() - PADDING.x);
+        assertEquals(WalkCanvas._getLineSegmentColor(nSteps).getRGB(), img.getRGB(end, c));
+        assertEquals(Color.WHITE.getRGB(), img.getRGB(end + 3, c));
+    }
+
+    @Test
+    void render_parallelMatchesSequential() {
+        ArrayList<Coordinate> path = new ArrayList<>();
+        SplittableRandom rng = new SplittableRandom(9);
+        int x = 0, y = 0;
+        path.add(new Coordinate(x, y));
+        for (int i = 0; i < 4 * WalkImageRenderer.MIN_SEGMENTS_PER_THREAD; ++i) {
+            int d = rng.nextInt(4);
+            x += d == 1 ? 1 : d == 3 ? -1 : 0;
+            y += d == 0 ? 1 : d == 2 ? -1 : 0;
+            path.add(new Coordinate(x, y));
+        }
+        WalkImageRenderer renderer = new WalkImageRenderer(PADDING, 10, 1024);
+        BufferedImage expected = renderer.render(path, 1);
+        BufferedImage actual = renderer.render(path, 4);
+        assertEquals(expected.getWidth(), actual.getWidth());
+        for (int py = 0; py < expected.getHeight(); ++py) {
+            for (int px = 0; px < expected.getWidth(); ++px) {
+                assertEquals(expected.getRGB(px, py), actual.getRGB(px, py), "pixel " + px + "," + py);
+            }
+        }
+    }
+
+    @Test
+    void segmentsByBand_splitsWork() {
+        //A path running straight down an image 1000 rows tall, one row per step.
+        int n = 999, nBands = 10;
+        int[] ys = new int[n + 1];
+        for (int i = 0; i <= n; ++i) {
+            ys[i] = i;
+        }
+        int[][] bands = WalkImageRenderer._segmentsByBand(ys, 1000, nBands);
+        assertEquals(nBands, bands.length);
+        boolean[] drawn = new boolean[n + 1];
+        int total = 0;
+        for (int[] band : bands) {
+            //Each band holds its own 100 rows of segments, and a few either side for the stroke.
+            assertTrue(band.length <= n / nBands + 10, "band of " + band.length);
+            for (int k = 0; k < band.length; ++k) {
+                assertTrue(k == 0 || band[k] > band[k-1], "path order");
+                drawn[band[k]] = true;
+            }
+            total += band.length;
+        }
+        assertTrue(total <= n + 10 * nBands, "total " + total);
+        for (int i = 1; i <= n; ++i) {
+            assertTrue(drawn[i], "segment " + i);
+        }
+    }
+
+    @Test
+    void sitesPerPixelFor_fits() {
+        WalkImageRenderer renderer = new WalkImageRenderer(PADDING, 10, 1024);
+        assertEquals(1, renderer._sitesPerPixelFor(0));
+        assertEquals(1, renderer._sitesPerPixelFor(1024 / 2 - 20));
+    }
+
+    @Test
+    void sitesPerPixelFor_binned() {
+        WalkImageRenderer renderer = new WalkImageRenderer(PADDING, 10, 1024);
+        int extents = 1024 / 2 - 20 + 1;
+        assertEquals(2, renderer._sitesPerPixelFor(extents));
+        for (int e : new int[] {extents, 100000, Integer.MAX_VALUE}) {
+            int spp = renderer._sitesPerPixelFor(e);
+            int binned = WalkImageRenderer._binnedExtents(e, spp);
+            assertTrue(renderer._sizeFor(binned, 1) <= 1024, "extents " + e);
+            assertTrue(spp == 1 || WalkImageRenderer._binnedExtents(e, spp - 1) > 1024 / 2 - 20, "extents " + e);
+        }
+    }
+
+}
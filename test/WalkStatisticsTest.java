@@ -0,0 +1,115 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the WalkStatistics class.
+ *
+ * 1. getReport()
+ * 1a. no points gives all zero statistics.
+ * 1b. a hand computed path gives the expected statistics.
+ * 1c. statistics match a direct two pass computation on a long random walk.
+ *
+ * 2. onStep()
+ * 2a. fed inline by walk(), the report matches one from the stored path.
+ *
+ * 3. StepListener.both()
+ * 3a. both listeners see every step; null listeners are skipped.
+ */
+public class WalkStatisticsTest {
+
+    static final double EPS = 1e-9;
+
+    @Test
+    void getReport_empty() {
+        WalkStatistics.Report report = new WalkStatistics().getReport();
+        assertEquals(0, report.getNumPoints());
+        assertEquals(0, report.getMeanSquaredDisplacement());
+        assertEquals(0, report.getRadiusOfGyration());
+        assertEquals(0, report.getMaxDistance());
+    }
+
+    @Test
+    void getReport_handComputed() {
+        //(0,0) -> (1,0) -> (1,1) -> (0,1)
+        WalkStatistics stats = new WalkStatistics();
+        stats.onStep(0, 0);
+        stats.onStep(1, 0);
+        stats.onStep(1, 1);
+        stats.onStep(0, 1);
+        WalkStatistics.Report report = stats.getReport();
+        assertEquals(4, report.getNumPoints());
+        assertEquals(0, report.getMinX());
+        assertEquals(1, report.getMaxX());
+        assertEquals(0, report.getMinY());
+        assertEquals(1, report.getMaxY());
+        assertEquals((0 + 1 + 2 + 1) / 4.0, report.getMeanSquaredDisplacement(), EPS);
+        assertEquals(1, report.getEndToEndDistance(), EPS);
+        assertEquals(Math.sqrt(2), report.getMaxDistance(), EPS);
+        assertEquals(0.5, report.getCenterX(), EPS);
+        assertEquals(0.5, report.getCenterY(), EPS);
+        assertEquals(Math.sqrt(0.5), report.getRadiusOfGyration(), EPS);
+    }
+
+    @Test
+    void getReport_matchesTwoPass() {
+        FloatMatrix T = new FloatMatrix(4, 4);
+        T.fill(0.25f);
+        RandomWalker walker = new RandomWalker(new MarkovChain(T, new String[] {"N", "E", "S", "W"}));
+        ArrayList<Coordinate> path = walker.walk(100000);
+
+        WalkStatistics stats = new WalkStatistics();
+        stats.addAll(path);
+        WalkStatistics.Report report = stats.getReport();
+
+        Coordinate start = path.get(0);
+        double cx = 0, cy = 0, msd = 0;
+        for (Coordinate c : path) {
+            cx += c.x;
+            cy += c.y;
+            double dx = c.x - start.x, dy = c.y - start.y;
+            msd += dx*dx + dy*dy;
+        }
+        cx /= path.size();
+        cy /= path.size();
+        msd /= path.size();
+        double rg2 = 0;
+        for (Coordinate c : path) {
+            rg2 += (c.x - cx) * (c.x - cx) + (c.y - cy) * (c.y - cy);
+        }
+        double rg = Math.sqrt(rg2 / path.size());
+
+        assertEquals(path.size(), report.getNumPoints());
+        assertEquals(cx, report.getCenterX(), 1e-6 * (1 + Math.abs(cx)));
+        assertEquals(cy, report.getCenterY(), 1e-6 * (1 + Math.abs(cy)));
+        assertEquals(msd, report.getMeanSquaredDisplacement(), 1e-6 * msd);
+        assertEquals(rg, report.getRadiusOfGyration(), 1e-6 * rg);
+    }
+
+    @Test
+    void onStep_inlineMatchesStored() {
+        SpiralWalker walker = new SpiralWalker();
+        WalkStatistics inline = new WalkStatistics();
+        ArrayList<Coordinate> path = walker.walk(500, inline);
+        WalkStatistics stored = new WalkStatistics();
+        stored.addAll(path);
+        assertEquals(stored.getReport().toString(), inline.getReport().toString());
+    }
+
+    @Test
+    void both_notifiesBoth() {
+        WalkStatistics a = new WalkStatistics();
+        WalkStatistics b = new WalkStatistics();
+        StepListener listener = StepListener.both(a, b);
+        listener.onStep(3, 4);
+        listener.onStep(0, 0);
+        assertEquals(2, a.getReport().getNumPoints());
+        assertEquals(2, b.getReport().getNumPoints());
+        assertSame(a, StepListener.both(a, null));
+        assertSame(b, StepListener.both(null, b));
+        assertNull(StepListener.both(null, null));
+    }
+
+}